@@ -0,0 +1,87 @@
+package com.usermanagement.benchmark;
+
+import com.usermanagement.util.JsonUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 对比两次 JMH 基准运行的 JSON 结果（-rf json 输出的格式）
+ *
+ * 按基准名称和参数匹配，打印两次的得分和变化比例。耗时类结果（单位含 /op）变大为回退，
+ * 吞吐类结果变小为回退；任一基准回退超过阈值时以退出码 1 结束，可以直接用在构建脚本里。
+ *
+ * 用法：java -cp Cooperation/bench/target/benchmarks.jar com.usermanagement.benchmark.BenchmarkCompare 基准.json 本次.json [--threshold=10]
+ */
+public class BenchmarkCompare {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("用法: BenchmarkCompare 基准.json 本次.json [--threshold=10]");
+            System.exit(2);
+        }
+        double threshold = BenchmarkSupport.intArg(args, "threshold", 10);
+
+        Map<String, Map<?, ?>> baseline = load(args[0]);
+        Map<String, Map<?, ?>> current = load(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-60s %14s %14s %9s%n", "基准", "基准得分", "本次得分", "变化");
+        for (Map.Entry<String, Map<?, ?>> entry : current.entrySet()) {
+            Map<?, ?> before = baseline.get(entry.getKey());
+            Map<?, ?> after = entry.getValue();
+            String unit = String.valueOf(after.get("scoreUnit"));
+            double score = ((Number) after.get("score")).doubleValue();
+            if (before == null) {
+                System.out.printf("%-60s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "新增", unit);
+                continue;
+            }
+
+            double old = ((Number) before.get("score")).doubleValue();
+            double change = old == 0 ? 0 : (score - old) / old * 100;
+            boolean lowerIsBetter = unit.endsWith("/op");
+            boolean regressed = lowerIsBetter ? change > threshold : change < -threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-60s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), old, score, change,
+                    unit, regressed ? "  回退" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-60s %14s%n", name, "本次缺失");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d 个基准回退超过 %.0f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+        System.out.printf("没有超过 %.0f%% 的回退%n", threshold);
+    }
+
+    /**
+     * 读取结果文件，返回 "基准名 {参数}" -> primaryMetric
+     */
+    private static Map<String, Map<?, ?>> load(String file) throws IOException {
+        String json = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        Object parsed = JsonUtil.parse(json);
+        if (!(parsed instanceof List)) {
+            throw new IllegalArgumentException(file + " 不是基准结果数组");
+        }
+
+        Map<String, Map<?, ?>> results = new LinkedHashMap<>();
+        for (Object item : (List<?>) parsed) {
+            Map<?, ?> result = (Map<?, ?>) item;
+            Object params = result.get("params");
+            String key = result.get("benchmark") + (params == null ? "" : " " + params);
+            results.put(key, (Map<?, ?>) result.get("primaryMetric"));
+        }
+        return results;
+    }
+}
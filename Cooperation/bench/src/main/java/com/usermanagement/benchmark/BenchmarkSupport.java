@@ -0,0 +1,214 @@
+package com.usermanagement.benchmark;
+
+import com.usermanagement.model.User;
+import com.usermanagement.util.DatabaseUtil;
+import com.usermanagement.util.MigrationRunner;
+import com.usermanagement.util.PasswordUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 基准测试公共工具：嵌入式数据库配置、建表、造数与命令行参数
+ *
+ * 默认使用 H2 内存数据库的 SQL Server 兼容模式（H2 已包含在 benchmarks.jar 中），
+ * 也可以通过 -Ddb.url、-Ddb.driver 等系统属性指向其他数据库。
+ */
+public final class BenchmarkSupport {
+    public static final String EMBEDDED_URL = "jdbc:h2:mem:usermanagement;MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+    public static final String EMBEDDED_DRIVER = "org.h2.Driver";
+    public static final String SEED_PASSWORD = "password123";
+
+    private static final String CREATE_USERS =
+            "CREATE TABLE Users (" +
+            "UserID INT IDENTITY(1,1) PRIMARY KEY, " +
+            "Username NVARCHAR(50) NOT NULL UNIQUE, " +
+            "Password NVARCHAR(100) NOT NULL, " +
+            "UserType NVARCHAR(20) NOT NULL, " +
+            "ApprovalStatus NVARCHAR(20) NOT NULL DEFAULT N'待审核', " +
+            "CreatedTime DATETIME DEFAULT CURRENT_TIMESTAMP, " +
+            "LastLoginTime DATETIME, " +
+            "Remark NVARCHAR(200) NULL, " +
+            "RowVersion INT NOT NULL DEFAULT 0)";
+
+    private BenchmarkSupport() {}
+
+    /**
+     * 未显式指定数据库时使用嵌入式数据库
+     */
+    public static void useEmbeddedDatabase() {
+        setIfAbsent("db.url", EMBEDDED_URL);
+        setIfAbsent("db.driver", EMBEDDED_DRIVER);
+        setIfAbsent("db.username", "sa");
+        setIfAbsent("db.password", "");
+        // 连接池初始化时表还不存在，迁移在建表后由 createSchema / createSchemaFromScript 执行
+        setIfAbsent("db.migrate.enabled", "false");
+    }
+
+    /**
+     * 使用嵌入式数据库初始化连接池并建表（JMH 基准在每个 fork 的 @Setup 中调用）
+     */
+    public static void openEmbeddedDatabase() throws SQLException {
+        useEmbeddedDatabase();
+        DatabaseUtil.initialize();
+        createSchema();
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Users 表不存在时创建（与 init_db.sql 结构一致的可移植子集），然后执行数据库迁移
+     */
+    public static void createSchema() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (!tableExists(conn, "Users")) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(CREATE_USERS);
+                }
+            }
+            new MigrationRunner().migrate(conn);
+        }
+    }
+
+    /**
+     * 按建库脚本（init_db.sql）建表：只执行其中的 CREATE TABLE / CREATE INDEX / CREATE VIEW，
+     * 跳过建库、DROP、示例数据、触发器和存储过程等 SQL Server 专有的部分，然后执行数据库迁移，
+     * 使索引与应用实际运行的表结构一致。Users 表已存在时只执行迁移。
+     */
+    public static void createSchemaFromScript(Path script) throws SQLException, IOException {
+        List<String> statements = schemaStatements(new String(Files.readAllBytes(script), StandardCharsets.UTF_8));
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (!tableExists(conn, "Users")) {
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : statements) {
+                        stmt.execute(sql);
+                    }
+                }
+            }
+            new MigrationRunner().migrate(conn);
+        }
+    }
+
+    /**
+     * 按 GO 分批、按行尾分号拆分语句，保留建表、建索引和建视图语句
+     */
+    static List<String> schemaStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\r?\\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("--") || (current.length() == 0 && trimmed.isEmpty())) {
+                continue;
+            }
+            boolean batchEnd = trimmed.equalsIgnoreCase("GO");
+            if (!batchEnd) {
+                current.append(line).append('\n');
+            }
+            if (batchEnd || trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                if (sql.endsWith(";")) {
+                    sql = sql.substring(0, sql.length() - 1).trim();
+                }
+                String upper = sql.toUpperCase(Locale.ROOT);
+                if (upper.startsWith("CREATE TABLE") || upper.startsWith("CREATE INDEX")
+                        || upper.startsWith("CREATE UNIQUE INDEX") || upper.startsWith("CREATE VIEW")) {
+                    statements.add(sql);
+                }
+                current.setLength(0);
+            }
+        }
+        return statements;
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        // 限定当前架构，否则 H2 会把 INFORMATION_SCHEMA.USERS 当作 Users 表
+        try (ResultSet rs = conn.getMetaData().getTables(null, conn.getSchema(), null, new String[]{"TABLE"})) {
+            while (rs.next()) {
+                if (table.equalsIgnoreCase(rs.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 造数：插入 count 个已通过审核的类型1用户，密码均为 SEED_PASSWORD
+     */
+    public static void seedUsers(int count) throws SQLException {
+        seedUsers(0, count);
+    }
+
+    /**
+     * 造数：插入序号在 [fromIndex, toIndex) 之间的用户，可以在已有数据的基础上追加
+     */
+    public static void seedUsers(int fromIndex, int toIndex) throws SQLException {
+        seedUsers(fromIndex, toIndex, User.STATUS_APPROVED);
+    }
+
+    /**
+     * 造数：插入序号在 [fromIndex, toIndex) 之间、审核状态为 approvalStatus 的用户
+     */
+    public static void seedUsers(int fromIndex, int toIndex, String approvalStatus) throws SQLException {
+        String sql = "INSERT INTO Users (Username, Password, UserType, ApprovalStatus, Remark) VALUES (?, ?, ?, ?, ?)";
+        String hashed = PasswordUtil.hash(SEED_PASSWORD);
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = fromIndex; i < toIndex; i++) {
+                pstmt.setString(1, seedUsername(i));
+                pstmt.setString(2, hashed);
+                pstmt.setString(3, User.TYPE_USER1);
+                pstmt.setString(4, approvalStatus);
+                pstmt.setString(5, "基准测试生成的用户");
+                pstmt.addBatch();
+                if ((i - fromIndex + 1) % 1000 == 0) {
+                    pstmt.executeBatch();
+                    conn.commit();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    public static String seedUsername(int index) {
+        return String.format("bench_user_%07d", index);
+    }
+
+    /**
+     * 读取形如 --name=value 的整数参数
+     */
+    public static int intArg(String[] args, String name, int defaultValue) {
+        String value = stringArg(args, name, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * 读取形如 --name=value 的字符串参数
+     */
+    public static String stringArg(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,102 @@
+package com.usermanagement.benchmark;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图（HdrHistogram 式的对数-线性分桶，不依赖第三方库）
+ *
+ * 小于 2048 的值每个值一个桶；更大的值按 2 的幂分段，每段 1024 个桶，相对误差不超过 0.1%（约 3 位有效数字）。
+ * 桶数固定，记录是一次原子自增，可以被多个线程并发调用，内存占用与记录次数无关。
+ * 单位由调用方决定，LoadGenerator 记录微秒。
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 10;
+    private static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;   // 1024
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF * 2;   // 2048
+    // 最大可记录约 2^42（按微秒约 50 天），更大的值计入最后一个桶
+    private static final int MAX_EXPONENT = 32;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT + 2) * SUB_BUCKET_HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalValue = new LongAdder();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalValue.add(value);
+        maxValue.accumulateAndGet(value, Math::max);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // value >> exponent 落在 [1024, 2048) 区间
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        return (exponent + 1) * SUB_BUCKET_HALF + (int) (value >> exponent) - SUB_BUCKET_HALF;
+    }
+
+    /**
+     * 桶内可能出现的最大值（与 HdrHistogram 一样按桶的上界报告分位数）
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKET_HALF - 1;
+        long subBucket = index % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+
+    /**
+     * 第 percentile（0-100）百分位的值，不超过实际记录到的最大值
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return i == BUCKET_COUNT - 1 ? maxValue.get() : Math.min(highestValueOf(i), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+    /**
+     * 把另一个直方图的记录合并进来
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalValue.add(other.totalValue.sum());
+        maxValue.accumulateAndGet(other.maxValue.get(), Math::max);
+    }
+
+    public long getCount() { return totalCount.sum(); }
+    public long getMax() { return maxValue.get(); }
+
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) totalValue.sum() / count;
+    }
+}
@@ -0,0 +1,362 @@
+package com.usermanagement.benchmark;
+
+import com.usermanagement.dao.UserDao;
+import com.usermanagement.dao.UserDaoFactory;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserSummary;
+import com.usermanagement.service.AuthService;
+import com.usermanagement.service.AuthServiceImpl;
+import com.usermanagement.service.LoginThrottledException;
+import com.usermanagement.util.DatabaseUtil;
+import com.usermanagement.util.HashingExecutor;
+import com.usermanagement.util.JsonUtil;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 端到端压测：按比例混合登录、注册和审批，统计各操作的吞吐和延迟分布
+ *
+ * 使用 init_db.sql 的表结构建表并执行数据库迁移（见 BenchmarkSupport.createSchemaFromScript），默认在嵌入式数据库上运行，
+ * 先造 --users 个已通过审核的用户（登录用）和 --pendingUsers 个待审核用户（审批用），
+ * 表中已有数据时跳过造数。
+ *
+ * 闭环模型：concurrency 个工作线程在 rampUpSeconds 内逐个启动，每个线程执行一次操作后
+ * 按指数分布随机等待（平均 thinkTimeMillis）再执行下一次。只统计爬坡结束后 durationSeconds 内的操作。
+ *
+ * 用法：java -cp Cooperation/bench/target/benchmarks.jar com.usermanagement.benchmark.LoadGenerator
+ *      [--users=1000000] [--pendingUsers=10000] [--mix=login:80,register:15,approve:5]
+ *      [--concurrency=64] [--rampUpSeconds=10] [--durationSeconds=60] [--thinkTimeMillis=100]
+ *      [--approveBatch=10] [--schema=数据库建库脚本/init_db.sql] [--out=bench-results/load-时间.json]
+ * 可以用 -Dpassword.hash.iterations=... 调整哈希开销。
+ */
+public class LoadGenerator {
+    private static final long REPORT_INTERVAL_MILLIS = 5000L;
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    private enum Operation { login, register, approve }
+
+    /**
+     * 单个操作的统计
+     */
+    private static final class OperationStats {
+        final LatencyHistogram latencyMicros = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        volatile String lastError;
+    }
+
+    private final AuthService authService = new AuthServiceImpl();
+    private final UserDao userDao = UserDaoFactory.getUserDao();
+    private final int users;
+    private final int approveBatch;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong registered = new AtomicLong();
+    private final LongAdder approved = new LongAdder();
+    private final Map<Operation, OperationStats> stats = new LinkedHashMap<>();
+
+    LoadGenerator(int users, int approveBatch, String mix) {
+        this.users = users;
+        this.approveBatch = approveBatch;
+
+        List<Operation> ops = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int total = 0;
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight <= 0) {
+                continue;
+            }
+            Operation op = Operation.valueOf(kv[0].trim());
+            total += weight;
+            ops.add(op);
+            weights.add(total);
+            stats.put(op, new OperationStats());
+        }
+        if (ops.isEmpty()) {
+            throw new IllegalArgumentException("操作比例为空: " + mix);
+        }
+        this.operations = ops.toArray(new Operation[0]);
+        this.cumulativeWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = BenchmarkSupport.intArg(args, "users", 1000000);
+        int pendingUsers = BenchmarkSupport.intArg(args, "pendingUsers", 10000);
+        String mix = BenchmarkSupport.stringArg(args, "mix", "login:80,register:15,approve:5");
+        int concurrency = BenchmarkSupport.intArg(args, "concurrency", 64);
+        int rampUpSeconds = BenchmarkSupport.intArg(args, "rampUpSeconds", 10);
+        int durationSeconds = BenchmarkSupport.intArg(args, "durationSeconds", 60);
+        int thinkTimeMillis = BenchmarkSupport.intArg(args, "thinkTimeMillis", 100);
+        int approveBatch = BenchmarkSupport.intArg(args, "approveBatch", 10);
+        Path schema = Paths.get(BenchmarkSupport.stringArg(args, "schema", "数据库建库脚本/init_db.sql"));
+        Path out = Paths.get(BenchmarkSupport.stringArg(args, "out",
+                "bench-results/load-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json"));
+
+        BenchmarkSupport.useEmbeddedDatabase();
+        DatabaseUtil.initialize();
+        BenchmarkSupport.createSchemaFromScript(schema);
+        if (countUsers() == 0) {
+            long start = System.nanoTime();
+            System.out.printf("造数：%d 个已通过用户，%d 个待审核用户...%n", users, pendingUsers);
+            BenchmarkSupport.seedUsers(0, users, User.STATUS_APPROVED);
+            BenchmarkSupport.seedUsers(users, users + pendingUsers, User.STATUS_PENDING);
+            System.out.printf("造数完成，用时 %.1f s%n", (System.nanoTime() - start) / 1e9);
+        } else {
+            System.out.println("Users 表已有数据，跳过造数");
+        }
+
+        LoadGenerator generator = new LoadGenerator(users, approveBatch, mix);
+        System.out.printf("并发 %d，爬坡 %d s，测量 %d s，平均思考时间 %d ms，比例 %s%n",
+                concurrency, rampUpSeconds, durationSeconds, thinkTimeMillis, mix);
+        long elapsedNanos = generator.run(concurrency, rampUpSeconds * 1000L, durationSeconds * 1000L, thinkTimeMillis);
+
+        Map<String, Object> report = generator.report(elapsedNanos);
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("users", users);
+        config.put("pendingUsers", pendingUsers);
+        config.put("mix", mix);
+        config.put("concurrency", concurrency);
+        config.put("rampUpSeconds", rampUpSeconds);
+        config.put("durationSeconds", durationSeconds);
+        config.put("thinkTimeMillis", thinkTimeMillis);
+        config.put("approveBatch", approveBatch);
+        report.put("config", config);
+
+        System.out.println(DatabaseUtil.getPoolStats());
+        System.out.println(HashingExecutor.getInstance().getStats());
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.write(out, JsonUtil.toJson(report).getBytes(StandardCharsets.UTF_8));
+        System.out.println("结果已写入 " + out.toAbsolutePath());
+        DatabaseUtil.close();
+    }
+
+    private static long countUsers() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM Users");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * 执行压测，返回测量阶段的实际时长（纳秒）
+     */
+    long run(int concurrency, long rampUpMillis, long durationMillis, int thinkTimeMillis)
+            throws InterruptedException {
+        long begin = System.nanoTime();
+        long measureStart = begin + TimeUnit.MILLISECONDS.toNanos(rampUpMillis);
+        long end = measureStart + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        LongAdder completed = new LongAdder();
+
+        // 业务代码会在标准输出打印每次登录、注册的结果，压测期间屏蔽
+        PrintStream console = System.out;
+        System.setOut(DISCARD);
+        try {
+            for (int w = 0; w < concurrency; w++) {
+                long startAt = begin + (concurrency <= 1 ? 0 : TimeUnit.MILLISECONDS.toNanos(rampUpMillis) * w / concurrency);
+                String source = "load-" + w;
+                Thread worker = new Thread(() -> {
+                    try {
+                        sleepUntil(startAt);
+                        long now;
+                        while ((now = System.nanoTime()) < end) {
+                            Operation op = pick();
+                            OperationStats opStats = stats.get(op);
+                            boolean measuring = now >= measureStart;
+                            try {
+                                execute(op, source);
+                            } catch (RejectedExecutionException | LoginThrottledException e) {
+                                // 哈希线程池过载或登录被限流
+                                if (measuring) {
+                                    opStats.rejected.increment();
+                                }
+                            } catch (Exception e) {
+                                if (measuring) {
+                                    opStats.errors.increment();
+                                    opStats.lastError = e.toString();
+                                }
+                            }
+                            if (measuring) {
+                                opStats.latencyMicros.record((System.nanoTime() - now) / 1000L);
+                                completed.increment();
+                            }
+                            if (thinkTimeMillis > 0) {
+                                double think = -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * thinkTimeMillis;
+                                Thread.sleep(Math.min((long) think, thinkTimeMillis * 10L));
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }, "load-worker-" + w);
+                worker.setDaemon(true);
+                worker.start();
+            }
+
+            long lastCount = 0;
+            while (!done.await(REPORT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                long now = System.nanoTime();
+                long count = completed.sum();
+                console.printf("[%5.1f s] %s，已完成 %d 次，最近 %.0f 次/秒%n", (now - begin) / 1e9,
+                        now < measureStart ? "爬坡中" : "测量中", count,
+                        (count - lastCount) * 1000.0 / REPORT_INTERVAL_MILLIS);
+                lastCount = count;
+            }
+        } finally {
+            System.setOut(console);
+        }
+        return Math.max(1L, Math.min(System.nanoTime(), end) - measureStart);
+    }
+
+    private Operation pick() {
+        int r = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(Operation op, String source) throws SQLException {
+        switch (op) {
+            case login: {
+                String username = BenchmarkSupport.seedUsername(ThreadLocalRandom.current().nextInt(users));
+                if (authService.login(username, BenchmarkSupport.SEED_PASSWORD, User.TYPE_USER1, source) == null) {
+                    throw new IllegalStateException("登录失败: " + username);
+                }
+                break;
+            }
+            case register: {
+                String username = "load_" + runId + "_" + registered.incrementAndGet();
+                if (!authService.register(new User(username, "Passw0rd123", User.TYPE_USER1), "Passw0rd123")) {
+                    throw new IllegalStateException("注册失败: " + username);
+                }
+                break;
+            }
+            case approve: {
+                // 与管理员界面相同：取一页待审核用户后批量审批，并发审批时只有一方能更新同一用户
+                Page<UserSummary> page = userDao.getPendingUsersPage(null, approveBatch);
+                List<Integer> ids = new ArrayList<>();
+                for (UserSummary summary : page.getItems()) {
+                    ids.add(summary.getUserId());
+                }
+                if (!ids.isEmpty()) {
+                    List<Integer> updated = userDao.updateApprovalStatus(ids, User.STATUS_APPROVED);
+                    // DAO 出错时也返回空列表：只有这些用户都已被其他线程审批，空结果才是正常的
+                    if (updated.isEmpty() && anyPending(ids)) {
+                        throw new IllegalStateException("批量审批失败: " + ids.size() + " 个用户仍待审核");
+                    }
+                    approved.add(updated.size());
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("未知操作: " + op);
+        }
+    }
+
+    /**
+     * 直接查询数据库（不经过用户缓存和待审核队列，它们在其他线程审批后才会更新）
+     */
+    private static boolean anyPending(List<Integer> ids) throws SQLException {
+        StringJoiner in = new StringJoiner(", ", "(", ")");
+        ids.forEach(id -> in.add(String.valueOf(id)));
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM Users WHERE ApprovalStatus = ? AND UserID IN " + in)) {
+            pstmt.setString(1, User.STATUS_PENDING);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getLong(1) > 0;
+            }
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * 打印并返回结果（毫秒）
+     */
+    Map<String, Object> report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        LatencyHistogram all = new LatencyHistogram();
+        List<Map<String, Object>> rows = new ArrayList<>();
+
+        System.out.println("操作\t\t次数\t错误\t拒绝\t吞吐(次/秒)\t平均ms\tp50ms\tp99ms\tp99.9ms\t最大ms");
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats s = entry.getValue();
+            all.add(s.latencyMicros);
+            rows.add(row(entry.getKey().name(), s.latencyMicros, s.errors.sum(), s.rejected.sum(), seconds));
+            if (s.lastError != null) {
+                System.out.println("  " + entry.getKey() + " 最近一次错误: " + s.lastError);
+            }
+        }
+        long errors = stats.values().stream().mapToLong(s -> s.errors.sum()).sum();
+        long rejected = stats.values().stream().mapToLong(s -> s.rejected.sum()).sum();
+        Map<String, Object> total = row("total", all, errors, rejected, seconds);
+        System.out.printf("审批通过 %d 个用户%n", approved.sum());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", seconds);
+        report.put("operations", rows);
+        report.put("total", total);
+        report.put("approvedUsers", approved.sum());
+        return report;
+    }
+
+    private static Map<String, Object> row(String name, LatencyHistogram h, long errors, long rejected,
+                                           double seconds) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("operation", name);
+        row.put("count", h.getCount());
+        row.put("errors", errors);
+        row.put("rejected", rejected);
+        row.put("throughput", h.getCount() / seconds);
+        row.put("meanMs", h.getMean() / 1000.0);
+        row.put("p50Ms", h.getValueAtPercentile(50) / 1000.0);
+        row.put("p90Ms", h.getValueAtPercentile(90) / 1000.0);
+        row.put("p99Ms", h.getValueAtPercentile(99) / 1000.0);
+        row.put("p999Ms", h.getValueAtPercentile(99.9) / 1000.0);
+        row.put("maxMs", h.getMax() / 1000.0);
+        System.out.printf("%-8s\t%d\t%d\t%d\t%.1f\t\t%.2f\t%.2f\t%.2f\t%.2f\t%.2f%n", name, h.getCount(), errors,
+                rejected, h.getCount() / seconds, h.getMean() / 1000.0, h.getValueAtPercentile(50) / 1000.0,
+                h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0, h.getMax() / 1000.0);
+        return row;
+    }
+}
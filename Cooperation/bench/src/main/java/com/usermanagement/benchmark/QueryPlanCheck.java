@@ -0,0 +1,309 @@
+package com.usermanagement.benchmark;
+
+import com.usermanagement.dao.UserDaoImpl;
+import com.usermanagement.dao.UserDataDaoImpl;
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserData;
+import com.usermanagement.util.DatabaseUtil;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 查询计划检查：确认 UserDaoImpl 的每条查询都走 db/migration 中为它建立的索引，并且不需要额外排序
+ *
+ * 默认在嵌入式数据库（H2）上运行：按 init_db.sql 建表、执行迁移、造数后，对每条查询执行 EXPLAIN；
+ * 指向 SQL Server 时（-Ddb.url=... -Ddb.driver=...）改用 SET SHOWPLAN_XML ON 取得估计的执行计划，
+ * 需要先用 init_db.sql 建库。语句直接取自 UserDaoImpl / UserDataDaoImpl，只是把参数换成了示例值。
+ * H2 对以等值条件开头的查询不检查排序，UserLogs、UserData 上允许使用外键索引（见 verify）。
+ * 有检查不通过时打印执行计划，进程以状态码 1 退出。
+ *
+ * 用法：java -cp Cooperation/bench/target/benchmarks.jar com.usermanagement.benchmark.QueryPlanCheck
+ *      [--users=20000] [--pendingUsers=2000] [--schema=数据库建库脚本/init_db.sql]
+ */
+public class QueryPlanCheck {
+
+    /**
+     * 一条待检查的查询及其应当使用的索引
+     */
+    private static final class Check {
+        final String name;
+        final String sql;
+        final String index;
+        final boolean ordered;
+        final boolean keyed;
+        final boolean foreignKey;
+        final String alternative;
+
+        /**
+         * @param keyed 查询以等值条件（如 UserType = ?、UserID = ?）开头
+         * @param foreignKey 开头的等值列上另有外键索引（UserLogs、UserData 的 UserID）
+         */
+        Check(String name, String sql, String index, boolean ordered, boolean keyed, boolean foreignKey) {
+            this(name, sql, index, null, ordered, keyed, foreignKey);
+        }
+
+        /**
+         * @param alternative 同样可以接受的另一个索引（两个等值条件各有索引时由优化器按数据分布选择）
+         */
+        Check(String name, String sql, String index, String alternative, boolean ordered, boolean keyed,
+              boolean foreignKey) {
+            this.name = name;
+            this.sql = sql;
+            this.index = index;
+            this.alternative = alternative;
+            this.ordered = ordered;
+            this.keyed = keyed;
+            this.foreignKey = foreignKey;
+        }
+    }
+
+    private static final int PAGE_ROWS = 21;
+    private static final Timestamp CURSOR_TIME = Timestamp.valueOf("2024-01-01 00:00:00");
+    private static final int CURSOR_ID = 100;
+
+    /**
+     * 语句取自 UserDaoImpl / UserDataDaoImpl，参数按顺序换成示例值（见 bind）
+     */
+    private static List<Check> checks() {
+        List<Check> checks = new ArrayList<>();
+        checks.add(new Check("getUserByUsername",
+                bind(UserDaoImpl.USER_BY_USERNAME_SQL, "bench_user_0000001"),
+                null, false, true, false));
+        checks.add(new Check("getAllUsers",
+                UserDaoImpl.ALL_USERS_SQL,
+                "idx_users_created", true, false, false));
+        checks.add(new Check("streamAllUsers",
+                UserDaoImpl.STREAM_ALL_USERS_SQL,
+                "idx_users_created", true, false, false));
+        checks.add(new Check("getUsersPage（第一页）",
+                bind(UserDaoImpl.pageSql(null, false, false), PAGE_ROWS),
+                "idx_users_created", true, false, false));
+        checks.add(new Check("getUsersPage",
+                bind(UserDaoImpl.pageSql(null, false, true), PAGE_ROWS, CURSOR_TIME, CURSOR_TIME, CURSOR_ID),
+                "idx_users_created", true, false, false));
+        checks.add(new Check("getUsersByType",
+                bind(UserDaoImpl.USERS_BY_TYPE_SQL, User.TYPE_USER2),
+                "idx_users_type_created", true, true, false));
+        checks.add(new Check("streamUsersByType",
+                bind(UserDaoImpl.STREAM_USERS_BY_TYPE_SQL, User.TYPE_USER2),
+                "idx_users_type_created", true, true, false));
+        checks.add(new Check("getUsersByTypePage",
+                bind(UserDaoImpl.pageSql(UserDaoImpl.TYPE_FILTER, false, true),
+                        PAGE_ROWS, User.TYPE_USER2, CURSOR_TIME, CURSOR_TIME, CURSOR_ID),
+                "idx_users_type_created", true, true, false));
+        checks.add(new Check("getPendingUsers",
+                UserDaoImpl.PENDING_USERS_SQL,
+                "idx_users_status_created", true, true, false));
+        checks.add(new Check("streamPendingUsers",
+                bind(UserDaoImpl.STREAM_PENDING_USERS_SQL, User.STATUS_PENDING),
+                "idx_users_status_created", true, true, false));
+        checks.add(new Check("getPendingUsersPage",
+                bind(UserDaoImpl.pageSql(UserDaoImpl.PENDING_FILTER, true, true),
+                        PAGE_ROWS, User.STATUS_PENDING, CURSOR_TIME, CURSOR_TIME, CURSOR_ID),
+                "idx_users_status_created", true, true, false));
+        checks.add(new Check("getPendingUsersPage（按类型）",
+                bind(UserDaoImpl.pageSql(UserDaoImpl.PENDING_BY_TYPE_FILTER, true, true),
+                        PAGE_ROWS, User.STATUS_PENDING, User.TYPE_USER2, CURSOR_TIME, CURSOR_TIME, CURSOR_ID),
+                "idx_users_status_created", "idx_users_type_created", true, true, false));
+        // 批量审批的 UPDATE 带 OUTPUT 和表变量，不能单独取计划，检查它定位行的条件
+        checks.add(new Check("updatePendingApprovalStatus（读取部分）",
+                bind("SELECT UserID FROM Users WHERE ApprovalStatus = ? AND "
+                        + UserDaoImpl.pendingApprovalCondition(false, true), User.STATUS_PENDING, CURSOR_TIME),
+                "idx_users_status_created", false, true, false));
+        // 应用只写入 UserLogs，以下两条是查看日志时的典型查询
+        checks.add(new Check("UserLogs 按用户",
+                "SELECT LogID, Action, Details, LogTime FROM UserLogs WHERE UserID = 1 ORDER BY LogTime DESC",
+                "idx_userlogs_user_time", true, true, true));
+        checks.add(new Check("UserLogs 按时间",
+                bind("SELECT LogID, UserID, Action FROM UserLogs WHERE LogTime < ?", CURSOR_TIME),
+                "idx_userlogs_time", false, false, false));
+        checks.add(new Check("UserDataDao.getDataPage（按类型）",
+                bind(UserDataDaoImpl.dataPageSql(true, true), PAGE_ROWS, 1, "个人信息", CURSOR_TIME, CURSOR_TIME, CURSOR_ID),
+                "idx_userdata_user_type_modified", true, true, true));
+        checks.add(new Check("UserDataDao.getDataPage（全部类型）",
+                bind(UserDataDaoImpl.dataPageSql(false, true), PAGE_ROWS, 1, CURSOR_TIME, CURSOR_TIME, CURSOR_ID),
+                "idx_userdata_user_modified", true, true, true));
+        checks.add(new Check("UserDataDao.getDataTypes",
+                bind(UserDataDaoImpl.DATA_TYPES_SQL, 1),
+                "idx_userdata_user_type_modified", false, true, true));
+        return checks;
+    }
+
+    /**
+     * 把语句中的占位符按顺序换成示例值：字符串写成 N'...'，时间写成 '...'，数字原样写入
+     */
+    private static String bind(String sql, Object... values) {
+        StringBuilder bound = new StringBuilder(sql.length() + 32);
+        int next = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c != '?') {
+                bound.append(c);
+                continue;
+            }
+            if (next == values.length) {
+                throw new IllegalArgumentException("示例值少于占位符: " + sql);
+            }
+            Object value = values[next++];
+            if (value instanceof String) {
+                bound.append("N'").append(value).append('\'');
+            } else if (value instanceof Timestamp) {
+                bound.append('\'').append(value).append('\'');
+            } else {
+                bound.append(value);
+            }
+        }
+        if (next != values.length) {
+            throw new IllegalArgumentException("示例值多于占位符: " + sql);
+        }
+        return bound.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.useEmbeddedDatabase();
+        int users = BenchmarkSupport.intArg(args, "users", 20000);
+        int pendingUsers = BenchmarkSupport.intArg(args, "pendingUsers", 2000);
+        Path schema = Paths.get(BenchmarkSupport.stringArg(args, "schema", "数据库建库脚本/init_db.sql"));
+
+        DatabaseUtil.initialize();
+        boolean h2;
+        int failures = 0;
+        try {
+            // 建表后执行迁移，检查的是迁移之后的索引
+            BenchmarkSupport.createSchemaFromScript(schema);
+            try (Connection conn = DatabaseUtil.getConnection()) {
+                h2 = conn.getMetaData().getDatabaseProductName().toUpperCase(Locale.ROOT).contains("H2");
+            }
+            if (countUsers() == 0) {
+                System.out.println("造数: " + users + " 个已通过用户, " + pendingUsers + " 个待审核用户");
+                BenchmarkSupport.seedUsers(0, users, User.STATUS_APPROVED);
+                BenchmarkSupport.seedUsers(users, users + pendingUsers, User.STATUS_PENDING);
+                // 让类型分布不那么单一，按类型查询的选择性更接近真实数据
+                DatabaseUtil.executeUpdate("UPDATE Users SET UserType = N'" + User.TYPE_USER2 + "' WHERE UserID % 3 = 0");
+                seedUserData(Math.min(users, 200), 50);
+            }
+            if (h2) {
+                DatabaseUtil.executeUpdate("ANALYZE");
+            }
+
+            for (Check check : checks()) {
+                String plan = h2 ? explainH2(check.sql) : showPlanSqlServer(check.sql);
+                String problem = verify(check, plan, h2);
+                if (problem == null) {
+                    System.out.printf("通过    %-36s %s%n", check.name,
+                            check.index == null ? "（唯一约束索引）"
+                                    : check.alternative == null ? check.index : check.index + " 或 " + check.alternative);
+                } else {
+                    failures++;
+                    System.out.printf("不通过  %-36s %s%n", check.name, problem);
+                    System.out.println(indent(plan));
+                }
+            }
+            System.out.println(failures == 0 ? "全部查询计划检查通过" : failures + " 条查询计划检查不通过");
+        } finally {
+            DatabaseUtil.close();
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 检查执行计划，通过时返回 null，否则返回原因
+     */
+    private static String verify(Check check, String plan, boolean h2) {
+        String lower = plan.toLowerCase(Locale.ROOT);
+        if (check.index == null) {
+            boolean scan = h2 ? lower.contains("tablescan")
+                    : lower.contains("physicalop=\"table scan\"") || lower.contains("physicalop=\"clustered index scan\"");
+            return scan ? "全表扫描" : null;
+        }
+        if (!usesIndex(lower, check.index) && !usesIndex(lower, check.alternative)) {
+            // UserID = ? 时 H2 会优先选外键的单列索引（CONSTRAINT_INDEX_*），这种情况以 SQL Server 的计划为准
+            if (!(h2 && check.foreignKey && lower.contains("constraint_index"))) {
+                return "未使用索引 " + check.index;
+            }
+        }
+        // H2 的计划不会标注等值条件之后按索引顺序读取，以等值条件开头的查询在 H2 上不检查排序
+        if (check.ordered && !(h2 && check.keyed)) {
+            // H2 按索引顺序读取时计划中标注 index sorted；SQL Server 计划中不应出现 Sort 运算符
+            boolean sorted = h2 ? lower.contains("index sorted") : !lower.contains("physicalop=\"sort\"");
+            if (!sorted) {
+                return "需要额外排序";
+            }
+        }
+        return null;
+    }
+
+    private static boolean usesIndex(String lowerPlan, String index) {
+        return index != null && lowerPlan.contains(index.toLowerCase(Locale.ROOT));
+    }
+
+    private static String explainH2(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    /**
+     * SHOWPLAN_XML 打开后语句只编译不执行，结果集中是 XML 格式的估计执行计划
+     */
+    private static String showPlanSqlServer(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("SET SHOWPLAN_XML ON");
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            } finally {
+                stmt.execute("SET SHOWPLAN_XML OFF");
+            }
+        }
+        return plan.toString();
+    }
+
+    /**
+     * 前 userCount 个用户每人 perUser 条数据，分三种类型
+     */
+    private static void seedUserData(int userCount, int perUser) {
+        String[] types = {"个人信息", "联系方式", "备忘"};
+        List<UserData> items = new ArrayList<>(userCount * perUser);
+        for (int userId = 1; userId <= userCount; userId++) {
+            for (int i = 0; i < perUser; i++) {
+                items.add(new UserData(userId, types[i % types.length], "字段" + i, "基准测试生成的数据"));
+            }
+        }
+        int added = new UserDataDaoImpl().addData(items);
+        System.out.println("造数: " + added + " 条用户数据");
+    }
+
+    private static int countUsers() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM Users");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static String indent(String plan) {
+        return "        " + plan.trim().replace("\n", "\n        ");
+    }
+}
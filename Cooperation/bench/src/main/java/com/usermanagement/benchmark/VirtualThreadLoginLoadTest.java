@@ -0,0 +1,152 @@
+package com.usermanagement.benchmark;
+
+import com.usermanagement.model.User;
+import com.usermanagement.service.AuthService;
+import com.usermanagement.service.AuthServiceImpl;
+import com.usermanagement.util.DatabaseUtil;
+import com.usermanagement.util.HashingExecutor;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 虚拟线程并发登录压测：同时发起大量登录（默认 10000 个，每个一个虚拟线程），
+ * 统计成功、过载拒绝和失败的数量以及延迟分布。
+ *
+ * 另有一个探针虚拟线程每 10ms 醒来一次并记录实际延迟：如果有虚拟线程在 synchronized 块中
+ * 做 I/O 而占住载体线程，载体线程被耗尽，探针的延迟会明显增大。
+ * 加上 -Djdk.tracePinnedThreads=full 运行可以打印发生钉住的调用栈。
+ *
+ * 需要 JDK 21 及以上；更早的 JDK 退回平台线程，只能验证功能，不能说明载体线程的情况。
+ * 用法：java -cp Cooperation/bench/target/benchmarks.jar com.usermanagement.benchmark.VirtualThreadLoginLoadTest
+ *      [--logins=10000] [--users=1000] [--iterations=1000]
+ */
+public class VirtualThreadLoginLoadTest {
+    private static final long PROBE_INTERVAL_MILLIS = 10L;
+
+    public static void main(String[] args) throws Exception {
+        int logins = BenchmarkSupport.intArg(args, "logins", 10000);
+        int users = BenchmarkSupport.intArg(args, "users", 1000);
+        // 压测关注并发调度而不是哈希开销，默认降低迭代次数并放宽哈希线程池的排队限制
+        defaultProperty("password.hash.iterations", BenchmarkSupport.stringArg(args, "iterations", "1000"));
+        defaultProperty("hashing.queueCapacity", String.valueOf(logins));
+        defaultProperty("hashing.maxQueueWaitMillis", "60000");
+        defaultProperty("db.pool.borrowTimeoutMillis", "60000");
+
+        BenchmarkSupport.useEmbeddedDatabase();
+        DatabaseUtil.initialize();
+        BenchmarkSupport.createSchema();
+        BenchmarkSupport.seedUsers(users);
+
+        ExecutorService executor = newVirtualThreadExecutor();
+        boolean virtual = executor != null;
+        if (!virtual) {
+            System.out.println("当前 JDK 不支持虚拟线程，退回平台线程");
+            executor = Executors.newCachedThreadPool();
+        }
+        System.out.printf("并发登录 %d 次（%s），用户数 %d，CPU 核数 %d%n", logins,
+                virtual ? "虚拟线程" : "平台线程", users, Runtime.getRuntime().availableProcessors());
+
+        AuthService authService = new AuthServiceImpl();
+        LongAdder succeeded = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long[] latencies = new long[logins];
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(logins);
+
+        // 探针：记录计划唤醒时间与实际唤醒时间的最大差值
+        AtomicBoolean probing = new AtomicBoolean(true);
+        AtomicLong maxProbeLagNanos = new AtomicLong();
+        LongAdder probeTicks = new LongAdder();
+        executor.execute(() -> {
+            while (probing.get()) {
+                long expected = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PROBE_INTERVAL_MILLIS);
+                try {
+                    Thread.sleep(PROBE_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                maxProbeLagNanos.accumulateAndGet(System.nanoTime() - expected, Math::max);
+                probeTicks.increment();
+            }
+        });
+
+        for (int i = 0; i < logins; i++) {
+            int index = i;
+            executor.execute(() -> {
+                try {
+                    startGate.await();
+                    long start = System.nanoTime();
+                    try {
+                        User user = authService.login(BenchmarkSupport.seedUsername(index % users),
+                                BenchmarkSupport.SEED_PASSWORD, User.TYPE_USER1, "load-" + (index % 256));
+                        if (user != null) {
+                            succeeded.increment();
+                        } else {
+                            failed.increment();
+                        }
+                    } catch (RejectedExecutionException e) {
+                        rejected.increment();
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                    }
+                    latencies[index] = System.nanoTime() - start;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        probing.set(false);
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+
+        Arrays.sort(latencies);
+        System.out.printf("耗时 %.2f s，吞吐 %.0f 次/秒%n", elapsedNanos / 1e9, logins * 1e9 / elapsedNanos);
+        System.out.printf("成功 %d，过载拒绝 %d，失败 %d%n", succeeded.sum(), rejected.sum(), failed.sum());
+        System.out.printf("延迟 p50 %.1f ms, p99 %.1f ms, 最大 %.1f ms%n",
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e6);
+        System.out.printf("探针唤醒 %d 次，最大延迟 %.1f ms%n", probeTicks.sum(), maxProbeLagNanos.get() / 1e6);
+        System.out.println(DatabaseUtil.getPoolStats());
+        System.out.println(HashingExecutor.getInstance().getStats());
+
+        DatabaseUtil.close();
+    }
+
+    /**
+     * JDK 21 起有 Executors.newVirtualThreadPerTaskExecutor()，通过反射调用以兼容更早的 JDK
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static void defaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.round(percentile * (sorted.length - 1)));
+        return sorted[index] / 1e6;
+    }
+}
@@ -0,0 +1,65 @@
+package com.usermanagement.benchmark.jmh;
+
+import com.usermanagement.benchmark.BenchmarkSupport;
+import com.usermanagement.model.User;
+import com.usermanagement.service.AuthService;
+import com.usermanagement.service.AuthServiceImpl;
+import com.usermanagement.util.DatabaseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 注册：用户名校验 + 密码强度校验 + 哈希 + 插入，每次使用不同的用户名
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthServiceBenchmarks {
+    private static final String PASSWORD = "Passw0rd123";
+
+    private AuthService authService;
+    private PrintStream console;
+    private long registered;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkSupport.openEmbeddedDatabase();
+        authService = new AuthServiceImpl();
+        // 注册成功时会打印提示，测量期间丢弃控制台输出
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+        DatabaseUtil.close();
+    }
+
+    @Benchmark
+    public User register() {
+        User user = new User("bench_reg_" + (++registered), PASSWORD, User.TYPE_USER1);
+        if (!authService.register(user, PASSWORD)) {
+            throw new IllegalStateException("注册失败: " + user.getUsername());
+        }
+        return user;
+    }
+}
@@ -0,0 +1,68 @@
+package com.usermanagement.benchmark.jmh;
+
+import com.usermanagement.benchmark.BenchmarkSupport;
+import com.usermanagement.dao.UserDao;
+import com.usermanagement.dao.UserDaoImpl;
+import com.usermanagement.model.User;
+import com.usermanagement.util.DatabaseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接池吞吐：固定 32 个并发线程登录校验，逐步放大连接池，观察吞吐的变化
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class ConnectionPoolBenchmarks {
+    private static final int USERS = 1000;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int poolSize;
+
+    private UserDao userDao;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        System.setProperty("db.pool.minSize", String.valueOf(poolSize));
+        System.setProperty("db.pool.maxSize", String.valueOf(poolSize));
+        BenchmarkSupport.openEmbeddedDatabase();
+        BenchmarkSupport.seedUsers(USERS);
+        userDao = new UserDaoImpl();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseUtil.close();
+    }
+
+    @Benchmark
+    public User validateLogin() {
+        String username = BenchmarkSupport.seedUsername(ThreadLocalRandom.current().nextInt(USERS));
+        User user = userDao.validateLogin(username, BenchmarkSupport.SEED_PASSWORD, User.TYPE_USER1);
+        if (user == null) {
+            throw new IllegalStateException("登录失败: " + username);
+        }
+        return user;
+    }
+}
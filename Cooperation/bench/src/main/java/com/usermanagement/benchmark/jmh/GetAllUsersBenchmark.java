@@ -0,0 +1,58 @@
+package com.usermanagement.benchmark.jmh;
+
+import com.usermanagement.benchmark.BenchmarkSupport;
+import com.usermanagement.dao.UserDao;
+import com.usermanagement.dao.UserDaoImpl;
+import com.usermanagement.model.User;
+import com.usermanagement.util.DatabaseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 全量查询用户，数据量分 1k / 100k / 1M 三档（每档在单独的 fork 中造数）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class GetAllUsersBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private UserDao userDao;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkSupport.openEmbeddedDatabase();
+        BenchmarkSupport.seedUsers(rows);
+        userDao = new UserDaoImpl();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseUtil.close();
+    }
+
+    @Benchmark
+    public List<User> getAllUsers() {
+        return userDao.getAllUsers();
+    }
+}
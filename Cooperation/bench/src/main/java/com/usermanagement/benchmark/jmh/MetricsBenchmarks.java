@@ -0,0 +1,42 @@
+package com.usermanagement.benchmark.jmh;
+
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.metrics.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指标采集开销：单次直方图记录
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmarks {
+    private Timer timer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        timer = new MetricsRegistry(true).timer("bench_seconds", "基准");
+    }
+
+    @Benchmark
+    public Timer record() {
+        timer.record(ThreadLocalRandom.current().nextLong(5_000_000L));
+        return timer;
+    }
+}
@@ -0,0 +1,93 @@
+package com.usermanagement.benchmark.jmh;
+
+import com.usermanagement.util.LegacySha256PasswordHasher;
+import com.usermanagement.util.PasswordHasher;
+import com.usermanagement.util.PasswordUtil;
+import com.usermanagement.util.Pbkdf2PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不访问数据库的密码路径：不同 PBKDF2 迭代次数下的哈希（用于在登录延迟预算内选择
+ * password.hash.iterations，多线程吞吐可加 -t 参数运行），以及密码强度校验。
+ * 旧版 SHA-256 哈希和基于 String.matches 的强度校验作为对照。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PasswordBenchmarks {
+    private static final String PASSWORD = "password123";
+    private static final String[] PASSWORDS = {
+            "password123", "short1", "onlyletters", "12345678", "Passw0rdLonger", "中文密码abc123"
+    };
+
+    private static final PasswordHasher LEGACY = new LegacySha256PasswordHasher();
+
+    private int next;
+
+    /**
+     * 只有 hash 按迭代次数展开，其余基准不受 @Param 影响
+     */
+    @State(Scope.Benchmark)
+    public static class Iterations {
+        @Param({"100000", "210000", "310000", "600000"})
+        public int iterations;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            PasswordUtil.setHasher(new Pbkdf2PasswordHasher(iterations));
+        }
+    }
+
+    @Benchmark
+    public String hash(Iterations iterations) {
+        return PasswordUtil.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public String legacySha256Hash() {
+        return LEGACY.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean checkPasswordStrength() {
+        return PasswordUtil.checkPasswordStrength(nextPassword());
+    }
+
+    @Benchmark
+    public boolean legacyRegexCheckPasswordStrength() {
+        return legacyRegexCheck(nextPassword());
+    }
+
+    private String nextPassword() {
+        next = (next + 1) % PASSWORDS.length;
+        return PASSWORDS[next];
+    }
+
+    /**
+     * 改用 PasswordPolicy 之前 PasswordUtil.checkPasswordStrength 的实现
+     */
+    private static boolean legacyRegexCheck(String password) {
+        if (password == null || password.length() < 6) {
+            return false;
+        }
+        boolean hasDigit = password.matches(".*\\d.*");
+        boolean hasLetter = password.matches(".*[a-zA-Z].*");
+        return hasDigit && hasLetter;
+    }
+}
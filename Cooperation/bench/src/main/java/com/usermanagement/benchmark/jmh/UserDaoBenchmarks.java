@@ -0,0 +1,146 @@
+package com.usermanagement.benchmark.jmh;
+
+import com.usermanagement.benchmark.BenchmarkSupport;
+import com.usermanagement.dao.InstrumentedUserDao;
+import com.usermanagement.dao.UserDao;
+import com.usermanagement.dao.UserDaoImpl;
+import com.usermanagement.dao.UserRowMapper;
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.model.User;
+import com.usermanagement.util.DatabaseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+
+/**
+ * 行映射（SELECT * 按列名、显式列按序号、摘要投影三种读取方式）与登录校验（含一次密码哈希），
+ * 以及同一登录校验加上 InstrumentedUserDao 后的耗时，两者之差即为指标采集的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDaoBenchmarks {
+    private static final int USERS = 1000;
+
+    private UserDao userDao;
+    private UserDao instrumented;
+    private CachedRowSet rows;
+    private CachedRowSet allColumnRows;
+    private CachedRowSet summaryRows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkSupport.openEmbeddedDatabase();
+        BenchmarkSupport.seedUsers(USERS);
+        userDao = new UserDaoImpl();
+        instrumented = new InstrumentedUserDao(userDao, new MetricsRegistry(true));
+        rows = loadRows("SELECT TOP (" + USERS + ") " + UserRowMapper.USER_COLUMNS + " FROM Users");
+        allColumnRows = loadRows("SELECT TOP (" + USERS + ") * FROM Users");
+        summaryRows = loadRows("SELECT TOP (" + USERS + ") " + UserRowMapper.SUMMARY_COLUMNS + " FROM Users");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseUtil.close();
+    }
+
+    /**
+     * 结果集离线缓存后只测映射本身，不含数据库读取；得分为每行耗时
+     */
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public void mapUser(Blackhole blackhole) throws SQLException {
+        rows.beforeFirst();
+        while (rows.next()) {
+            blackhole.consume(UserRowMapper.mapUser(rows));
+        }
+    }
+
+    /**
+     * 改用显式列之前的读取方式：SELECT * 且每列按列名查找
+     */
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public void mapUserByName(Blackhole blackhole) throws SQLException {
+        allColumnRows.beforeFirst();
+        while (allColumnRows.next()) {
+            blackhole.consume(mapByName(allColumnRows));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public void mapSummary(Blackhole blackhole) throws SQLException {
+        summaryRows.beforeFirst();
+        while (summaryRows.next()) {
+            blackhole.consume(UserRowMapper.mapSummary(summaryRows));
+        }
+    }
+
+    @Benchmark
+    public User validateLogin() {
+        return login(userDao);
+    }
+
+    @Benchmark
+    public User instrumentedValidateLogin() {
+        return login(instrumented);
+    }
+
+    private static User login(UserDao dao) {
+        String username = BenchmarkSupport.seedUsername(ThreadLocalRandom.current().nextInt(USERS));
+        User user = dao.validateLogin(username, BenchmarkSupport.SEED_PASSWORD, User.TYPE_USER1);
+        if (user == null) {
+            throw new IllegalStateException("登录失败: " + username);
+        }
+        return user;
+    }
+
+    private static User mapByName(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setUserId(rs.getInt("UserID"));
+        user.setUsername(rs.getString("Username"));
+        user.setPassword(rs.getString("Password"));
+        user.setUserType(rs.getString("UserType"));
+        user.setApprovalStatus(rs.getString("ApprovalStatus"));
+        user.setCreatedTime(rs.getTimestamp("CreatedTime"));
+        user.setLastLoginTime(rs.getTimestamp("LastLoginTime"));
+        user.setRemark(rs.getString("Remark"));
+        user.setRowVersion(rs.getInt("RowVersion"));
+        user.markClean();
+        return user;
+    }
+
+    private static CachedRowSet loadRows(String sql) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+            rowSet.populate(rs);
+            return rowSet;
+        }
+    }
+}
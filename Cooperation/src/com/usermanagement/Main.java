@@ -1,23 +1,40 @@
 package com.usermanagement;
 
+import com.usermanagement.dao.AuditLogWriter;
+import com.usermanagement.dao.LoginTimeWriter;
+import com.usermanagement.dao.UserDaoFactory;
+import com.usermanagement.server.ApiServer;
 import com.usermanagement.ui.LoginUI;
 import com.usermanagement.util.DatabaseUtil;
 
+import java.util.Arrays;
+
 /**
  * 用户管理系统主程序入口
+ *
+ * 默认启动控制台界面；带 --server 参数时以无界面服务模式运行（见 ApiServer）
  */
 public class Main {
     public static void main(String[] args) {
         try {
-            // 1. 初始化数据库连接
+            // 1. 初始化数据库连接，加载待审核队列
             DatabaseUtil.initialize();
+            UserDaoFactory.warmUp();
+
+            // 2. 服务模式：启动 HTTP 接口，直到进程被终止
+            if (Arrays.asList(args).contains("--server")) {
+                ApiServer server = ApiServer.fromConfig();
+                server.start();
+                server.awaitShutdown();
+                return;
+            }
 
-            // 2. 显示欢迎信息
+            // 3. 显示欢迎信息
             System.out.println("========================================");
             System.out.println("      欢迎使用用户管理系统 v1.0");
             System.out.println("========================================");
 
-            // 3. 启动登录界面
+            // 4. 启动登录界面
             LoginUI loginUI = new LoginUI();
             loginUI.show();
 
@@ -25,7 +42,9 @@ public class Main {
             System.err.println("系统初始化失败: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            // 4. 关闭数据库连接
+            // 5. 写出尚未保存的登录时间和操作日志，再关闭数据库连接
+            LoginTimeWriter.shutdownInstance();
+            AuditLogWriter.shutdownInstance();
             DatabaseUtil.close();
         }
     }
@@ -34,19 +34,242 @@ public class DatabaseConfig {
         props.setProperty("db.driver", "com.microsoft.sqlserver.jdbc.SQLServerDriver");
     }
 
+    /**
+     * 读取配置项，JVM系统属性（-Dkey=value）优先于配置文件
+     */
+    private static String get(String key) {
+        return System.getProperty(key, props.getProperty(key));
+    }
+
     public static String getUrl() {
-        return props.getProperty("db.url");
+        return get("db.url");
     }
 
     public static String getUsername() {
-        return props.getProperty("db.username");
+        return get("db.username");
     }
 
     public static String getPassword() {
-        return props.getProperty("db.password");
+        return get("db.password");
     }
 
     public static String getDriver() {
-        return props.getProperty("db.driver");
+        return get("db.driver");
+    }
+
+    // 连接池配置
+    public static int getPoolMinSize() {
+        return getInt("db.pool.minSize", 2);
+    }
+
+    public static int getPoolMaxSize() {
+        return getInt("db.pool.maxSize", 10);
+    }
+
+    public static long getPoolIdleTimeoutMillis() {
+        return getLong("db.pool.idleTimeoutMillis", 300000L);
+    }
+
+    public static long getPoolBorrowTimeoutMillis() {
+        return getLong("db.pool.borrowTimeoutMillis", 5000L);
+    }
+
+    public static long getPoolLeakDetectionMillis() {
+        return getLong("db.pool.leakDetectionMillis", 60000L);
+    }
+
+    /**
+     * 等待连接的线程数上限，超出时借用立即失败，0 表示不限制（只受 borrowTimeoutMillis 约束）
+     */
+    public static int getPoolMaxWaiters() {
+        return getInt("db.pool.maxWaiters", 0);
+    }
+
+    public static int getPoolValidationTimeoutSeconds() {
+        return getInt("db.pool.validationTimeoutSeconds", 2);
+    }
+
+    /**
+     * 每个连接缓存的 PreparedStatement 数量，0 表示关闭语句缓存
+     */
+    public static int getStatementCacheSize() {
+        return getInt("db.pool.statementCacheSize", 64);
+    }
+
+    /**
+     * 流式查询时每次从数据库拉取的行数
+     */
+    public static int getFetchSize() {
+        return getInt("db.fetchSize", 500);
+    }
+
+    // 批量导入配置
+    public static int getBatchChunkSize() {
+        return getInt("batch.chunkSize", 500);
+    }
+
+    public static int getBatchCommitInterval() {
+        return getInt("batch.commitInterval", 5000);
+    }
+
+    /**
+     * 批量导入时计算密码哈希的线程数，0 表示使用CPU核数
+     */
+    public static int getBatchHashThreads() {
+        return getInt("batch.hashThreads", 0);
+    }
+
+    // 用户缓存配置
+    public static boolean isUserCacheEnabled() {
+        return getBoolean("cache.user.enabled", true);
+    }
+
+    public static int getUserCacheMaxSize() {
+        return getInt("cache.user.maxSize", 10000);
+    }
+
+    public static long getUserCacheTtlSeconds() {
+        return getLong("cache.user.ttlSeconds", 300L);
+    }
+
+    public static long getUserCacheNegativeTtlSeconds() {
+        return getLong("cache.user.negativeTtlSeconds", 30L);
+    }
+
+    /**
+     * 是否异步合并写入最后登录时间，关闭时登录成功后同步更新
+     */
+    public static boolean isLoginTimeWriterEnabled() {
+        return getBoolean("login.timeWriter.enabled", true);
+    }
+
+    public static int getLoginTimeWriterMaxPending() {
+        return getInt("login.timeWriter.maxPending", 10000);
+    }
+
+    public static int getLoginTimeWriterBatchSize() {
+        return getInt("login.timeWriter.batchSize", 500);
+    }
+
+    public static long getLoginTimeWriterFlushIntervalMillis() {
+        return getLong("login.timeWriter.flushIntervalMillis", 1000L);
+    }
+
+    /**
+     * 是否异步批量写入操作日志（UserLogs），关闭时状态变更后同步写入
+     */
+    public static boolean isAuditWriterEnabled() {
+        return getBoolean("audit.writer.enabled", true);
+    }
+
+    public static int getAuditWriterMaxPending() {
+        return getInt("audit.writer.maxPending", 10000);
+    }
+
+    public static int getAuditWriterBatchSize() {
+        return getInt("audit.writer.batchSize", 500);
+    }
+
+    public static long getAuditWriterFlushIntervalMillis() {
+        return getLong("audit.writer.flushIntervalMillis", 1000L);
+    }
+
+    // 密码强度配置
+    public static int getPasswordMinLength() {
+        return getInt("password.minlength", 6);
+    }
+
+    public static boolean isPasswordMixedCaseRequired() {
+        return getBoolean("password.require.mixedcase", false);
+    }
+
+    public static boolean isPasswordDigitRequired() {
+        return getBoolean("password.require.digit", true);
+    }
+
+    /**
+     * 新密码使用的哈希算法：pbkdf2-sha256（默认）或 sha256（旧版无盐哈希）
+     */
+    public static String getPasswordHashAlgorithm() {
+        return getString("password.hash.algorithm", "pbkdf2-sha256");
+    }
+
+    /**
+     * PBKDF2 迭代次数，调整后旧哈希会在用户下次登录时按新次数重新计算
+     */
+    public static int getPasswordHashIterations() {
+        return getInt("password.hash.iterations", 310000);
+    }
+
+    /**
+     * 密码哈希线程数，0 表示使用CPU核数
+     */
+    public static int getHashingThreads() {
+        return getInt("hashing.threads", 0);
+    }
+
+    /**
+     * 等待哈希的任务数上限，超出时立即拒绝
+     */
+    public static int getHashingQueueCapacity() {
+        return getInt("hashing.queueCapacity", 64);
+    }
+
+    /**
+     * 任务排队超过该时间不再计算，0 表示不限制
+     */
+    public static long getHashingMaxQueueWaitMillis() {
+        return getLong("hashing.maxQueueWaitMillis", 2000L);
+    }
+
+    /**
+     * 读取字符串配置，缺省时返回默认值
+     */
+    public static String getString(String key, String defaultValue) {
+        String value = get(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    /**
+     * 读取整数配置，缺省或格式错误时返回默认值
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("配置项 " + key + " 不是有效的整数，使用默认值 " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 读取长整数配置，缺省或格式错误时返回默认值
+     */
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("配置项 " + key + " 不是有效的整数，使用默认值 " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 读取布尔配置，缺省时返回默认值
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
     }
-}
\ No newline at end of file
+}
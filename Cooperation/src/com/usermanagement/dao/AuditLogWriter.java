@@ -0,0 +1,326 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.metrics.Timer;
+import com.usermanagement.util.DatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 操作日志（UserLogs）的异步批量写入器，取代原来 Users 表上的 trg_UserStatusChange 触发器
+ *
+ * DAO 在审核状态实际发生变化后调用 log()，日志只追加到内存队列；后台线程定期把队列中的日志
+ * 用 JDBC 批处理插入 UserLogs。登录时间、改密码等不涉及审核状态的更新不再为日志付出任何代价。
+ * 队列已满或写入器关闭时 log() 改为同步写入，日志不会丢失；程序退出时调用 shutdownInstance() 写出剩余日志。
+ * 日志时间取状态变化发生的时间，而不是写入数据库的时间。
+ *
+ * 整批写入失败时逐条重试：连接中断等暂时性错误放回队列等待下一次刷新；违反约束等永久性错误
+ * （例如刷新前用户已被删除，外键不再成立）重试也不会成功，丢弃该条并计数，不影响同批的其他日志。
+ */
+public final class AuditLogWriter {
+    public static final String ACTION_STATUS_CHANGE = "状态变更";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO UserLogs (UserID, Action, Details, LogTime) VALUES (?, ?, ?, ?)";
+
+    private static volatile AuditLogWriter instance = null;
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private final int maxPending;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<Entry> pending;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean closed = false;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final Timer flushTimer;
+
+    /**
+     * 一条待写入的日志
+     */
+    private static final class Entry {
+        final int userId;
+        final String action;
+        final String details;
+        final long timeMillis;
+
+        Entry(int userId, String action, String details, long timeMillis) {
+            this.userId = userId;
+            this.action = action;
+            this.details = details;
+            this.timeMillis = timeMillis;
+        }
+    }
+
+    public AuditLogWriter(int maxPending, int batchSize, long flushIntervalMillis) {
+        this.maxPending = Math.max(1, maxPending);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(10, flushIntervalMillis);
+        this.pending = new ArrayBlockingQueue<>(this.maxPending);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "audit-log-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                this.flushIntervalMillis, this.flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        flushTimer = metrics.timer("audit_log_flush_seconds", "操作日志批量写入耗时");
+        metrics.gauge("audit_log_queue_depth", "等待写入的操作日志条数", pending::size);
+        metrics.counter("audit_log_recorded_total", "进入队列的操作日志条数", recorded::sum);
+        metrics.counter("audit_log_rejected_total", "队列已满改为同步写入的操作日志条数", rejected::sum);
+        metrics.counter("audit_log_written_total", "已写入数据库的操作日志条数", rowsWritten::sum);
+        metrics.counter("audit_log_lost_total", "写入失败且无法放回队列的操作日志条数", lost::sum);
+        metrics.counter("audit_log_discarded_total", "永久性写入失败（如违反外键约束）而丢弃的操作日志条数", discarded::sum);
+    }
+
+    /**
+     * 获取共享的写入器；配置 audit.writer.enabled=false 时返回 null
+     */
+    public static AuditLogWriter getInstance() {
+        AuditLogWriter current = instance;
+        if (current == null && DatabaseConfig.isAuditWriterEnabled()) {
+            lock.lock();
+            try {
+                if (instance == null) {
+                    instance = new AuditLogWriter(
+                            DatabaseConfig.getAuditWriterMaxPending(),
+                            DatabaseConfig.getAuditWriterBatchSize(),
+                            DatabaseConfig.getAuditWriterFlushIntervalMillis());
+                }
+                current = instance;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 写出剩余的日志并停止共享写入器（程序退出时在关闭数据库连接池之前调用）
+     */
+    public static void shutdownInstance() {
+        AuditLogWriter current;
+        lock.lock();
+        try {
+            current = instance;
+            instance = null;
+        } finally {
+            lock.unlock();
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    /**
+     * 记录一条操作日志：优先放入共享写入器的队列，写入器未启用或队列已满时同步写入
+     */
+    public static void log(int userId, String action, String details) {
+        Entry entry = new Entry(userId, action, details, System.currentTimeMillis());
+        AuditLogWriter writer = getInstance();
+        if (writer != null && writer.offer(entry)) {
+            return;
+        }
+        try {
+            write(Collections.singletonList(entry), 1);
+        } catch (SQLException e) {
+            System.err.println("写入操作日志失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 审核状态变更日志，内容与原触发器写入的一致
+     */
+    public static void logStatusChange(int userId, String oldStatus, String newStatus) {
+        if (oldStatus == null || oldStatus.equals(newStatus)) {
+            return;
+        }
+        log(userId, ACTION_STATUS_CHANGE, "用户状态从 \"" + oldStatus + "\" 变更为 \"" + newStatus + "\"");
+    }
+
+    private boolean offer(Entry entry) {
+        if (closed || !pending.offer(entry)) {
+            rejected.increment();
+            return false;
+        }
+        recorded.increment();
+        return true;
+    }
+
+    /**
+     * 立即把队列中的日志写入数据库
+     */
+    public void flush() throws SQLException {
+        flushLock.lock();
+        try {
+            while (!pending.isEmpty()) {
+                List<Entry> batch = new ArrayList<>(Math.min(pending.size(), batchSize * 4));
+                pending.drainTo(batch, batchSize * 4);
+                long start = System.nanoTime();
+                try {
+                    write(batch, batchSize);
+                    rowsWritten.add(batch.size());
+                } catch (SQLException e) {
+                    flushFailures.increment();
+                    if (isTransient(e)) {
+                        // 数据库暂时不可用，逐条重试也不会成功，整批放回队列等待下一次刷新
+                        requeue(batch);
+                        throw e;
+                    }
+                    writeOneByOne(batch);
+                }
+                flushTimer.recordSince(start);
+                flushes.increment();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("写入操作日志失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 整批写入失败后逐条写入：永久性失败的丢弃并计数，遇到暂时性错误时把剩余的日志放回队列
+     */
+    private void writeOneByOne(List<Entry> batch) throws SQLException {
+        for (int i = 0; i < batch.size(); i++) {
+            Entry entry = batch.get(i);
+            try {
+                write(Collections.singletonList(entry), 1);
+                rowsWritten.increment();
+            } catch (SQLException e) {
+                if (isTransient(e)) {
+                    requeue(batch.subList(i, batch.size()));
+                    throw e;
+                }
+                discarded.increment();
+                System.err.println("丢弃无法写入的操作日志（用户ID " + entry.userId + "，" + entry.action
+                        + "）: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 连接类错误（SQLState 08 开头）和 JDBC 标明的暂时性、可恢复错误重试可能成功，其余视为永久性错误
+     */
+    private static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    private void requeue(List<Entry> batch) {
+        int dropped = 0;
+        for (Entry entry : batch) {
+            if (!pending.offer(entry)) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            lost.add(dropped);
+            System.err.println("操作日志队列已满，丢弃 " + dropped + " 条写入失败的日志");
+        }
+    }
+
+    /**
+     * 在一个事务中批量插入日志
+     */
+    private static void write(List<Entry> entries, int batchSize) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                int count = 0;
+                for (Entry entry : entries) {
+                    pstmt.setInt(1, entry.userId);
+                    pstmt.setString(2, entry.action);
+                    pstmt.setString(3, entry.details);
+                    pstmt.setTimestamp(4, new Timestamp(entry.timeMillis));
+                    pstmt.addBatch();
+                    if (++count % batchSize == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                if (count % batchSize != 0) {
+                    pstmt.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * 停止后台刷新并写出剩余日志
+     */
+    public void shutdown() {
+        closed = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(flushIntervalMillis * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        if (!pending.isEmpty()) {
+            System.err.println("关闭时仍有 " + pending.size() + " 条操作日志未能写入");
+        }
+    }
+
+    // 统计信息
+    public int getQueueDepth() { return pending.size(); }
+    public long getRecorded() { return recorded.sum(); }
+    public long getRejected() { return rejected.sum(); }
+    public long getFlushes() { return flushes.sum(); }
+    public long getRowsWritten() { return rowsWritten.sum(); }
+    public long getFlushFailures() { return flushFailures.sum(); }
+    public long getLost() { return lost.sum(); }
+    public long getDiscarded() { return discarded.sum(); }
+
+    public String getStats() {
+        return String.format("操作日志写入: 队列 %d/%d, 记录 %d（同步写入 %d）, " +
+                        "刷新 %d 次共 %d 行, 失败 %d, 丢弃 %d（永久性失败 %d）, 刷新耗时 平均 %.1f ms / 最大 %.1f ms",
+                getQueueDepth(), maxPending, getRecorded(), getRejected(),
+                getFlushes(), getRowsWritten(), getFlushFailures(), getLost(), getDiscarded(),
+                flushTimer.getMeanMillis(), flushTimer.getMaxNanos() / 1e6);
+    }
+}
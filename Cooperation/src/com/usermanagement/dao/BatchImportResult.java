@@ -0,0 +1,57 @@
+package com.usermanagement.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量导入结果：成功导入的行数以及每一行失败的原因
+ */
+public class BatchImportResult {
+    private int insertedCount = 0;
+    private final List<Failure> failures = new ArrayList<>();
+
+    void addInserted(int count) {
+        insertedCount += count;
+    }
+
+    void addFailure(int index, String username, String reason) {
+        failures.add(new Failure(index, username, reason));
+    }
+
+    public int getInsertedCount() { return insertedCount; }
+    public List<Failure> getFailures() { return Collections.unmodifiableList(failures); }
+
+    public int getFailedCount() {
+        return failures.size();
+    }
+
+    @Override
+    public String toString() {
+        return "成功导入 " + insertedCount + " 个用户，失败 " + failures.size() + " 个";
+    }
+
+    /**
+     * 单行导入失败信息，index 为该用户在输入中的序号（从0开始）
+     */
+    public static class Failure {
+        private final int index;
+        private final String username;
+        private final String reason;
+
+        Failure(int index, String username, String reason) {
+            this.index = index;
+            this.username = username;
+            this.reason = reason;
+        }
+
+        public int getIndex() { return index; }
+        public String getUsername() { return username; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "第 " + (index + 1) + " 行 (" + username + "): " + reason;
+        }
+    }
+}
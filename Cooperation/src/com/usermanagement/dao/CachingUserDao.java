@@ -0,0 +1,433 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserSummary;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 带读缓存的 UserDao 装饰器
+ *
+ * 按用户ID和用户名两个索引缓存单个用户的查询结果，用户名不存在时做负缓存。
+ * 缓存项按 TTL 过期、超出容量时淘汰最久未使用的项；修改用户数据的写操作会使相关缓存项失效，
+ * 只更新登录时间（及登录时升级密码哈希）的操作直接修改缓存项，不使其失效。
+ * 缓存保存的是副本，调用方修改返回的对象不会影响缓存内容。
+ *
+ * 两个索引由同一把锁保护，锁内只做哈希表操作，数据库读取和对象复制都在锁外进行。
+ */
+public class CachingUserDao implements UserDao {
+    private final UserDao delegate;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 按访问顺序排列，包含负缓存项，容量淘汰以它为准
+    private final LinkedHashMap<String, Entry> byUsername;
+    private final Map<Integer, Entry> byId = new HashMap<>();
+
+    // 每次失效递增（在锁内），防止失效前发起的数据库读取把旧数据写回缓存
+    private long generation = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingUserDao(UserDao delegate, int maxSize, long ttlMillis, long negativeTtlMillis) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.byUsername = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= CachingUserDao.this.maxSize) {
+                    return false;
+                }
+                evictions.increment();
+                Entry entry = eldest.getValue();
+                if (entry.user != null) {
+                    byId.remove(entry.user.getUserId(), entry);
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * 按 config.properties 中的 cache.user.* 配置创建
+     */
+    public static CachingUserDao fromConfig(UserDao delegate) {
+        return new CachingUserDao(delegate,
+                DatabaseConfig.getUserCacheMaxSize(),
+                DatabaseConfig.getUserCacheTtlSeconds() * 1000L,
+                DatabaseConfig.getUserCacheNegativeTtlSeconds() * 1000L);
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        boolean success = delegate.addUser(user);
+        invalidateUsername(user.getUsername());
+        return success;
+    }
+
+    @Override
+    public boolean addUser(User user, String passwordHash) {
+        boolean success = delegate.addUser(user, passwordHash);
+        invalidateUsername(user.getUsername());
+        return success;
+    }
+
+    @Override
+    public BatchImportResult addUsers(Iterable<User> users) {
+        BatchImportResult result = delegate.addUsers(users);
+        clearNegativeEntries();
+        return result;
+    }
+
+    @Override
+    public boolean deleteUser(int userId) {
+        boolean success = delegate.deleteUser(userId);
+        invalidateId(userId);
+        return success;
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        boolean success = delegate.updateUser(user);
+        invalidateId(user.getUserId());
+        invalidateUsername(user.getUsername());
+        return success;
+    }
+
+    @Override
+    public PatchResult patchUser(User user) {
+        // 成功后修改标记会被清除，先记下修改前的用户名
+        String oldUsername = (String) user.getOriginalValue(User.Field.USERNAME);
+        PatchResult result = delegate.patchUser(user);
+        invalidateId(user.getUserId());
+        invalidateUsername(oldUsername);
+        invalidateUsername(user.getUsername());
+        return result;
+    }
+
+    @Override
+    public User getUserById(int userId) {
+        Entry entry;
+        long observed;
+        lock.lock();
+        try {
+            entry = byId.get(userId);
+            if (entry != null) {
+                // 刷新访问顺序
+                byUsername.get(entry.user.getUsername());
+            }
+            observed = generation;
+        } finally {
+            lock.unlock();
+        }
+        if (entry != null && !entry.isExpired()) {
+            hits.increment();
+            return new User(entry.user);
+        }
+
+        misses.increment();
+        User user = delegate.getUserById(userId);
+        if (user != null) {
+            put(user.getUsername(), new User(user), ttlMillis, observed);
+        }
+        return user;
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        Entry entry;
+        long observed;
+        lock.lock();
+        try {
+            entry = byUsername.get(username);
+            observed = generation;
+        } finally {
+            lock.unlock();
+        }
+        if (entry != null && !entry.isExpired()) {
+            if (entry.user == null) {
+                negativeHits.increment();
+                return null;
+            }
+            hits.increment();
+            return new User(entry.user);
+        }
+
+        misses.increment();
+        User user = delegate.getUserByUsername(username);
+        if (user != null) {
+            put(user.getUsername(), new User(user), ttlMillis, observed);
+        } else {
+            put(username, null, negativeTtlMillis, observed);
+        }
+        return user;
+    }
+
+    @Override
+    public User validateLogin(String username, String password, String userType) {
+        User user = delegate.validateLogin(username, password, userType);
+        if (user != null) {
+            recordLoginInCache(user);
+        }
+        return user;
+    }
+
+    @Override
+    public void recordLogin(User user, String password) {
+        delegate.recordLogin(user, password);
+        recordLoginInCache(user);
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public List<User> getUsersByType(String userType) {
+        return delegate.getUsersByType(userType);
+    }
+
+    @Override
+    public List<User> getPendingUsers() {
+        return delegate.getPendingUsers();
+    }
+
+    @Override
+    public boolean updateLoginTime(int userId) {
+        boolean success = delegate.updateLoginTime(userId);
+        if (success) {
+            patchCached(userId, null, new Date());
+        }
+        return success;
+    }
+
+    @Override
+    public boolean updateApprovalStatus(int userId, String status) {
+        boolean success = delegate.updateApprovalStatus(userId, status);
+        invalidateId(userId);
+        return success;
+    }
+
+    @Override
+    public List<Integer> updateApprovalStatus(Collection<Integer> userIds, String status) {
+        List<Integer> updated = delegate.updateApprovalStatus(userIds, status);
+        updated.forEach(this::invalidateId);
+        return updated;
+    }
+
+    @Override
+    public List<Integer> updatePendingApprovalStatus(String userType, Date createdBefore, String status) {
+        List<Integer> updated = delegate.updatePendingApprovalStatus(userType, createdBefore, status);
+        updated.forEach(this::invalidateId);
+        return updated;
+    }
+
+    @Override
+    public Page<UserSummary> getUsersPage(PageCursor after, int pageSize) {
+        return delegate.getUsersPage(after, pageSize);
+    }
+
+    @Override
+    public Page<UserSummary> getUsersByTypePage(String userType, PageCursor after, int pageSize) {
+        return delegate.getUsersByTypePage(userType, after, pageSize);
+    }
+
+    @Override
+    public Page<UserSummary> getPendingUsersPage(PageCursor after, int pageSize) {
+        return delegate.getPendingUsersPage(after, pageSize);
+    }
+
+    @Override
+    public Page<UserSummary> getPendingUsersPage(String userType, PageCursor after, int pageSize) {
+        return delegate.getPendingUsersPage(userType, after, pageSize);
+    }
+
+    @Override
+    public Stream<User> streamAllUsers() {
+        return delegate.streamAllUsers();
+    }
+
+    @Override
+    public Stream<User> streamUsersByType(String userType) {
+        return delegate.streamUsersByType(userType);
+    }
+
+    @Override
+    public Stream<User> streamPendingUsers() {
+        return delegate.streamPendingUsers();
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            generation++;
+            byId.clear();
+            byUsername.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 清除所有负缓存项（批量新增用户后调用）
+     */
+    private void clearNegativeEntries() {
+        lock.lock();
+        try {
+            generation++;
+            byUsername.values().removeIf(entry -> entry.user == null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 写入缓存；从读取开始到现在发生过失效时放弃写入。检查与写入在同一把锁内完成，
+     * 失效操作不会插到两者之间。user 为 null 时写入负缓存项。
+     */
+    private void put(String username, User user, long ttl, long observedGeneration) {
+        if (ttl <= 0) {
+            return;
+        }
+        Entry entry = new Entry(user, System.currentTimeMillis() + ttl);
+        lock.lock();
+        try {
+            if (generation != observedGeneration) {
+                return;
+            }
+            Entry previous = byUsername.put(username, entry);
+            if (previous != null && previous.user != null) {
+                byId.remove(previous.user.getUserId(), previous);
+            }
+            if (user != null) {
+                Entry old = byId.put(user.getUserId(), entry);
+                if (old != null && old.user != null && !old.user.getUsername().equals(username)) {
+                    byUsername.remove(old.user.getUsername(), old);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 登录成功：缓存中的用户只更新登录时间和（可能已升级的）密码哈希，不使缓存项失效
+     */
+    private void recordLoginInCache(User user) {
+        patchCached(user.getUserId(), user.getPassword(), new Date());
+    }
+
+    private void patchCached(int userId, String password, Date lastLoginTime) {
+        lock.lock();
+        try {
+            Entry entry = byId.get(userId);
+            if (entry == null) {
+                return;
+            }
+            User copy = new User(entry.user);
+            if (password != null) {
+                copy.setPassword(password);
+            }
+            copy.setLastLoginTime(lastLoginTime);
+            copy.markClean();
+            Entry patched = new Entry(copy, entry.expiresAt);
+            byId.put(userId, patched);
+            byUsername.replace(copy.getUsername(), entry, patched);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidateId(int userId) {
+        lock.lock();
+        try {
+            generation++;
+            Entry entry = byId.remove(userId);
+            if (entry != null) {
+                byUsername.remove(entry.user.getUsername(), entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidateUsername(String username) {
+        if (username == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            generation++;
+            Entry entry = byUsername.remove(username);
+            if (entry != null && entry.user != null) {
+                byId.remove(entry.user.getUserId(), entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 统计信息
+    public long getHits() { return hits.sum() + negativeHits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public int size() {
+        lock.lock();
+        try {
+            return byUsername.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getHitRate() {
+        long hit = getHits();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public String getStats() {
+        return String.format("用户缓存: 命中 %d（其中负缓存 %d）, 未命中 %d, 命中率 %.1f%%, 条目 %d/%d, 淘汰 %d",
+                getHits(), negativeHits.sum(), misses.sum(), getHitRate() * 100,
+                size(), maxSize, evictions.sum());
+    }
+
+    /**
+     * 缓存项，user 为 null 表示用户名不存在（负缓存）
+     */
+    private static final class Entry {
+        final User user;
+        final long expiresAt;
+
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.metrics.Timer;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserSummary;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 记录每个方法耗时的 UserDao 装饰器，指标名 userdao_call_seconds{method="方法名"}
+ *
+ * 每个方法的直方图在创建时注册好，调用时只有两次 System.nanoTime() 和一次直方图记录。
+ * 流式查询记录从打开到 close() 的总耗时，即连接被占用的时间。
+ */
+public class InstrumentedUserDao implements UserDao {
+    private static final String METRIC = "userdao_call_seconds";
+    private static final String HELP = "UserDao 方法耗时";
+
+    private final UserDao delegate;
+
+    private final Timer addUser;
+    private final Timer addUsers;
+    private final Timer deleteUser;
+    private final Timer updateUser;
+    private final Timer patchUser;
+    private final Timer getUserById;
+    private final Timer getUserByUsername;
+    private final Timer validateLogin;
+    private final Timer recordLogin;
+    private final Timer getAllUsers;
+    private final Timer getUsersByType;
+    private final Timer getPendingUsers;
+    private final Timer updateLoginTime;
+    private final Timer updateApprovalStatus;
+    private final Timer updateApprovalStatusBatch;
+    private final Timer updatePendingApprovalStatus;
+    private final Timer getUsersPage;
+    private final Timer getUsersByTypePage;
+    private final Timer getPendingUsersPage;
+    private final Timer streamAllUsers;
+    private final Timer streamUsersByType;
+    private final Timer streamPendingUsers;
+
+    public InstrumentedUserDao(UserDao delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.addUser = timer(registry, "addUser");
+        this.addUsers = timer(registry, "addUsers");
+        this.deleteUser = timer(registry, "deleteUser");
+        this.updateUser = timer(registry, "updateUser");
+        this.patchUser = timer(registry, "patchUser");
+        this.getUserById = timer(registry, "getUserById");
+        this.getUserByUsername = timer(registry, "getUserByUsername");
+        this.validateLogin = timer(registry, "validateLogin");
+        this.recordLogin = timer(registry, "recordLogin");
+        this.getAllUsers = timer(registry, "getAllUsers");
+        this.getUsersByType = timer(registry, "getUsersByType");
+        this.getPendingUsers = timer(registry, "getPendingUsers");
+        this.updateLoginTime = timer(registry, "updateLoginTime");
+        this.updateApprovalStatus = timer(registry, "updateApprovalStatus");
+        this.updateApprovalStatusBatch = timer(registry, "updateApprovalStatusBatch");
+        this.updatePendingApprovalStatus = timer(registry, "updatePendingApprovalStatus");
+        this.getUsersPage = timer(registry, "getUsersPage");
+        this.getUsersByTypePage = timer(registry, "getUsersByTypePage");
+        this.getPendingUsersPage = timer(registry, "getPendingUsersPage");
+        this.streamAllUsers = timer(registry, "streamAllUsers");
+        this.streamUsersByType = timer(registry, "streamUsersByType");
+        this.streamPendingUsers = timer(registry, "streamPendingUsers");
+    }
+
+    private static Timer timer(MetricsRegistry registry, String method) {
+        return registry.timer(METRIC, HELP, "method", method);
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        long start = System.nanoTime();
+        try {
+            return delegate.addUser(user);
+        } finally {
+            addUser.recordSince(start);
+        }
+    }
+
+    @Override
+    public boolean addUser(User user, String passwordHash) {
+        long start = System.nanoTime();
+        try {
+            return delegate.addUser(user, passwordHash);
+        } finally {
+            addUser.recordSince(start);
+        }
+    }
+
+    @Override
+    public BatchImportResult addUsers(Iterable<User> users) {
+        long start = System.nanoTime();
+        try {
+            return delegate.addUsers(users);
+        } finally {
+            addUsers.recordSince(start);
+        }
+    }
+
+    @Override
+    public boolean deleteUser(int userId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.deleteUser(userId);
+        } finally {
+            deleteUser.recordSince(start);
+        }
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateUser(user);
+        } finally {
+            updateUser.recordSince(start);
+        }
+    }
+
+    @Override
+    public PatchResult patchUser(User user) {
+        long start = System.nanoTime();
+        try {
+            return delegate.patchUser(user);
+        } finally {
+            patchUser.recordSince(start);
+        }
+    }
+
+    @Override
+    public User getUserById(int userId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getUserById(userId);
+        } finally {
+            getUserById.recordSince(start);
+        }
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getUserByUsername(username);
+        } finally {
+            getUserByUsername.recordSince(start);
+        }
+    }
+
+    @Override
+    public User validateLogin(String username, String password, String userType) {
+        long start = System.nanoTime();
+        try {
+            return delegate.validateLogin(username, password, userType);
+        } finally {
+            validateLogin.recordSince(start);
+        }
+    }
+
+    @Override
+    public void recordLogin(User user, String password) {
+        long start = System.nanoTime();
+        try {
+            delegate.recordLogin(user, password);
+        } finally {
+            recordLogin.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllUsers();
+        } finally {
+            getAllUsers.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<User> getUsersByType(String userType) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getUsersByType(userType);
+        } finally {
+            getUsersByType.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<User> getPendingUsers() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPendingUsers();
+        } finally {
+            getPendingUsers.recordSince(start);
+        }
+    }
+
+    @Override
+    public boolean updateLoginTime(int userId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateLoginTime(userId);
+        } finally {
+            updateLoginTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public boolean updateApprovalStatus(int userId, String status) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateApprovalStatus(userId, status);
+        } finally {
+            updateApprovalStatus.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Integer> updateApprovalStatus(Collection<Integer> userIds, String status) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateApprovalStatus(userIds, status);
+        } finally {
+            updateApprovalStatusBatch.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Integer> updatePendingApprovalStatus(String userType, Date createdBefore, String status) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updatePendingApprovalStatus(userType, createdBefore, status);
+        } finally {
+            updatePendingApprovalStatus.recordSince(start);
+        }
+    }
+
+    @Override
+    public Page<UserSummary> getUsersPage(PageCursor after, int pageSize) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getUsersPage(after, pageSize);
+        } finally {
+            getUsersPage.recordSince(start);
+        }
+    }
+
+    @Override
+    public Page<UserSummary> getUsersByTypePage(String userType, PageCursor after, int pageSize) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getUsersByTypePage(userType, after, pageSize);
+        } finally {
+            getUsersByTypePage.recordSince(start);
+        }
+    }
+
+    @Override
+    public Page<UserSummary> getPendingUsersPage(PageCursor after, int pageSize) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPendingUsersPage(after, pageSize);
+        } finally {
+            getPendingUsersPage.recordSince(start);
+        }
+    }
+
+    @Override
+    public Page<UserSummary> getPendingUsersPage(String userType, PageCursor after, int pageSize) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getPendingUsersPage(userType, after, pageSize);
+        } finally {
+            getPendingUsersPage.recordSince(start);
+        }
+    }
+
+    @Override
+    public Stream<User> streamAllUsers() {
+        long start = System.nanoTime();
+        return delegate.streamAllUsers().onClose(() -> streamAllUsers.recordSince(start));
+    }
+
+    @Override
+    public Stream<User> streamUsersByType(String userType) {
+        long start = System.nanoTime();
+        return delegate.streamUsersByType(userType).onClose(() -> streamUsersByType.recordSince(start));
+    }
+
+    @Override
+    public Stream<User> streamPendingUsers() {
+        long start = System.nanoTime();
+        return delegate.streamPendingUsers().onClose(() -> streamPendingUsers.recordSince(start));
+    }
+}
@@ -0,0 +1,245 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.util.DatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 最后登录时间的异步合并写入器
+ *
+ * 登录成功时只把 (用户ID, 登录时间) 放入待写队列，同一用户只保留最新的时间；
+ * 后台线程定期把队列中的时间用 JDBC 批处理写回 Users 表。
+ * 队列已满时返回 false，由调用方改为同步写入；程序退出时调用 shutdown() 写出剩余数据。
+ */
+public final class LoginTimeWriter {
+    private static final String UPDATE_SQL =
+            "UPDATE Users SET LastLoginTime = ? WHERE UserID = ? " +
+            "AND (LastLoginTime IS NULL OR LastLoginTime < ?)";
+
+    private static volatile LoginTimeWriter instance = null;
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private final int maxPending;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Map<Integer, Long> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean closed = false;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public LoginTimeWriter(int maxPending, int batchSize, long flushIntervalMillis) {
+        this.maxPending = Math.max(1, maxPending);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(10, flushIntervalMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "login-time-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                this.flushIntervalMillis, this.flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取共享的写入器；配置 login.timeWriter.enabled=false 时返回 null
+     */
+    public static LoginTimeWriter getInstance() {
+        LoginTimeWriter current = instance;
+        if (current == null && DatabaseConfig.isLoginTimeWriterEnabled()) {
+            lock.lock();
+            try {
+                if (instance == null) {
+                    instance = new LoginTimeWriter(
+                            DatabaseConfig.getLoginTimeWriterMaxPending(),
+                            DatabaseConfig.getLoginTimeWriterBatchSize(),
+                            DatabaseConfig.getLoginTimeWriterFlushIntervalMillis());
+                }
+                current = instance;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 写出剩余的登录时间并停止共享写入器（程序退出时在关闭数据库连接池之前调用）
+     */
+    public static void shutdownInstance() {
+        LoginTimeWriter current;
+        lock.lock();
+        try {
+            current = instance;
+            instance = null;
+        } finally {
+            lock.unlock();
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    /**
+     * 记录一次登录，返回 false 表示队列已满或写入器已关闭，调用方需要自行同步写入
+     */
+    public boolean record(int userId, long loginTimeMillis) {
+        if (closed) {
+            rejected.increment();
+            return false;
+        }
+        if (pending.size() >= maxPending && !pending.containsKey(userId)) {
+            rejected.increment();
+            return false;
+        }
+
+        recorded.increment();
+        if (pending.putIfAbsent(userId, loginTimeMillis) != null) {
+            // 同一用户已有待写时间，只保留较新的一个
+            coalesced.increment();
+            pending.merge(userId, loginTimeMillis, Math::max);
+        }
+        return true;
+    }
+
+    /**
+     * 立即把队列中的登录时间写入数据库
+     */
+    public void flush() throws SQLException {
+        flushLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            List<Map.Entry<Integer, Long>> batch = drain();
+            try {
+                write(batch);
+            } catch (SQLException e) {
+                // 写入失败时放回队列（保留较新的时间），等待下一次刷新
+                flushFailures.increment();
+                for (Map.Entry<Integer, Long> entry : batch) {
+                    pending.merge(entry.getKey(), entry.getValue(), Math::max);
+                }
+                throw e;
+            }
+            recordFlush(System.nanoTime() - start, batch.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("写入最后登录时间失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 取出队列中的全部条目；remove 与 record 的 merge 互斥，不会丢失刚写入的更新
+     */
+    private List<Map.Entry<Integer, Long>> drain() {
+        List<Map.Entry<Integer, Long>> batch = new ArrayList<>(pending.size());
+        for (Integer userId : pending.keySet()) {
+            Long time = pending.remove(userId);
+            if (time != null) {
+                batch.add(Map.entry(userId, time));
+            }
+        }
+        return batch;
+    }
+
+    private void write(List<Map.Entry<Integer, Long>> batch) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+            int count = 0;
+            for (Map.Entry<Integer, Long> entry : batch) {
+                Timestamp time = new Timestamp(entry.getValue());
+                pstmt.setTimestamp(1, time);
+                pstmt.setInt(2, entry.getKey());
+                pstmt.setTimestamp(3, time);
+                pstmt.addBatch();
+                if (++count % batchSize == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            if (count % batchSize != 0) {
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    private void recordFlush(long nanos, int rows) {
+        flushes.increment();
+        rowsWritten.add(rows);
+        totalFlushNanos.add(nanos);
+        lastFlushNanos.set(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * 停止后台刷新并写出剩余数据
+     */
+    public void shutdown() {
+        closed = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(flushIntervalMillis * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        if (!pending.isEmpty()) {
+            System.err.println("关闭时仍有 " + pending.size() + " 条最后登录时间未能写入");
+        }
+    }
+
+    // 统计信息
+    public int getQueueDepth() { return pending.size(); }
+    public long getRecorded() { return recorded.sum(); }
+    public long getCoalesced() { return coalesced.sum(); }
+    public long getRejected() { return rejected.sum(); }
+    public long getFlushes() { return flushes.sum(); }
+    public long getRowsWritten() { return rowsWritten.sum(); }
+    public long getFlushFailures() { return flushFailures.sum(); }
+    public long getLastFlushMillis() { return TimeUnit.NANOSECONDS.toMillis(lastFlushNanos.get()); }
+    public long getMaxFlushMillis() { return TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()); }
+
+    public double getAvgFlushMillis() {
+        long count = flushes.sum();
+        return count == 0 ? 0 : totalFlushNanos.sum() / 1e6 / count;
+    }
+
+    public String getStats() {
+        return String.format("登录时间写入: 队列 %d/%d, 记录 %d（合并 %d, 拒绝 %d）, " +
+                        "刷新 %d 次共 %d 行, 失败 %d, 刷新耗时 最近 %d ms / 平均 %.1f ms / 最大 %d ms",
+                getQueueDepth(), maxPending, getRecorded(), getCoalesced(), getRejected(),
+                getFlushes(), getRowsWritten(), getFlushFailures(),
+                getLastFlushMillis(), getAvgFlushMillis(), getMaxFlushMillis());
+    }
+}
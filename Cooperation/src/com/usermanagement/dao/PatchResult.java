@@ -0,0 +1,25 @@
+package com.usermanagement.dao;
+
+/**
+ * 部分更新（UserDao.patchUser）的结果
+ */
+public enum PatchResult {
+    UPDATED("已更新"),
+    UNCHANGED("没有需要更新的字段"),
+    CONFLICT("用户已被其他人修改，请重新读取后再试"),
+    NOT_FOUND("用户不存在"),
+    FAILED("更新失败");
+
+    private final String description;
+
+    PatchResult(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() { return description; }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
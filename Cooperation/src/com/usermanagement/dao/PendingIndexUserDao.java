@@ -0,0 +1,440 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 用内存中的待审核队列（PendingUserIndex）回答待审核用户查询的 UserDao 装饰器
+ *
+ * 队列在启动时（warmUp）或首次使用时从数据库整体加载，之后由本 DAO 的写操作同步维护：
+ * 新增待审核用户时加入，审批、删除时移除。其他进程直接修改数据库的情况靠定期重新加载兜底
+ * （pending.index.refreshSeconds）。
+ *
+ * 队列未加载、正在重新加载或待审核用户超过 pending.index.maxSize 时，查询直接转发给数据库。
+ * 重新加载期间发生的写操作会被记录下来，加载完成后在新队列上重放，避免用旧数据覆盖新的状态；
+ * 只有使队列失效的操作（批量导入、更新冲突）会使本次加载作废。
+ */
+public class PendingIndexUserDao implements UserDao {
+    private final UserDao delegate;
+    private final long refreshMillis;
+    private final int maxSize;
+
+    // 未加载或已失效时为 null
+    private volatile PendingUserIndex index;
+    private volatile long loadedAt;
+    // 上次加载时待审核用户超过上限，在下次刷新之前不再尝试加载
+    private volatile boolean overflowed;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    // 每次写操作递增（无论队列是否已加载），加载前后不一致时在加载结果上重放期间的写操作
+    private final AtomicLong generation = new AtomicLong();
+    // 保护 index 的修改和 replay 的记录，保证加载完成前后的写操作不会漏掉
+    private final ReentrantLock indexLock = new ReentrantLock();
+    // 重新加载期间发生的写操作，未在加载时为 null；返回 false 表示队列超过上限无法维护
+    private List<Predicate<PendingUserIndex>> replay;
+    // 重新加载期间队列被整体作废
+    private boolean replayInvalidated;
+
+    private final LongAdder indexReads = new LongAdder();
+    private final LongAdder databaseReads = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+
+    public PendingIndexUserDao(UserDao delegate, long refreshMillis, int maxSize) {
+        this.delegate = delegate;
+        this.refreshMillis = refreshMillis;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 按 config.properties 中的 pending.index.* 配置创建
+     */
+    public static PendingIndexUserDao fromConfig(UserDao delegate) {
+        return new PendingIndexUserDao(delegate,
+                DatabaseConfig.getLong("pending.index.refreshSeconds", 300L) * 1000L,
+                DatabaseConfig.getInt("pending.index.maxSize", 100000));
+    }
+
+    /**
+     * 从数据库加载待审核队列（启动时调用，避免第一次打开审批界面时才加载）
+     */
+    public void warmUp() {
+        reload();
+    }
+
+    // ==================== 队列维护 ====================
+
+    /**
+     * 取可用的队列；过期或未加载时由一个线程重新加载，其他线程本次直接查数据库
+     */
+    private PendingUserIndex currentIndex() {
+        PendingUserIndex current = index;
+        boolean fresh = isFresh();
+        if (current != null && fresh) {
+            indexReads.increment();
+            return current;
+        }
+        if (overflowed && fresh) {
+            databaseReads.increment();
+            return null;
+        }
+        current = reload();
+        if (current != null) {
+            indexReads.increment();
+        } else {
+            databaseReads.increment();
+        }
+        return current;
+    }
+
+    /**
+     * 已加载且未过期的队列，不触发重新加载；不可用时返回 null
+     */
+    private PendingUserIndex freshIndex() {
+        PendingUserIndex current = index;
+        return current != null && isFresh() ? current : null;
+    }
+
+    private boolean isFresh() {
+        return refreshMillis <= 0 || System.currentTimeMillis() - loadedAt < refreshMillis;
+    }
+
+    private PendingUserIndex reload() {
+        if (!reloadLock.tryLock()) {
+            return null;
+        }
+        try {
+            long observed;
+            indexLock.lock();
+            try {
+                observed = generation.get();
+                replay = new ArrayList<>();
+                replayInvalidated = false;
+            } finally {
+                indexLock.unlock();
+            }
+
+            PendingUserIndex loaded = new PendingUserIndex();
+            try (Stream<User> users = delegate.streamPendingUsers()) {
+                Iterable<User> iterable = users::iterator;
+                for (User user : iterable) {
+                    if (loaded.size(null) >= maxSize) {
+                        System.err.println("待审核用户超过 " + maxSize + " 个，不使用内存队列");
+                        index = null;
+                        overflowed = true;
+                        loadedAt = System.currentTimeMillis();
+                        return null;
+                    }
+                    loaded.add(user);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("加载待审核队列失败: " + e.getMessage());
+                index = null;
+                return null;
+            }
+            reloads.increment();
+
+            indexLock.lock();
+            try {
+                if (replayInvalidated) {
+                    // 加载期间队列被整体作废，结果可能已过时，下次查询时重新加载
+                    index = null;
+                    return null;
+                }
+                if (generation.get() != observed) {
+                    // 加载期间有写操作，读取时可能还没看到，按发生顺序应用到新队列
+                    for (Predicate<PendingUserIndex> change : replay) {
+                        if (!change.test(loaded)) {
+                            markOverflowed();
+                            return null;
+                        }
+                    }
+                }
+                index = loaded;
+                overflowed = false;
+                loadedAt = System.currentTimeMillis();
+                return loaded;
+            } finally {
+                indexLock.unlock();
+            }
+        } finally {
+            indexLock.lock();
+            try {
+                replay = null;
+            } finally {
+                indexLock.unlock();
+            }
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * 使队列失效，下次查询时重新加载
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        indexLock.lock();
+        try {
+            index = null;
+            replayInvalidated = true;
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * 把一次写操作应用到当前队列，正在重新加载时同时记录下来，加载完成后在新队列上重放
+     */
+    private void apply(Predicate<PendingUserIndex> change) {
+        generation.incrementAndGet();
+        indexLock.lock();
+        try {
+            PendingUserIndex current = index;
+            if (current != null && !change.test(current)) {
+                markOverflowed();
+            }
+            if (replay != null) {
+                replay.add(change);
+            }
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * 待审核用户超过上限，在下次刷新之前不再使用内存队列（调用时持有 indexLock）
+     */
+    private void markOverflowed() {
+        index = null;
+        overflowed = true;
+        loadedAt = System.currentTimeMillis();
+    }
+
+    private void removeFromIndex(int userId) {
+        apply(current -> {
+            current.remove(userId);
+            return true;
+        });
+    }
+
+    /**
+     * 用户变为待审核（或待审核用户的信息变化）后加入队列，缺少用户ID或创建时间时使队列失效
+     */
+    private void addToIndex(User user) {
+        if (user == null || user.getUserId() <= 0 || user.getCreatedTime() == null) {
+            invalidate();
+            return;
+        }
+        apply(current -> {
+            if (!current.contains(user.getUserId()) && current.size(null) >= maxSize) {
+                return false;
+            }
+            current.add(user);
+            return true;
+        });
+    }
+
+    // ==================== 写操作 ====================
+
+    @Override
+    public boolean addUser(User user) {
+        return added(user, delegate.addUser(user));
+    }
+
+    @Override
+    public boolean addUser(User user, String passwordHash) {
+        return added(user, delegate.addUser(user, passwordHash));
+    }
+
+    private boolean added(User user, boolean success) {
+        if (success && user.isPending()) {
+            // INSERT 不返回用户ID和创建时间，按用户名读回；队列未加载时也要读回，可能正在重新加载
+            addToIndex(delegate.getUserByUsername(user.getUsername()));
+        }
+        return success;
+    }
+
+    @Override
+    public BatchImportResult addUsers(Iterable<User> users) {
+        BatchImportResult result = delegate.addUsers(users);
+        invalidate();
+        return result;
+    }
+
+    @Override
+    public boolean deleteUser(int userId) {
+        boolean success = delegate.deleteUser(userId);
+        if (success) {
+            removeFromIndex(userId);
+        }
+        return success;
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        boolean success = delegate.updateUser(user);
+        if (success) {
+            removeFromIndex(user.getUserId());
+            if (user.isPending()) {
+                addToIndex(user);
+            }
+        }
+        return success;
+    }
+
+    @Override
+    public PatchResult patchUser(User user) {
+        PatchResult result = delegate.patchUser(user);
+        if (result == PatchResult.UPDATED) {
+            // 队列中的副本带有行版本号，即使只改了密码或备注也要替换
+            removeFromIndex(user.getUserId());
+            if (user.isPending()) {
+                addToIndex(user);
+            }
+        } else if (result == PatchResult.CONFLICT) {
+            // 数据库中的用户已被其他途径修改，队列中的副本可能已过时
+            invalidate();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean updateApprovalStatus(int userId, String status) {
+        boolean success = delegate.updateApprovalStatus(userId, status);
+        if (success) {
+            removeFromIndex(userId);
+            if (User.STATUS_PENDING.equals(status)) {
+                addToIndex(delegate.getUserById(userId));
+            }
+        }
+        return success;
+    }
+
+    @Override
+    public List<Integer> updateApprovalStatus(Collection<Integer> userIds, String status) {
+        List<Integer> updated = delegate.updateApprovalStatus(userIds, status);
+        updated.forEach(this::removeFromIndex);
+        return updated;
+    }
+
+    @Override
+    public List<Integer> updatePendingApprovalStatus(String userType, Date createdBefore, String status) {
+        List<Integer> updated = delegate.updatePendingApprovalStatus(userType, createdBefore, status);
+        updated.forEach(this::removeFromIndex);
+        return updated;
+    }
+
+    // ==================== 读操作 ====================
+
+    @Override
+    public User getUserById(int userId) {
+        // 审批界面按ID读取待审核用户时不必再访问数据库；队列过期后可能漏掉其他进程的修改，直接查数据库
+        PendingUserIndex current = freshIndex();
+        User user = current == null ? null : current.get(userId);
+        return user != null ? user : delegate.getUserById(userId);
+    }
+
+    @Override
+    public List<User> getPendingUsers() {
+        PendingUserIndex current = currentIndex();
+        return current != null ? current.users(null, null) : delegate.getPendingUsers();
+    }
+
+    @Override
+    public Page<UserSummary> getPendingUsersPage(PageCursor after, int pageSize) {
+        PendingUserIndex current = currentIndex();
+        return current != null ? current.page(null, after, pageSize) : delegate.getPendingUsersPage(after, pageSize);
+    }
+
+    @Override
+    public Page<UserSummary> getPendingUsersPage(String userType, PageCursor after, int pageSize) {
+        PendingUserIndex current = currentIndex();
+        return current != null
+                ? current.page(userType, after, pageSize)
+                : delegate.getPendingUsersPage(userType, after, pageSize);
+    }
+
+    /**
+     * 待审核用户数，userType 为 null 表示全部；队列不可用时返回 -1
+     */
+    public int getPendingCount(String userType) {
+        PendingUserIndex current = currentIndex();
+        return current == null ? -1 : current.size(userType);
+    }
+
+    @Override
+    public Stream<User> streamPendingUsers() {
+        PendingUserIndex current = currentIndex();
+        return current != null ? current.users(null, null).stream() : delegate.streamPendingUsers();
+    }
+
+    // ==================== 直接转发 ====================
+
+    @Override
+    public User getUserByUsername(String username) {
+        return delegate.getUserByUsername(username);
+    }
+
+    @Override
+    public User validateLogin(String username, String password, String userType) {
+        return delegate.validateLogin(username, password, userType);
+    }
+
+    @Override
+    public void recordLogin(User user, String password) {
+        delegate.recordLogin(user, password);
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public List<User> getUsersByType(String userType) {
+        return delegate.getUsersByType(userType);
+    }
+
+    @Override
+    public boolean updateLoginTime(int userId) {
+        return delegate.updateLoginTime(userId);
+    }
+
+    @Override
+    public Page<UserSummary> getUsersPage(PageCursor after, int pageSize) {
+        return delegate.getUsersPage(after, pageSize);
+    }
+
+    @Override
+    public Page<UserSummary> getUsersByTypePage(String userType, PageCursor after, int pageSize) {
+        return delegate.getUsersByTypePage(userType, after, pageSize);
+    }
+
+    @Override
+    public Stream<User> streamAllUsers() {
+        return delegate.streamAllUsers();
+    }
+
+    @Override
+    public Stream<User> streamUsersByType(String userType) {
+        return delegate.streamUsersByType(userType);
+    }
+
+    public String getStats() {
+        PendingUserIndex current = index;
+        return String.format("待审核队列: %s, 内存读取 %d, 数据库读取 %d, 加载 %d 次",
+                current == null ? "未加载" : current.size(null) + " 个用户",
+                indexReads.sum(), databaseReads.sum(), reloads.sum());
+    }
+}
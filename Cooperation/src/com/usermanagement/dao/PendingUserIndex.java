@@ -0,0 +1,154 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserSummary;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 待审核队列的内存索引：按 (CreatedTime, UserID) 排序，另按用户类型分区
+ *
+ * 全部队列和每个类型分区各是一个 ConcurrentSkipListMap，按用户ID另有一个哈希索引；
+ * 添加、移除、定位分页起点都是 O(log n)，读取不加锁，可以与写入并发进行。
+ * 索引保存的是用户的副本，读取时再复制一份返回，调用方修改返回的对象不会影响索引。
+ */
+public class PendingUserIndex {
+    private static final Comparator<Key> ORDER = Comparator
+            .comparingLong((Key key) -> key.createdMillis)
+            .thenComparingInt(key -> key.userId);
+
+    private final NavigableMap<Key, User> all = new ConcurrentSkipListMap<>(ORDER);
+    private final Map<String, NavigableMap<Key, User>> byType = new ConcurrentHashMap<>();
+    private final Map<Integer, Key> byId = new ConcurrentHashMap<>();
+
+    /**
+     * 加入（或替换）一个待审核用户；用户ID和创建时间必须已知
+     */
+    public void add(User user) {
+        if (user.getUserId() <= 0 || user.getCreatedTime() == null) {
+            throw new IllegalArgumentException("待审核用户缺少用户ID或创建时间: " + user.getUsername());
+        }
+        remove(user.getUserId());
+        User copy = new User(user);
+        Key key = new Key(copy.getCreatedTime().getTime(), copy.getUserId(), copy.getUserType());
+        all.put(key, copy);
+        byType.computeIfAbsent(copy.getUserType(), type -> new ConcurrentSkipListMap<>(ORDER)).put(key, copy);
+        byId.put(copy.getUserId(), key);
+    }
+
+    /**
+     * 移除用户，不在队列中时返回 false
+     */
+    public boolean remove(int userId) {
+        Key key = byId.remove(userId);
+        if (key == null) {
+            return false;
+        }
+        all.remove(key);
+        NavigableMap<Key, User> partition = byType.get(key.userType);
+        if (partition != null) {
+            partition.remove(key);
+        }
+        return true;
+    }
+
+    public boolean contains(int userId) {
+        return byId.containsKey(userId);
+    }
+
+    /**
+     * 按用户ID取待审核用户的副本，不在队列中时返回 null
+     */
+    public User get(int userId) {
+        Key key = byId.get(userId);
+        User user = key == null ? null : all.get(key);
+        return user == null ? null : new User(user);
+    }
+
+    /**
+     * 待审核用户数，userType 为 null 表示全部
+     */
+    public int size(String userType) {
+        if (userType == null) {
+            return byId.size();
+        }
+        NavigableMap<Key, User> partition = byType.get(userType);
+        return partition == null ? 0 : partition.size();
+    }
+
+    /**
+     * 按创建时间正序分页（与 UserDao.getPendingUsersPage 的顺序和游标一致），userType 为 null 表示不限类型
+     */
+    public Page<UserSummary> page(String userType, PageCursor after, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("每页数量必须大于0");
+        }
+        NavigableMap<Key, User> view = view(userType);
+        if (after != null) {
+            view = view.tailMap(new Key(after.getTime().getTime(), after.getId(), null), false);
+        }
+
+        List<UserSummary> items = new ArrayList<>(Math.min(pageSize, 64));
+        Iterator<User> it = view.values().iterator();
+        while (it.hasNext() && items.size() < pageSize) {
+            User user = it.next();
+            items.add(new UserSummary(user.getUserId(), user.getUsername(), user.getUserType(),
+                    user.getApprovalStatus(), user.getCreatedTime()));
+        }
+
+        PageCursor next = null;
+        if (it.hasNext() && !items.isEmpty()) {
+            UserSummary last = items.get(items.size() - 1);
+            next = new PageCursor(last.getCreatedTime(), last.getUserId());
+        }
+        return new Page<>(items, next);
+    }
+
+    /**
+     * 按创建时间正序返回待审核用户的副本；createdBefore 为 null 表示不限注册时间
+     */
+    public List<User> users(String userType, Date createdBefore) {
+        NavigableMap<Key, User> view = view(userType);
+        if (createdBefore != null) {
+            view = view.headMap(new Key(createdBefore.getTime(), Integer.MIN_VALUE, null), false);
+        }
+        List<User> users = new ArrayList<>(view.size());
+        for (User user : view.values()) {
+            users.add(new User(user));
+        }
+        return users;
+    }
+
+    private NavigableMap<Key, User> view(String userType) {
+        if (userType == null) {
+            return all;
+        }
+        NavigableMap<Key, User> partition = byType.get(userType);
+        return partition == null ? new ConcurrentSkipListMap<>(ORDER) : partition;
+    }
+
+    /**
+     * 排序键；userType 只用于找到所在分区，不参与比较
+     */
+    private static final class Key {
+        final long createdMillis;
+        final int userId;
+        final String userType;
+
+        Key(long createdMillis, int userId, String userType) {
+            this.createdMillis = createdMillis;
+            this.userId = userId;
+            this.userType = userType;
+        }
+    }
+}
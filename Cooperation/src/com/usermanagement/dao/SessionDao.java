@@ -0,0 +1,36 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.Session;
+
+import java.util.List;
+
+/**
+ * 会话持久化接口（UserSessions 表），只在创建、注销会话和程序启动时访问
+ */
+public interface SessionDao {
+
+    /**
+     * 保存新会话
+     */
+    boolean addSession(Session session);
+
+    /**
+     * 按令牌哈希删除会话
+     */
+    boolean deleteSession(String tokenHash);
+
+    /**
+     * 删除某个用户的全部会话
+     */
+    int deleteSessionsByUser(int userId);
+
+    /**
+     * 删除已过绝对有效期的会话
+     */
+    int deleteExpiredSessions();
+
+    /**
+     * 读取所有未过期的会话（程序启动时恢复）
+     */
+    List<Session> getActiveSessions();
+}
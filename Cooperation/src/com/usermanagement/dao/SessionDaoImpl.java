@@ -0,0 +1,104 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.Session;
+import com.usermanagement.util.DatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SessionDaoImpl implements SessionDao {
+
+    @Override
+    public boolean addSession(Session session) {
+        String sql = "INSERT INTO UserSessions (TokenHash, UserID, CreatedTime, ExpiresTime) VALUES (?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, session.getTokenHash());
+            pstmt.setInt(2, session.getUserId());
+            pstmt.setTimestamp(3, new Timestamp(session.getCreatedAt()));
+            pstmt.setTimestamp(4, new Timestamp(session.getExpiresAt()));
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("保存会话失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteSession(String tokenHash) {
+        String sql = "DELETE FROM UserSessions WHERE TokenHash = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, tokenHash);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("删除会话失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public int deleteSessionsByUser(int userId) {
+        String sql = "DELETE FROM UserSessions WHERE UserID = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            return pstmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("删除用户会话失败: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public int deleteExpiredSessions() {
+        String sql = "DELETE FROM UserSessions WHERE ExpiresTime <= CURRENT_TIMESTAMP";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            return pstmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("清理过期会话失败: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public List<Session> getActiveSessions() {
+        List<Session> sessions = new ArrayList<>();
+        String sql = "SELECT s.TokenHash, s.UserID, u.Username, u.UserType, s.CreatedTime, s.ExpiresTime " +
+                "FROM UserSessions s INNER JOIN Users u ON s.UserID = u.UserID " +
+                "WHERE s.ExpiresTime > CURRENT_TIMESTAMP";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                sessions.add(new Session(
+                        rs.getString(1),
+                        rs.getInt(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        rs.getTimestamp(5).getTime(),
+                        rs.getTimestamp(6).getTime()));
+            }
+        } catch (SQLException e) {
+            System.err.println("读取会话失败: " + e.getMessage());
+        }
+
+        return sessions;
+    }
+}
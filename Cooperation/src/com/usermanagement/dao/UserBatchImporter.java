@@ -0,0 +1,217 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.model.User;
+import com.usermanagement.util.DatabaseUtil;
+import com.usermanagement.util.PasswordHasher;
+import com.usermanagement.util.PasswordUtil;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 用户批量导入
+ *
+ * 两级流水线：哈希线程池并行计算密码哈希并提前准备若干个分块，
+ * 当前线程按顺序用 JDBC 批处理写入，每 commitInterval 行提交一次事务。
+ * 分块批处理失败时回滚到分块开始处逐行重试，只记录出错的行，不影响其他行。
+ */
+class UserBatchImporter {
+    private static final String INSERT_SQL =
+            "INSERT INTO Users (Username, Password, UserType, ApprovalStatus) VALUES (?, ?, ?, ?)";
+
+    private final int chunkSize;
+    private final int commitInterval;
+    private final int hashThreads;
+
+    UserBatchImporter(int chunkSize, int commitInterval, int hashThreads) {
+        this.chunkSize = Math.max(1, chunkSize);
+        this.commitInterval = Math.max(this.chunkSize, commitInterval);
+        this.hashThreads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    static UserBatchImporter fromConfig() {
+        return new UserBatchImporter(
+                DatabaseConfig.getBatchChunkSize(),
+                DatabaseConfig.getBatchCommitInterval(),
+                DatabaseConfig.getBatchHashThreads());
+    }
+
+    BatchImportResult importUsers(Iterable<User> users) {
+        BatchImportResult result = new BatchImportResult();
+        List<Row> uncommitted = new ArrayList<>();
+        ExecutorService hashPool = newHashPool();
+        Deque<Future<List<Row>>> inFlight = new ArrayDeque<>();
+        int maxInFlight = hashThreads * 2;
+
+        try {
+            DatabaseUtil.beginTransaction();
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+
+                Iterator<User> it = users.iterator();
+                int nextIndex = 0;
+                while (it.hasNext() || !inFlight.isEmpty()) {
+                    // 让哈希阶段保持领先写入阶段若干个分块
+                    while (it.hasNext() && inFlight.size() < maxInFlight) {
+                        List<Row> chunk = new ArrayList<>(chunkSize);
+                        while (it.hasNext() && chunk.size() < chunkSize) {
+                            chunk.add(new Row(nextIndex++, it.next()));
+                        }
+                        inFlight.addLast(hashPool.submit(() -> hashChunk(chunk)));
+                    }
+
+                    List<Row> chunk = awaitChunk(inFlight.pollFirst());
+                    writeChunk(conn, pstmt, chunk, uncommitted, result);
+
+                    if (uncommitted.size() >= commitInterval) {
+                        conn.commit();
+                        result.addInserted(uncommitted.size());
+                        uncommitted.clear();
+                    }
+                }
+            }
+            DatabaseUtil.commitTransaction();
+            result.addInserted(uncommitted.size());
+            uncommitted.clear();
+
+        } catch (SQLException | RuntimeException e) {
+            DatabaseUtil.rollbackTransaction();
+            System.err.println("批量导入用户失败: " + e.getMessage());
+            for (Row row : uncommitted) {
+                result.addFailure(row.index, row.user.getUsername(), "事务已回滚: " + e.getMessage());
+            }
+        } finally {
+            for (Future<List<Row>> future : inFlight) {
+                future.cancel(true);
+            }
+            hashPool.shutdownNow();
+        }
+
+        return result;
+    }
+
+    /**
+     * 哈希阶段：校验必填字段并计算密码哈希
+     */
+    private List<Row> hashChunk(List<Row> chunk) {
+        PasswordHasher hasher = PasswordUtil.getHasher();
+        for (Row row : chunk) {
+            User user = row.user;
+            if (user.getUsername() == null || user.getUsername().trim().isEmpty()) {
+                row.error = "用户名不能为空";
+            } else if (user.getPassword() == null || user.getPassword().isEmpty()) {
+                row.error = "密码不能为空";
+            } else if (user.getUserType() == null) {
+                row.error = "用户类型为空或无效";
+            } else {
+                // 导入有自己的哈希线程池，不占用登录使用的 HashingExecutor
+                row.passwordHash = hasher.hash(user.getPassword());
+            }
+        }
+        return chunk;
+    }
+
+    private List<Row> awaitChunk(Future<List<Row>> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("批量导入被中断", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("计算密码哈希失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * 写入阶段：整块批处理，失败则回滚到保存点后逐行写入
+     */
+    private void writeChunk(Connection conn, PreparedStatement pstmt, List<Row> chunk,
+                            List<Row> uncommitted, BatchImportResult result) throws SQLException {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (row.error != null) {
+                result.addFailure(row.index, row.user.getUsername(), row.error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            for (Row row : valid) {
+                bind(pstmt, row);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            uncommitted.addAll(valid);
+        } catch (BatchUpdateException e) {
+            conn.rollback(savepoint);
+            pstmt.clearBatch();
+            writeRowByRow(conn, pstmt, valid, uncommitted, result);
+        }
+    }
+
+    private void writeRowByRow(Connection conn, PreparedStatement pstmt, List<Row> rows,
+                               List<Row> uncommitted, BatchImportResult result) throws SQLException {
+        for (Row row : rows) {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                bind(pstmt, row);
+                pstmt.executeUpdate();
+                uncommitted.add(row);
+            } catch (SQLException e) {
+                conn.rollback(savepoint);
+                result.addFailure(row.index, row.user.getUsername(), e.getMessage());
+            }
+        }
+    }
+
+    private void bind(PreparedStatement pstmt, Row row) throws SQLException {
+        User user = row.user;
+        pstmt.setString(1, user.getUsername());
+        pstmt.setString(2, row.passwordHash);
+        pstmt.setString(3, user.getUserType());
+        pstmt.setString(4, user.getApprovalStatus() != null ? user.getApprovalStatus() : User.STATUS_PENDING);
+    }
+
+    private ExecutorService newHashPool() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(hashThreads, r -> {
+            Thread t = new Thread(r, "user-import-hash-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 待导入的一行
+     */
+    private static final class Row {
+        final int index;
+        final User user;
+        String passwordHash;
+        String error;
+
+        Row(int index, User user) {
+            this.index = index;
+            this.user = user;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.usermanagement.dao;
 
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
 import com.usermanagement.model.User;
+import com.usermanagement.model.UserSummary;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * 用户数据访问接口
@@ -13,16 +19,33 @@ public interface UserDao {
      */
     boolean addUser(User user);
 
+    /**
+     * 添加用户，密码哈希已由调用方计算好（异步注册在哈希线程池中计算），不再重复计算
+     */
+    boolean addUser(User user, String passwordHash);
+
+    /**
+     * 批量导入用户：分块批处理写入并定期提交，单行失败不影响其他行
+     */
+    BatchImportResult addUsers(Iterable<User> users);
+
     /**
      * 根据ID删除用户
      */
     boolean deleteUser(int userId);
 
     /**
-     * 更新用户信息
+     * 更新用户信息：覆盖写入全部字段，不做并发检查；密码按原样写入（应为已计算的哈希）
      */
     boolean updateUser(User user);
 
+    /**
+     * 部分更新：只写入 user 中修改过的字段（User.getDirtyFields），并按 user.getRowVersion() 做乐观并发检查，
+     * 用户在读取之后已被修改时不做任何更新并返回 CONFLICT。
+     * 成功后 user 的行版本号加一、修改标记清除。密码按原样写入，调用方需要先计算哈希。
+     */
+    PatchResult patchUser(User user);
+
     /**
      * 根据用户ID查询用户
      */
@@ -38,6 +61,11 @@ public interface UserDao {
      */
     User validateLogin(String username, String password, String userType);
 
+    /**
+     * 登录校验通过后的处理：按需升级密码哈希并记录登录时间
+     */
+    void recordLogin(User user, String password);
+
     /**
      * 获取所有用户
      */
@@ -62,4 +90,50 @@ public interface UserDao {
      * 更新用户审核状态
      */
     boolean updateApprovalStatus(int userId, String status);
+
+    /**
+     * 批量审批：在一个事务中把指定ID里仍处于待审核状态的用户更新为 status，返回实际更新的用户ID
+     */
+    List<Integer> updateApprovalStatus(Collection<Integer> userIds, String status);
+
+    /**
+     * 按条件批量审批待审核用户，返回实际更新的用户ID
+     * userType 为 null 表示不限类型，createdBefore 为 null 表示不限注册时间
+     */
+    List<Integer> updatePendingApprovalStatus(String userType, Date createdBefore, String status);
+
+    /**
+     * 按创建时间倒序分页获取用户摘要（键集分页），after 为 null 时返回第一页
+     */
+    Page<UserSummary> getUsersPage(PageCursor after, int pageSize);
+
+    /**
+     * 按创建时间倒序分页获取指定类型的用户
+     */
+    Page<UserSummary> getUsersByTypePage(String userType, PageCursor after, int pageSize);
+
+    /**
+     * 按创建时间正序分页获取待审核用户
+     */
+    Page<UserSummary> getPendingUsersPage(PageCursor after, int pageSize);
+
+    /**
+     * 按创建时间正序分页获取指定类型的待审核用户，userType 为 null 表示不限类型
+     */
+    Page<UserSummary> getPendingUsersPage(String userType, PageCursor after, int pageSize);
+
+    /**
+     * 流式读取所有用户（按创建时间倒序），流持有数据库连接，使用完毕必须 close()
+     */
+    Stream<User> streamAllUsers();
+
+    /**
+     * 流式读取指定类型的用户，使用完毕必须 close()
+     */
+    Stream<User> streamUsersByType(String userType);
+
+    /**
+     * 流式读取待审核用户（按创建时间正序），使用完毕必须 close()
+     */
+    Stream<User> streamPendingUsers();
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.metrics.MetricsRegistry;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * UserDao 工厂：全局共享同一个 DAO 实例，按配置决定是否启用用户缓存、待审核队列和方法耗时统计
+ *
+ * 由内到外依次为：数据库访问、耗时统计、用户缓存、待审核队列。
+ * 耗时统计包在数据库访问层外面、缓存里面，统计的是实际访问数据库的调用；缓存命中情况见 getCacheStats()
+ */
+public class UserDaoFactory {
+    private static volatile UserDao instance = null;
+    private static volatile CachingUserDao cachingDao = null;
+    private static volatile PendingIndexUserDao pendingIndex = null;
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private UserDaoFactory() {}
+
+    /**
+     * 获取共享的 UserDao
+     */
+    public static UserDao getUserDao() {
+        UserDao current = instance;
+        if (current == null) {
+            lock.lock();
+            try {
+                if (instance == null) {
+                    instance = createUserDao();
+                }
+                current = instance;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private static UserDao createUserDao() {
+        UserDao userDao = new UserDaoImpl();
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        if (metrics.isEnabled()) {
+            userDao = new InstrumentedUserDao(userDao, metrics);
+        }
+        if (DatabaseConfig.isUserCacheEnabled()) {
+            cachingDao = CachingUserDao.fromConfig(userDao);
+            userDao = cachingDao;
+        }
+        if (DatabaseConfig.getBoolean("pending.index.enabled", true)) {
+            pendingIndex = PendingIndexUserDao.fromConfig(userDao);
+            userDao = pendingIndex;
+        }
+        return userDao;
+    }
+
+    /**
+     * 创建共享的 DAO 并加载待审核队列（程序启动、数据库连接建立后调用）
+     */
+    public static void warmUp() {
+        getUserDao();
+        PendingIndexUserDao current = pendingIndex;
+        if (current != null) {
+            current.warmUp();
+        }
+    }
+
+    /**
+     * 待审核队列，未启用时返回 null
+     */
+    public static PendingIndexUserDao getPendingIndex() {
+        getUserDao();
+        return pendingIndex;
+    }
+
+    /**
+     * 用户缓存统计，未启用缓存时返回提示
+     */
+    public static String getCacheStats() {
+        getUserDao();
+        CachingUserDao current = cachingDao;
+        return current == null ? "用户缓存未启用" : current.getStats();
+    }
+}
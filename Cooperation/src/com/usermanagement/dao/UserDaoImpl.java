@@ -1,22 +1,68 @@
 package com.usermanagement.dao;
 
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
 import com.usermanagement.model.User;
+import com.usermanagement.model.UserSummary;
 import com.usermanagement.util.DatabaseUtil;
 import com.usermanagement.util.PasswordUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.usermanagement.dao.UserRowMapper.SUMMARY_COLUMNS;
+import static com.usermanagement.dao.UserRowMapper.USER_COLUMNS;
 
 public class UserDaoImpl implements UserDao {
+    // 连接的是 H2（基准测试使用的嵌入式数据库）时为 true，首次执行返回更新结果的语句时检测
+    private static volatile Boolean h2;
+
+    // SQL Server 单条语句最多 2100 个参数，批量审批按此分块
+    private static final int MAX_IN_LIST_SIZE = 1000;
+
+    // 查询语句公开给 QueryPlanCheck，检查执行计划时使用与 DAO 完全相同的语句文本
+    public static final String USER_BY_USERNAME_SQL = "SELECT " + USER_COLUMNS + " FROM Users WHERE Username = ?";
+    public static final String ALL_USERS_SQL = "SELECT " + USER_COLUMNS + " FROM Users ORDER BY CreatedTime DESC";
+    public static final String USERS_BY_TYPE_SQL =
+            "SELECT " + USER_COLUMNS + " FROM Users WHERE UserType = ? ORDER BY CreatedTime DESC";
+    public static final String PENDING_USERS_SQL =
+            "SELECT " + USER_COLUMNS + " FROM Users WHERE ApprovalStatus = '待审核' ORDER BY CreatedTime";
+    public static final String STREAM_ALL_USERS_SQL =
+            "SELECT " + USER_COLUMNS + " FROM Users ORDER BY CreatedTime DESC, UserID DESC";
+    public static final String STREAM_USERS_BY_TYPE_SQL =
+            "SELECT " + USER_COLUMNS + " FROM Users WHERE UserType = ? ORDER BY CreatedTime DESC, UserID DESC";
+    public static final String STREAM_PENDING_USERS_SQL =
+            "SELECT " + USER_COLUMNS + " FROM Users WHERE ApprovalStatus = ? ORDER BY CreatedTime, UserID";
+
+    // 分页查询的筛选条件（pageSql 的 filter 参数）
+    public static final String TYPE_FILTER = "UserType = ?";
+    public static final String PENDING_FILTER = "ApprovalStatus = ?";
+    public static final String PENDING_BY_TYPE_FILTER = "ApprovalStatus = ? AND UserType = ?";
 
     @Override
     public boolean addUser(User user) {
+        return addUser(user, PasswordUtil.hash(user.getPassword()));
+    }
+
+    @Override
+    public boolean addUser(User user, String passwordHash) {
         String sql = "INSERT INTO Users (Username, Password, UserType, ApprovalStatus) VALUES (?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = DatabaseUtil.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, PasswordUtil.encrypt(user.getPassword()));
+            pstmt.setString(2, passwordHash);
             pstmt.setString(3, user.getUserType());
             pstmt.setString(4, user.getApprovalStatus());
 
@@ -29,11 +75,17 @@ public class UserDaoImpl implements UserDao {
         }
     }
 
+    @Override
+    public BatchImportResult addUsers(Iterable<User> users) {
+        return UserBatchImporter.fromConfig().importUsers(users);
+    }
+
     @Override
     public boolean deleteUser(int userId) {
         String sql = "DELETE FROM Users WHERE UserID = ?";
 
-        try (PreparedStatement pstmt = DatabaseUtil.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
 
             int rows = pstmt.executeUpdate();
@@ -47,12 +99,14 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public boolean updateUser(User user) {
-        String sql = "UPDATE Users SET Username = ?, Password = ?, UserType = ?, " +
-                "ApprovalStatus = ?, LastLoginTime = ?, Remark = ? WHERE UserID = ?";
+        String assignments = "Username = ?, Password = ?, UserType = ?, " +
+                "ApprovalStatus = ?, LastLoginTime = ?, Remark = ?";
 
-        try (PreparedStatement pstmt = DatabaseUtil.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(updateReturningOldStatusSql(isH2(conn), assignments))) {
             pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, PasswordUtil.encrypt(user.getPassword()));
+            // 用户对象中保存的是哈希，按原样写入
+            pstmt.setString(2, user.getPassword());
             pstmt.setString(3, user.getUserType());
             pstmt.setString(4, user.getApprovalStatus());
 
@@ -65,8 +119,12 @@ public class UserDaoImpl implements UserDao {
             pstmt.setString(6, user.getRemark());
             pstmt.setInt(7, user.getUserId());
 
-            int rows = pstmt.executeUpdate();
-            return rows > 0;
+            List<String> oldStatus = executeReturning(pstmt, rs -> rs.getString(1));
+            if (oldStatus.isEmpty()) {
+                return false;
+            }
+            AuditLogWriter.logStatusChange(user.getUserId(), oldStatus.get(0), user.getApprovalStatus());
+            return true;
 
         } catch (SQLException e) {
             System.err.println("更新用户失败: " + e.getMessage());
@@ -74,16 +132,94 @@ public class UserDaoImpl implements UserDao {
         }
     }
 
+    @Override
+    public PatchResult patchUser(User user) {
+        Set<User.Field> fields = user.getDirtyFields();
+        if (fields.isEmpty()) {
+            return PatchResult.UNCHANGED;
+        }
+
+        // 列按 Field 的声明顺序排列，同一组字段总是生成相同的SQL，可被语句缓存复用
+        StringBuilder sql = new StringBuilder("UPDATE Users SET ");
+        for (User.Field field : fields) {
+            sql.append(field.getColumn()).append(" = ?, ");
+        }
+        sql.append("RowVersion = RowVersion + 1 WHERE UserID = ? AND RowVersion = ?");
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (User.Field field : fields) {
+                    bindField(pstmt, index++, user, field);
+                }
+                pstmt.setInt(index++, user.getUserId());
+                pstmt.setInt(index, user.getRowVersion());
+                if (pstmt.executeUpdate() == 0) {
+                    return userExists(conn, user.getUserId()) ? PatchResult.CONFLICT : PatchResult.NOT_FOUND;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("更新用户失败: " + e.getMessage());
+            return PatchResult.FAILED;
+        }
+
+        // 行版本号一致，说明数据库中的旧值就是读取时的值
+        if (fields.contains(User.Field.APPROVAL_STATUS)) {
+            AuditLogWriter.logStatusChange(user.getUserId(),
+                    (String) user.getOriginalValue(User.Field.APPROVAL_STATUS), user.getApprovalStatus());
+        }
+        user.setRowVersion(user.getRowVersion() + 1);
+        user.markClean();
+        return PatchResult.UPDATED;
+    }
+
+    private static void bindField(PreparedStatement pstmt, int index, User user, User.Field field) throws SQLException {
+        switch (field) {
+            case USERNAME:
+                pstmt.setString(index, user.getUsername());
+                break;
+            case PASSWORD:
+                pstmt.setString(index, user.getPassword());
+                break;
+            case USER_TYPE:
+                pstmt.setString(index, user.getUserType());
+                break;
+            case APPROVAL_STATUS:
+                pstmt.setString(index, user.getApprovalStatus());
+                break;
+            case LAST_LOGIN_TIME:
+                if (user.getLastLoginTime() != null) {
+                    pstmt.setTimestamp(index, new Timestamp(user.getLastLoginTime().getTime()));
+                } else {
+                    pstmt.setNull(index, Types.TIMESTAMP);
+                }
+                break;
+            case REMARK:
+                pstmt.setString(index, user.getRemark());
+                break;
+        }
+    }
+
+    private static boolean userExists(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM Users WHERE UserID = ?")) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
     @Override
     public User getUserById(int userId) {
-        String sql = "SELECT * FROM Users WHERE UserID = ?";
+        String sql = "SELECT " + USER_COLUMNS + " FROM Users WHERE UserID = ?";
 
-        try (PreparedStatement pstmt = DatabaseUtil.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return extractUserFromResultSet(rs);
+                    return UserRowMapper.mapUser(rs);
                 }
             }
         } catch (SQLException e) {
@@ -95,14 +231,15 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public User getUserByUsername(String username) {
-        String sql = "SELECT * FROM Users WHERE Username = ?";
+        String sql = USER_BY_USERNAME_SQL;
 
-        try (PreparedStatement pstmt = DatabaseUtil.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return extractUserFromResultSet(rs);
+                    return UserRowMapper.mapUser(rs);
                 }
             }
         } catch (SQLException e) {
@@ -114,46 +251,66 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public User validateLogin(String username, String password, String userType) {
-        String sql = "SELECT * FROM Users WHERE Username = ? AND UserType = ?";
+        String sql = "SELECT " + USER_COLUMNS + " FROM Users WHERE Username = ? AND UserType = ?";
+        User candidate = null;
 
-        try (PreparedStatement pstmt = DatabaseUtil.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             pstmt.setString(2, userType);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    String storedPassword = rs.getString("Password");
-                    String inputPassword = PasswordUtil.encrypt(password);
-
-                    if (inputPassword.equals(storedPassword)) {
-                        User user = extractUserFromResultSet(rs);
-
-                        // 检查审核状态
-                        if (User.TYPE_ADMIN.equals(userType) ||
-                                User.STATUS_APPROVED.equals(user.getApprovalStatus())) {
-                            updateLoginTime(user.getUserId());
-                            return user;
-                        }
-                    }
+                    candidate = UserRowMapper.mapUser(rs);
                 }
             }
         } catch (SQLException e) {
             System.err.println("登录验证失败: " + e.getMessage());
+            return null;
+        }
+
+        // 先归还查询连接再校验密码：校验要在哈希线程池排队并计算数十万次迭代，
+        // 期间占着连接会让并发登录耗尽连接池
+        if (candidate == null || !PasswordUtil.verify(password, candidate.getPassword())) {
+            return null;
+        }
+
+        // 检查审核状态，通过后更新登录时间
+        if (User.TYPE_ADMIN.equals(userType) || User.STATUS_APPROVED.equals(candidate.getApprovalStatus())) {
+            recordLogin(candidate, password);
+            return candidate;
         }
 
         return null;
     }
 
+    @Override
+    public void recordLogin(User user, String password) {
+        // 旧算法或旧参数生成的哈希，趁有明文密码时升级
+        if (PasswordUtil.needsRehash(user.getPassword())) {
+            String rehashed = PasswordUtil.hash(password);
+            if (rehashPassword(user.getUserId(), user.getPassword(), rehashed)) {
+                user.setPassword(rehashed);
+            }
+        }
+
+        LoginTimeWriter writer = LoginTimeWriter.getInstance();
+        if (writer == null || !writer.record(user.getUserId(), System.currentTimeMillis())) {
+            updateLoginTime(user.getUserId());
+        }
+    }
+
     @Override
     public List<User> getAllUsers() {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM Users ORDER BY CreatedTime DESC";
+        String sql = ALL_USERS_SQL;
 
-        try (Statement stmt = DatabaseUtil.getConnection().createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                users.add(extractUserFromResultSet(rs));
+                users.add(UserRowMapper.mapUser(rs));
             }
         } catch (SQLException e) {
             System.err.println("获取所有用户失败: " + e.getMessage());
@@ -165,14 +322,15 @@ public class UserDaoImpl implements UserDao {
     @Override
     public List<User> getUsersByType(String userType) {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM Users WHERE UserType = ? ORDER BY CreatedTime DESC";
+        String sql = USERS_BY_TYPE_SQL;
 
-        try (PreparedStatement pstmt = DatabaseUtil.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, userType);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    users.add(extractUserFromResultSet(rs));
+                    users.add(UserRowMapper.mapUser(rs));
                 }
             }
         } catch (SQLException e) {
@@ -185,13 +343,14 @@ public class UserDaoImpl implements UserDao {
     @Override
     public List<User> getPendingUsers() {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM Users WHERE ApprovalStatus = '待审核' ORDER BY CreatedTime";
+        String sql = PENDING_USERS_SQL;
 
-        try (Statement stmt = DatabaseUtil.getConnection().createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                users.add(extractUserFromResultSet(rs));
+                users.add(UserRowMapper.mapUser(rs));
             }
         } catch (SQLException e) {
             System.err.println("获取待审核用户失败: " + e.getMessage());
@@ -202,9 +361,10 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public boolean updateLoginTime(int userId) {
-        String sql = "UPDATE Users SET LastLoginTime = GETDATE() WHERE UserID = ?";
+        String sql = "UPDATE Users SET LastLoginTime = CURRENT_TIMESTAMP WHERE UserID = ?";
 
-        try (PreparedStatement pstmt = DatabaseUtil.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -213,6 +373,24 @@ public class UserDaoImpl implements UserDao {
         }
     }
 
+    /**
+     * 登录时升级密码哈希；仅当密码未被其他操作修改时才写入
+     */
+    private boolean rehashPassword(int userId, String oldHash, String newHash) {
+        String sql = "UPDATE Users SET Password = ? WHERE UserID = ? AND Password = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, newHash);
+            pstmt.setInt(2, userId);
+            pstmt.setString(3, oldHash);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("升级密码哈希失败: " + e.getMessage());
+            return false;
+        }
+    }
+
     @Override
     public boolean updateApprovalStatus(int userId, String status) {
         // 验证状态值是否合法
@@ -223,14 +401,14 @@ public class UserDaoImpl implements UserDao {
             return false;
         }
 
-        String sql = "UPDATE Users SET ApprovalStatus = ? WHERE UserID = ?";
-
-        try (PreparedStatement pstmt = DatabaseUtil.getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(updateReturningOldStatusSql(isH2(conn), "ApprovalStatus = ?"))) {
             pstmt.setString(1, status);
             pstmt.setInt(2, userId);
 
-            int rows = pstmt.executeUpdate();
-            if (rows > 0) {
+            List<String> oldStatus = executeReturning(pstmt, rs -> rs.getString(1));
+            if (!oldStatus.isEmpty()) {
+                AuditLogWriter.logStatusChange(userId, oldStatus.get(0), status);
                 System.out.println("用户ID " + userId + " 的审核状态已更新为: " + status);
                 return true;
             } else {
@@ -243,17 +421,365 @@ public class UserDaoImpl implements UserDao {
         }
     }
 
-    // 辅助方法：从ResultSet提取User对象
-    private User extractUserFromResultSet(ResultSet rs) throws SQLException {
-        User user = new User();
-        user.setUserId(rs.getInt("UserID"));
-        user.setUsername(rs.getString("Username"));
-        user.setPassword(rs.getString("Password"));
-        user.setUserType(rs.getString("UserType"));
-        user.setApprovalStatus(rs.getString("ApprovalStatus"));
-        user.setCreatedTime(rs.getTimestamp("CreatedTime"));
-        user.setLastLoginTime(rs.getTimestamp("LastLoginTime"));
-        user.setRemark(rs.getString("Remark"));
-        return user;
+    @Override
+    public List<Integer> updateApprovalStatus(Collection<Integer> userIds, String status) {
+        List<Integer> updated = new ArrayList<>();
+        if (!isDecisionStatus(status) || userIds.isEmpty()) {
+            return updated;
+        }
+
+        List<Integer> ids = new ArrayList<>(userIds);
+        try {
+            DatabaseUtil.beginTransaction();
+            try (Connection conn = DatabaseUtil.getConnection()) {
+                for (int from = 0; from < ids.size(); from += MAX_IN_LIST_SIZE) {
+                    List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IN_LIST_SIZE));
+                    int slots = inListSlots(chunk.size());
+                    String sql = bulkApprovalSql(isH2(conn), "UserID IN (" + placeholders(slots) + ")");
+
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        pstmt.setString(1, status);
+                        pstmt.setString(2, User.STATUS_PENDING);
+                        for (int i = 0; i < slots; i++) {
+                            // 不足档位的部分重复最后一个ID补齐，保证SQL文本可被语句缓存复用
+                            pstmt.setInt(3 + i, chunk.get(Math.min(i, chunk.size() - 1)));
+                        }
+                        updated.addAll(executeReturning(pstmt, rs -> rs.getInt(1)));
+                    }
+                }
+            }
+            DatabaseUtil.commitTransaction();
+            logApprovals(updated, status);
+            System.out.println("批量审批完成，" + updated.size() + " 个用户的审核状态已更新为: " + status);
+            return updated;
+
+        } catch (SQLException e) {
+            DatabaseUtil.rollbackTransaction();
+            System.err.println("批量更新审核状态失败: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public List<Integer> updatePendingApprovalStatus(String userType, Date createdBefore, String status) {
+        if (!isDecisionStatus(status)) {
+            return new ArrayList<>();
+        }
+
+        String condition = pendingApprovalCondition(userType != null, createdBefore != null);
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(bulkApprovalSql(isH2(conn), condition))) {
+            int index = 1;
+            pstmt.setString(index++, status);
+            pstmt.setString(index++, User.STATUS_PENDING);
+            if (userType != null) {
+                pstmt.setString(index++, userType);
+            }
+            if (createdBefore != null) {
+                pstmt.setTimestamp(index, new Timestamp(createdBefore.getTime()));
+            }
+
+            List<Integer> updated = executeReturning(pstmt, rs -> rs.getInt(1));
+            logApprovals(updated, status);
+            System.out.println("批量审批完成，" + updated.size() + " 个用户的审核状态已更新为: " + status);
+            return updated;
+
+        } catch (SQLException e) {
+            System.err.println("按条件批量更新审核状态失败: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 按条件批量审批的附加条件（跟在 ApprovalStatus = ? 之后），参数依次为用户类型和注册时间上限
+     */
+    public static String pendingApprovalCondition(boolean byType, boolean createdBefore) {
+        List<String> conditions = new ArrayList<>();
+        if (byType) {
+            conditions.add("UserType = ?");
+        }
+        if (createdBefore) {
+            conditions.add("CreatedTime < ?");
+        }
+        return conditions.isEmpty() ? "1 = 1" : String.join(" AND ", conditions);
+    }
+
+    /**
+     * 批量审批只允许把待审核用户改为通过或拒绝
+     */
+    private boolean isDecisionStatus(String status) {
+        if (User.STATUS_APPROVED.equals(status) || User.STATUS_REJECTED.equals(status)) {
+            return true;
+        }
+        System.err.println("无效的审核状态: " + status);
+        return false;
+    }
+
+    /**
+     * 批量审批只会把待审核用户改为通过或拒绝，提交后为每个用户记录状态变更日志
+     */
+    private static void logApprovals(List<Integer> userIds, String status) {
+        for (Integer userId : userIds) {
+            AuditLogWriter.logStatusChange(userId, User.STATUS_PENDING, status);
+        }
+    }
+
+    /**
+     * 按用户ID更新（行版本号同时加一）并通过 OUTPUT 返回更新前的审核状态，用于记录状态变更日志；
+     * 参数依次为 assignments 中的占位符和用户ID
+     * （OUTPUT 写入表变量后再查询，未执行迁移、Users 表上仍有触发器时也能执行）；
+     * H2 改为从 OLD TABLE 读取更新前的行，参数顺序相同
+     */
+    private static String updateReturningOldStatusSql(boolean h2, String assignments) {
+        if (h2) {
+            return "SELECT ApprovalStatus FROM OLD TABLE (" +
+                    "UPDATE Users SET " + assignments + ", RowVersion = RowVersion + 1 WHERE UserID = ?)";
+        }
+        return "SET NOCOUNT ON; " +
+                "DECLARE @old TABLE (ApprovalStatus NVARCHAR(20)); " +
+                "UPDATE Users SET " + assignments + ", RowVersion = RowVersion + 1 " +
+                "OUTPUT deleted.ApprovalStatus INTO @old WHERE UserID = ?; " +
+                "SELECT ApprovalStatus FROM @old;";
+    }
+
+    /**
+     * 集合式审批语句：一条 UPDATE 完成所有行，通过 OUTPUT 返回实际更新的ID
+     * （OUTPUT 写入表变量后再查询，未执行迁移、Users 表上仍有触发器时也能执行）；
+     * H2 不支持 OUTPUT 和表变量，改为从 FINAL TABLE 读取更新后的行，参数顺序相同
+     */
+    private static String bulkApprovalSql(boolean h2, String condition) {
+        if (h2) {
+            return "SELECT UserID FROM FINAL TABLE (" +
+                    "UPDATE Users SET ApprovalStatus = ?, RowVersion = RowVersion + 1 " +
+                    "WHERE ApprovalStatus = ? AND " + condition + ")";
+        }
+        return "SET NOCOUNT ON; " +
+                "DECLARE @changed TABLE (UserID INT); " +
+                "UPDATE Users SET ApprovalStatus = ?, RowVersion = RowVersion + 1 " +
+                "OUTPUT inserted.UserID INTO @changed " +
+                "WHERE ApprovalStatus = ? AND " + condition + "; " +
+                "SELECT UserID FROM @changed;";
+    }
+
+    private static boolean isH2(Connection conn) throws SQLException {
+        Boolean cached = h2;
+        if (cached == null) {
+            cached = conn.getMetaData().getDatabaseProductName().toUpperCase(Locale.ROOT).contains("H2");
+            h2 = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * IN 列表长度按 1/10/100/1000 分档，避免每种长度都生成一条不同的SQL
+     */
+    private static int inListSlots(int size) {
+        int slots = 1;
+        while (slots < size) {
+            slots *= 10;
+        }
+        return Math.min(slots, MAX_IN_LIST_SIZE);
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 从结果集当前行读取一个值
+     */
+    private interface ColumnReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * 执行可能返回多个结果的语句，按 reader 读取其中结果集的每一行
+     */
+    private static <T> List<T> executeReturning(PreparedStatement pstmt, ColumnReader<T> reader) throws SQLException {
+        List<T> values = new ArrayList<>();
+        boolean isResultSet = pstmt.execute();
+        while (true) {
+            if (isResultSet) {
+                try (ResultSet rs = pstmt.getResultSet()) {
+                    while (rs.next()) {
+                        values.add(reader.read(rs));
+                    }
+                }
+            } else if (pstmt.getUpdateCount() == -1) {
+                break;
+            }
+            isResultSet = pstmt.getMoreResults();
+        }
+        return values;
+    }
+
+    @Override
+    public Page<UserSummary> getUsersPage(PageCursor after, int pageSize) {
+        return queryPage(false, after, pageSize, null);
+    }
+
+    @Override
+    public Page<UserSummary> getUsersByTypePage(String userType, PageCursor after, int pageSize) {
+        return queryPage(false, after, pageSize, TYPE_FILTER, userType);
+    }
+
+    @Override
+    public Page<UserSummary> getPendingUsersPage(PageCursor after, int pageSize) {
+        return getPendingUsersPage(null, after, pageSize);
+    }
+
+    @Override
+    public Page<UserSummary> getPendingUsersPage(String userType, PageCursor after, int pageSize) {
+        return userType == null
+                ? queryPage(true, after, pageSize, PENDING_FILTER, User.STATUS_PENDING)
+                : queryPage(true, after, pageSize, PENDING_BY_TYPE_FILTER, User.STATUS_PENDING, userType);
+    }
+
+    @Override
+    public Stream<User> streamAllUsers() {
+        return streamQuery(STREAM_ALL_USERS_SQL);
+    }
+
+    @Override
+    public Stream<User> streamUsersByType(String userType) {
+        return streamQuery(STREAM_USERS_BY_TYPE_SQL, userType);
+    }
+
+    @Override
+    public Stream<User> streamPendingUsers() {
+        return streamQuery(STREAM_PENDING_USERS_SQL, User.STATUS_PENDING);
+    }
+
+    /**
+     * 键集分页：只查询摘要列，按 (CreatedTime, UserID) 定位上一页末尾，多取一行用于判断是否还有下一页；
+     * filterValues 依次绑定 filter 中的占位符
+     */
+    private Page<UserSummary> queryPage(boolean ascending, PageCursor after, int pageSize,
+                                        String filter, String... filterValues) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("每页数量必须大于0");
+        }
+
+        List<UserSummary> users = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(pageSql(filter, ascending, after != null))) {
+            int index = 1;
+            pstmt.setInt(index++, pageSize + 1);
+            for (String value : filterValues) {
+                pstmt.setString(index++, value);
+            }
+            if (after != null) {
+                // 游标时间取自结果集时已是 Timestamp，直接绑定以保留毫秒以下的精度
+                Timestamp createdTime = after.getTime() instanceof Timestamp
+                        ? (Timestamp) after.getTime() : new Timestamp(after.getTime().getTime());
+                pstmt.setTimestamp(index++, createdTime);
+                pstmt.setTimestamp(index++, createdTime);
+                pstmt.setInt(index, after.getId());
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(UserRowMapper.mapSummary(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("分页获取用户失败: " + e.getMessage());
+            return new Page<>(new ArrayList<>(), null);
+        }
+
+        PageCursor next = null;
+        if (users.size() > pageSize) {
+            users.remove(pageSize);
+            UserSummary last = users.get(pageSize - 1);
+            next = new PageCursor(last.getCreatedTime(), last.getUserId());
+        }
+        return new Page<>(users, next);
+    }
+
+    /**
+     * 键集分页语句，参数依次为每页行数、filter 中的占位符，有游标时再加游标时间（两次）和用户ID
+     */
+    public static String pageSql(String filter, boolean ascending, boolean afterCursor) {
+        String cmp = ascending ? ">" : "<";
+        String order = ascending ? "ASC" : "DESC";
+        List<String> conditions = new ArrayList<>();
+        if (filter != null) {
+            conditions.add(filter);
+        }
+        if (afterCursor) {
+            // 参数按 datetime2 发送，SQL Server 2016 起与 DATETIME 列比较时列值按精确值转换（.003 变为 .0033333），
+            // 不先转成 DATETIME 的话等值条件匹配不到同一时刻的行，游标所在时刻的其余行会被跳过
+            conditions.add("(CreatedTime " + cmp + " CAST(? AS DATETIME) OR (CreatedTime = CAST(? AS DATETIME) AND UserID "
+                    + cmp + " ?))");
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT TOP (?) " + SUMMARY_COLUMNS + " FROM Users");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY CreatedTime ").append(order).append(", UserID ").append(order);
+        return sql.toString();
+    }
+
+    /**
+     * 流式查询：按 db.fetchSize 分批从数据库拉取，流关闭时释放结果集、语句和连接
+     */
+    private Stream<User> streamQuery(String sql, String... params) {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setFetchSize(DatabaseConfig.getFetchSize());
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setString(i + 1, params[i]);
+            }
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            System.err.println("流式查询用户失败: " + e.getMessage());
+            closeQuietly(rs, pstmt, conn);
+            return Stream.empty();
+        }
+
+        ResultSet cursor = rs;
+        Spliterator<User> spliterator = new Spliterators.AbstractSpliterator<User>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super User> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(UserRowMapper.mapUser(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("读取用户数据失败: " + e.getMessage(), e);
+                }
+            }
+        };
+
+        Statement statement = pstmt;
+        Connection connection = conn;
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> closeQuietly(cursor, statement, connection));
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("释放数据库资源失败: " + e.getMessage());
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
+import com.usermanagement.model.UserData;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 用户数据访问接口（UserData 表）
+ *
+ * 所有操作都限定在 userId 指定的用户名下，用户只能读写自己的数据。
+ * 列表按修改时间倒序（ModifiedTime DESC, DataID DESC），用键集分页逐页读取；
+ * 需要遍历全部数据（导出）时使用流式查询，数据不会一次性加载到内存。
+ */
+public interface UserDataDao {
+
+    /**
+     * 添加一条数据，成功后回填数据ID
+     */
+    boolean addData(UserData data);
+
+    /**
+     * 批量添加：用 JDBC 批处理分块写入，全部在一个事务中完成
+     * 返回添加的条数，失败时整体回滚并返回 -1
+     */
+    int addData(Iterable<UserData> items);
+
+    /**
+     * 更新数据的类型和字段，同时刷新修改时间
+     */
+    boolean updateData(UserData data);
+
+    /**
+     * 批量更新：用 JDBC 批处理分块写入，全部在一个事务中完成
+     * 返回实际更新的条数，失败时整体回滚并返回 -1
+     */
+    int updateData(Iterable<UserData> items);
+
+    /**
+     * 删除一条数据
+     */
+    boolean deleteData(int userId, int dataId);
+
+    /**
+     * 按数据ID查询
+     */
+    UserData getData(int userId, int dataId);
+
+    /**
+     * 键集分页获取数据，dataType 为 null 表示全部类型
+     */
+    Page<UserData> getDataPage(int userId, String dataType, PageCursor after, int pageSize);
+
+    /**
+     * 数据条数，dataType 为 null 表示全部类型；失败时返回 -1
+     */
+    int countData(int userId, String dataType);
+
+    /**
+     * 用户已使用的数据类型
+     */
+    List<String> getDataTypes(int userId);
+
+    /**
+     * 流式获取数据（按 db.fetchSize 分批读取），dataType 为 null 表示全部类型
+     * 返回的流持有数据库连接，必须在 try-with-resources 中使用
+     */
+    Stream<UserData> streamData(int userId, String dataType);
+}
@@ -0,0 +1,379 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
+import com.usermanagement.model.UserData;
+import com.usermanagement.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 用户数据访问实现
+ *
+ * 分页和流式查询按 (UserID, DataType, ModifiedTime, DataID) 和 (UserID, ModifiedTime, DataID)
+ * 两个索引（迁移 V5）的顺序读取，不需要排序；批量写入按 batch.chunkSize 分块执行批处理。
+ */
+public class UserDataDaoImpl implements UserDataDao {
+    // 列清单，顺序与 mapData 中的序号一一对应
+    private static final String DATA_COLUMNS =
+            "DataID, UserID, DataType, Field1, Field2, Field3, Field4, Field5, CreatedTime, ModifiedTime";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO UserData (UserID, DataType, Field1, Field2, Field3, Field4, Field5) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE UserData SET DataType = ?, Field1 = ?, Field2 = ?, Field3 = ?, Field4 = ?, Field5 = ?, " +
+            "ModifiedTime = CURRENT_TIMESTAMP WHERE DataID = ? AND UserID = ?";
+
+    // 公开给 QueryPlanCheck，检查执行计划时使用与 DAO 完全相同的语句文本
+    public static final String DATA_TYPES_SQL = "SELECT DISTINCT DataType FROM UserData WHERE UserID = ? ORDER BY DataType";
+
+    private final int chunkSize;
+
+    public UserDataDaoImpl() {
+        this(DatabaseConfig.getBatchChunkSize());
+    }
+
+    public UserDataDaoImpl(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public boolean addData(UserData data) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindInsert(pstmt, data);
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    data.setDataId(keys.getInt(1));
+                }
+            }
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("添加数据失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public int addData(Iterable<UserData> items) {
+        return executeBatch(INSERT_SQL, items, UserDataDaoImpl::bindInsert, "批量添加数据失败: ");
+    }
+
+    @Override
+    public boolean updateData(UserData data) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+            bindUpdate(pstmt, data);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("更新数据失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public int updateData(Iterable<UserData> items) {
+        return executeBatch(UPDATE_SQL, items, UserDataDaoImpl::bindUpdate, "批量更新数据失败: ");
+    }
+
+    @Override
+    public boolean deleteData(int userId, int dataId) {
+        String sql = "DELETE FROM UserData WHERE DataID = ? AND UserID = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, dataId);
+            pstmt.setInt(2, userId);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("删除数据失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public UserData getData(int userId, int dataId) {
+        String sql = "SELECT " + DATA_COLUMNS + " FROM UserData WHERE DataID = ? AND UserID = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, dataId);
+            pstmt.setInt(2, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapData(rs) : null;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("查询数据失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 键集分页：按 (ModifiedTime, DataID) 定位上一页末尾，多取一行用于判断是否还有下一页
+     */
+    @Override
+    public Page<UserData> getDataPage(int userId, String dataType, PageCursor after, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("每页数量必须大于0");
+        }
+
+        List<UserData> items = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(dataPageSql(dataType != null, after != null))) {
+            int index = 1;
+            pstmt.setInt(index++, pageSize + 1);
+            pstmt.setInt(index++, userId);
+            if (dataType != null) {
+                pstmt.setString(index++, dataType);
+            }
+            if (after != null) {
+                // 游标时间取自结果集时已是 Timestamp，直接绑定以保留毫秒以下的精度
+                Timestamp modifiedTime = after.getTime() instanceof Timestamp
+                        ? (Timestamp) after.getTime() : new Timestamp(after.getTime().getTime());
+                pstmt.setTimestamp(index++, modifiedTime);
+                pstmt.setTimestamp(index++, modifiedTime);
+                pstmt.setInt(index, after.getId());
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapData(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("分页获取数据失败: " + e.getMessage());
+            return new Page<>(new ArrayList<>(), null);
+        }
+
+        PageCursor next = null;
+        if (items.size() > pageSize) {
+            items.remove(pageSize);
+            UserData last = items.get(pageSize - 1);
+            next = new PageCursor(last.getModifiedTime(), last.getDataId());
+        }
+        return new Page<>(items, next);
+    }
+
+    @Override
+    public int countData(int userId, String dataType) {
+        String sql = "SELECT COUNT(*) FROM UserData WHERE UserID = ?" + (dataType != null ? " AND DataType = ?" : "");
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            if (dataType != null) {
+                pstmt.setString(2, dataType);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("统计数据条数失败: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public List<String> getDataTypes(int userId) {
+        List<String> types = new ArrayList<>();
+        String sql = DATA_TYPES_SQL;
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    types.add(rs.getString(1));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("获取数据类型失败: " + e.getMessage());
+        }
+        return types;
+    }
+
+    /**
+     * 键集分页语句，参数依次为每页行数、用户ID、数据类型（byType 时），有游标时再加游标时间（两次）和数据ID
+     */
+    public static String dataPageSql(boolean byType, boolean afterCursor) {
+        StringBuilder sql = new StringBuilder("SELECT TOP (?) " + DATA_COLUMNS + " FROM UserData WHERE UserID = ?");
+        if (byType) {
+            sql.append(" AND DataType = ?");
+        }
+        if (afterCursor) {
+            // 与 UserDaoImpl 的键集分页相同，游标时间先转成 DATETIME 再与列比较
+            sql.append(" AND (ModifiedTime < CAST(? AS DATETIME) OR (ModifiedTime = CAST(? AS DATETIME) AND DataID < ?))");
+        }
+        sql.append(" ORDER BY ModifiedTime DESC, DataID DESC");
+        return sql.toString();
+    }
+
+    /**
+     * 流式查询：按 db.fetchSize 分批从数据库拉取，流关闭时释放结果集、语句和连接
+     */
+    @Override
+    public Stream<UserData> streamData(int userId, String dataType) {
+        String sql = "SELECT " + DATA_COLUMNS + " FROM UserData WHERE UserID = ?"
+                + (dataType != null ? " AND DataType = ?" : "")
+                + " ORDER BY ModifiedTime DESC, DataID DESC";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setFetchSize(DatabaseConfig.getFetchSize());
+            pstmt.setInt(1, userId);
+            if (dataType != null) {
+                pstmt.setString(2, dataType);
+            }
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            System.err.println("流式查询数据失败: " + e.getMessage());
+            closeQuietly(rs, pstmt, conn);
+            return Stream.empty();
+        }
+
+        ResultSet cursor = rs;
+        Spliterator<UserData> spliterator = new Spliterators.AbstractSpliterator<UserData>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super UserData> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapData(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("读取用户数据失败: " + e.getMessage(), e);
+                }
+            }
+        };
+
+        Statement statement = pstmt;
+        Connection connection = conn;
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> closeQuietly(cursor, statement, connection));
+    }
+
+    // ==================== 批处理 ====================
+
+    /**
+     * 绑定一行的参数
+     */
+    private interface Binder {
+        void bind(PreparedStatement pstmt, UserData data) throws SQLException;
+    }
+
+    /**
+     * 在一个事务中按 chunkSize 分块执行批处理，返回受影响的行数，失败时回滚并返回 -1
+     */
+    private int executeBatch(String sql, Iterable<UserData> items, Binder binder, String errorPrefix) {
+        int affected = 0;
+        try {
+            DatabaseUtil.beginTransaction();
+            try (Connection conn = DatabaseUtil.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int pending = 0;
+                for (UserData data : items) {
+                    binder.bind(pstmt, data);
+                    pstmt.addBatch();
+                    if (++pending == chunkSize) {
+                        affected += countAffected(pstmt.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    affected += countAffected(pstmt.executeBatch());
+                }
+            }
+            DatabaseUtil.commitTransaction();
+            return affected;
+
+        } catch (SQLException e) {
+            DatabaseUtil.rollbackTransaction();
+            System.err.println(errorPrefix + e.getMessage());
+            return -1;
+        } catch (RuntimeException e) {
+            // 输入是惰性读取的（如逐行解析的文件），解析出错时同样整体回滚
+            DatabaseUtil.rollbackTransaction();
+            throw e;
+        }
+    }
+
+    private static int countAffected(int[] counts) {
+        int affected = 0;
+        for (int count : counts) {
+            // 驱动不报告行数时（SUCCESS_NO_INFO）按一行计
+            affected += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return affected;
+    }
+
+    private static void bindInsert(PreparedStatement pstmt, UserData data) throws SQLException {
+        pstmt.setInt(1, data.getUserId());
+        pstmt.setString(2, data.getDataType());
+        for (int i = 1; i <= UserData.FIELD_COUNT; i++) {
+            pstmt.setString(2 + i, data.getField(i));
+        }
+    }
+
+    private static void bindUpdate(PreparedStatement pstmt, UserData data) throws SQLException {
+        pstmt.setString(1, data.getDataType());
+        for (int i = 1; i <= UserData.FIELD_COUNT; i++) {
+            pstmt.setString(1 + i, data.getField(i));
+        }
+        pstmt.setInt(7, data.getDataId());
+        pstmt.setInt(8, data.getUserId());
+    }
+
+    /**
+     * 映射按 DATA_COLUMNS 查询出的当前行
+     */
+    private static UserData mapData(ResultSet rs) throws SQLException {
+        UserData data = new UserData();
+        data.setDataId(rs.getInt(1));
+        data.setUserId(rs.getInt(2));
+        data.setDataType(rs.getString(3));
+        for (int i = 1; i <= UserData.FIELD_COUNT; i++) {
+            data.setField(i, rs.getString(3 + i));
+        }
+        data.setCreatedTime(rs.getTimestamp(9));
+        data.setModifiedTime(rs.getTimestamp(10));
+        return data;
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("释放数据库资源失败: " + e.getMessage());
+            }
+        }
+    }
+}
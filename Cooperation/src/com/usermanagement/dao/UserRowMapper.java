@@ -0,0 +1,54 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserSummary;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Users 表的列清单与行映射
+ *
+ * 查询必须使用这里的列清单，映射按列序号读取，避免每行按列名查找。
+ */
+public final class UserRowMapper {
+    // 完整用户的列清单，顺序与 mapUser 中的序号一一对应
+    public static final String USER_COLUMNS =
+            "UserID, Username, Password, UserType, ApprovalStatus, CreatedTime, LastLoginTime, Remark, RowVersion";
+
+    // 列表摘要的列清单，顺序与 mapSummary 中的序号一一对应
+    public static final String SUMMARY_COLUMNS =
+            "UserID, Username, UserType, ApprovalStatus, CreatedTime";
+
+    private UserRowMapper() {}
+
+    /**
+     * 映射按 USER_COLUMNS 查询出的当前行
+     */
+    public static User mapUser(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setUserId(rs.getInt(1));
+        user.setUsername(rs.getString(2));
+        user.setPassword(rs.getString(3));
+        user.setUserType(rs.getString(4));
+        user.setApprovalStatus(rs.getString(5));
+        user.setCreatedTime(rs.getTimestamp(6));
+        user.setLastLoginTime(rs.getTimestamp(7));
+        user.setRemark(rs.getString(8));
+        user.setRowVersion(rs.getInt(9));
+        user.markClean();
+        return user;
+    }
+
+    /**
+     * 映射按 SUMMARY_COLUMNS 查询出的当前行
+     */
+    public static UserSummary mapSummary(ResultSet rs) throws SQLException {
+        return new UserSummary(
+                rs.getInt(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getTimestamp(5));
+    }
+}
@@ -0,0 +1,40 @@
+package com.usermanagement.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 只增计数器，基于 LongAdder，多线程并发递增时没有锁也几乎没有竞争
+ */
+public class Counter {
+    /**
+     * 指标关闭时使用的空实现
+     */
+    static final Counter NOOP = new Counter(false);
+
+    private final boolean enabled;
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+        this(true);
+    }
+
+    private Counter(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void increment() {
+        if (enabled) {
+            value.increment();
+        }
+    }
+
+    public void add(long amount) {
+        if (enabled) {
+            value.add(amount);
+        }
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
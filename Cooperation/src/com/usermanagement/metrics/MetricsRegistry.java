@@ -0,0 +1,242 @@
+package com.usermanagement.metrics;
+
+import com.usermanagement.config.DatabaseConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 指标注册表（单例模式）：计数器、耗时直方图和仪表
+ *
+ * 指标在组件创建时注册一次并保存引用，热点路径上只做 LongAdder 递增，不查表、不加锁。
+ * 同名同标签的计数器和直方图重复注册时返回同一个实例；仪表和读取函数的计数器重复注册时以最后一次为准
+ * （例如连接池重建后指向新的连接池）。
+ *
+ * 读取方式有两种：snapshot() 返回结构化快照，scrape() 返回 Prometheus 文本格式（0.0.4），
+ * 服务模式下可通过 GET /api/metrics 抓取。
+ * 配置 metrics.enabled=false 时返回空实现，记录操作直接返回。
+ */
+public class MetricsRegistry {
+    private static volatile MetricsRegistry instance = null;
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private static final String TYPE_COUNTER = "counter";
+    private static final String TYPE_GAUGE = "gauge";
+    private static final String TYPE_HISTOGRAM = "histogram";
+
+    private final boolean enabled;
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    public MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 获取共享的指标注册表（按 config.properties 中的 metrics.enabled 决定是否启用）
+     */
+    public static MetricsRegistry getInstance() {
+        MetricsRegistry current = instance;
+        if (current == null) {
+            lock.lock();
+            try {
+                if (instance == null) {
+                    instance = new MetricsRegistry(DatabaseConfig.getBoolean("metrics.enabled", true));
+                }
+                current = instance;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 注册（或取得已注册的）计数器
+     *
+     * @param labels 标签名和值交替排列，如 "result", "success"
+     */
+    public Counter counter(String name, String help, String... labels) {
+        if (!enabled) {
+            return Counter.NOOP;
+        }
+        return (Counter) family(name, help, TYPE_COUNTER).series
+                .computeIfAbsent(formatLabels(labels), key -> new Counter());
+    }
+
+    /**
+     * 注册由组件自己维护的计数器（如连接池的超时次数），读取指标时才调用 value 取当前值；
+     * 重复注册时以最后一次为准
+     */
+    public void counter(String name, String help, Supplier<? extends Number> value, String... labels) {
+        if (!enabled) {
+            return;
+        }
+        family(name, help, TYPE_COUNTER).series.put(formatLabels(labels), value);
+    }
+
+    /**
+     * 注册（或取得已注册的）耗时直方图
+     */
+    public Timer timer(String name, String help, String... labels) {
+        if (!enabled) {
+            return Timer.NOOP;
+        }
+        return (Timer) family(name, help, TYPE_HISTOGRAM).series
+                .computeIfAbsent(formatLabels(labels), key -> new Timer());
+    }
+
+    /**
+     * 注册仪表，读取指标时才调用 value 取当前值
+     */
+    public void gauge(String name, String help, Supplier<? extends Number> value, String... labels) {
+        if (!enabled) {
+            return;
+        }
+        family(name, help, TYPE_GAUGE).series.put(formatLabels(labels), value);
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("指标 " + name + " 已注册为 " + family.type + "，不能再注册为 " + type);
+        }
+        return family;
+    }
+
+    private static String formatLabels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("标签名和值必须成对出现");
+        }
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 所有指标的当前值：指标名+标签 -> 数值（计数器、仪表）或 {count, meanMillis, p50Millis, p99Millis, maxMillis}（直方图）
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, Family> family : new ConcurrentSkipListMap<>(families).entrySet()) {
+            for (Map.Entry<String, Object> series : family.getValue().series.entrySet()) {
+                String key = family.getKey() + series.getKey();
+                Object metric = series.getValue();
+                if (metric instanceof Counter) {
+                    snapshot.put(key, ((Counter) metric).get());
+                } else if (metric instanceof Timer) {
+                    Timer timer = (Timer) metric;
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    values.put("count", timer.getCount());
+                    values.put("meanMillis", timer.getMeanMillis());
+                    values.put("p50Millis", timer.getPercentileMillis(50));
+                    values.put("p99Millis", timer.getPercentileMillis(99));
+                    values.put("maxMillis", timer.getMaxNanos() / 1e6);
+                    snapshot.put(key, values);
+                } else {
+                    snapshot.put(key, read(metric));
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Prometheus 文本格式（text/plain; version=0.0.4），直方图单位为秒
+     */
+    public String scrape() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Map.Entry<String, Family> entry : new ConcurrentSkipListMap<>(families).entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            sb.append("# HELP ").append(name).append(' ').append(family.help.replace("\n", " ")).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> series : family.series.entrySet()) {
+                String labels = series.getKey();
+                Object metric = series.getValue();
+                if (metric instanceof Counter) {
+                    sb.append(name).append(labels).append(' ').append(((Counter) metric).get()).append('\n');
+                } else if (metric instanceof Timer) {
+                    appendHistogram(sb, name, labels, (Timer) metric);
+                } else {
+                    sb.append(name).append(labels).append(' ').append(formatDouble(read(metric).doubleValue())).append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendHistogram(StringBuilder sb, String name, String labels, Timer timer) {
+        // 各桶先读出来再累加，保证同一次抓取中各行彼此一致
+        long[] counts = timer.getBucketCounts();
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            String le = i < Timer.BOUND_LABELS.length ? Timer.BOUND_LABELS[i] : "+Inf";
+            sb.append(name).append("_bucket").append(prefix).append("le=\"").append(le).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        sb.append(name).append("_sum").append(labels).append(' ')
+                .append(formatDouble(timer.getTotalNanos() / 1e9)).append('\n');
+        sb.append(name).append("_count").append(labels).append(' ').append(cumulative).append('\n');
+    }
+
+    /**
+     * 调用仪表或计数器的读取函数，读取失败时返回 NaN
+     */
+    private static Number read(Object metric) {
+        try {
+            Object value = ((Supplier<?>) metric).get();
+            return value instanceof Number ? (Number) value : Double.NaN;
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String formatDouble(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * 同名指标（类型、说明相同，标签不同）
+     */
+    private static final class Family {
+        final String help;
+        final String type;
+        // 标签文本 -> Counter / Timer / Supplier
+        final Map<String, Object> series = new ConcurrentSkipListMap<>();
+
+        Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
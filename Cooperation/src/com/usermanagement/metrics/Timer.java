@@ -0,0 +1,147 @@
+package com.usermanagement.metrics;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图：固定的指数分桶（100 μs 到 10 s），每个桶一个 LongAdder
+ *
+ * 记录一次耗时只是十几次比较加两次 LongAdder 递增，不加锁；
+ * 最大值只在超过当前值时才做 CAS，绝大多数记录不会产生竞争。
+ * 分位数按桶内线性插值估算，精度取决于分桶，适合观察趋势而不是精确测量。
+ */
+public class Timer {
+    // 桶上界（秒），最后还有一个 +Inf 桶
+    static final double[] BOUNDS_SECONDS = {
+            0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025,
+            0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final long[] BOUNDS_NANOS = new long[BOUNDS_SECONDS.length];
+    static final String[] BOUND_LABELS = new String[BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            BOUNDS_NANOS[i] = (long) (BOUNDS_SECONDS[i] * 1e9);
+            BOUND_LABELS[i] = BigDecimal.valueOf(BOUNDS_SECONDS[i]).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    /**
+     * 指标关闭时使用的空实现（必须在分桶初始化之后创建）
+     */
+    static final Timer NOOP = new Timer(false);
+
+    private final boolean enabled;
+    private final LongAdder[] buckets;
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * 独立使用的直方图（不注册到 MetricsRegistry，如按 SQL 汇总的语句统计）
+     */
+    public Timer() {
+        this(true);
+    }
+
+    private Timer(boolean enabled) {
+        this.enabled = enabled;
+        this.buckets = new LongAdder[BOUNDS_NANOS.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次耗时（纳秒）
+     */
+    public void record(long nanos) {
+        if (!enabled) {
+            return;
+        }
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int index = 0;
+        while (index < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        totalNanos.add(nanos);
+        if (nanos > maxNanos.get()) {
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /**
+     * 记录从 startNanos（System.nanoTime()）到现在的耗时
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getTotalNanos() { return totalNanos.sum(); }
+    public long getMaxNanos() { return maxNanos.get(); }
+
+    /**
+     * 各桶的计数（非累计），长度为分桶数 + 1
+     */
+    long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public double getMeanMillis() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * 估算第 percentile（0-100）百分位的耗时（毫秒），不超过记录到的最大值
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        double maxMillis = maxNanos.get() / 1e6;
+        double target = percentile / 100.0 * total;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && seen + counts[i] >= target) {
+                if (i == BOUNDS_NANOS.length) {
+                    return maxMillis;
+                }
+                double lower = i == 0 ? 0 : BOUNDS_NANOS[i - 1] / 1e6;
+                double upper = BOUNDS_NANOS[i] / 1e6;
+                double value = lower + (upper - lower) * (target - seen) / counts[i];
+                return Math.min(value, maxMillis);
+            }
+            seen += counts[i];
+        }
+        return maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d 次, 平均 %.2f ms, p50 %.2f ms, p99 %.2f ms, 最大 %.2f ms",
+                getCount(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(99),
+                TimeUnit.NANOSECONDS.toMicros(maxNanos.get()) / 1000.0);
+    }
+}
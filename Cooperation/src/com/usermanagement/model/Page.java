@@ -0,0 +1,28 @@
+package com.usermanagement.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 分页查询结果
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final PageCursor nextCursor;  // 没有下一页时为 null
+
+    public Page(List<T> items, PageCursor nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public PageCursor getNextCursor() { return nextCursor; }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,26 @@
+package com.usermanagement.model;
+
+import java.util.Date;
+
+/**
+ * 键集分页游标：记录上一页最后一行的排序时间和ID，下一页从它之后开始
+ *
+ * 用户分页（UserDao）中为 (CreatedTime, UserID)，用户数据分页（UserDataDao）中为 (ModifiedTime, DataID)。
+ */
+public class PageCursor {
+    private final Date time;
+    private final int id;
+
+    public PageCursor(Date time, int id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    public Date getTime() { return time; }
+    public int getId() { return id; }
+
+    @Override
+    public String toString() {
+        return "PageCursor[" + time + ", " + id + "]";
+    }
+}
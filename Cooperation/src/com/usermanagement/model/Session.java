@@ -0,0 +1,66 @@
+package com.usermanagement.model;
+
+import java.util.Date;
+
+/**
+ * 登录会话
+ *
+ * 保存登录时确定的用户身份和角色，已认证的请求凭令牌取会话即可，无需重新查询用户。
+ * 令牌本身只返回给客户端，会话中只保存令牌的哈希。
+ */
+public class Session {
+    private final String tokenHash;
+    private final int userId;
+    private final String username;
+    private final String userType;
+    private final long createdAt;
+    private final long expiresAt;
+    private volatile long lastAccessAt;
+
+    public Session(String tokenHash, int userId, String username, String userType,
+                   long createdAt, long expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.username = username;
+        this.userType = userType;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+        this.lastAccessAt = createdAt;
+    }
+
+    public String getTokenHash() { return tokenHash; }
+    public int getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public String getUserType() { return userType; }
+    public Date getCreatedTime() { return new Date(createdAt); }
+    public Date getExpiresTime() { return new Date(expiresAt); }
+    public long getCreatedAt() { return createdAt; }
+    public long getExpiresAt() { return expiresAt; }
+    public long getLastAccessAt() { return lastAccessAt; }
+
+    public void touch(long now) {
+        lastAccessAt = now;
+    }
+
+    /**
+     * 空闲超时或超过绝对有效期
+     */
+    public boolean isExpired(long now, long idleTimeoutMillis) {
+        return now >= expiresAt || now - lastAccessAt >= idleTimeoutMillis;
+    }
+
+    public boolean isAdmin() {
+        return User.TYPE_ADMIN.equals(userType);
+    }
+
+    @Override
+    public String toString() {
+        return "Session{" +
+                "userId=" + userId +
+                ", username='" + username + '\'' +
+                ", userType='" + userType + '\'' +
+                ", createdTime=" + getCreatedTime() +
+                ", expiresTime=" + getExpiresTime() +
+                '}';
+    }
+}
@@ -1,9 +1,17 @@
 package com.usermanagement.model;
 
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * 用户实体类
+ *
+ * 通过 setter 修改的可更新字段会被记录下来（连同修改前的值），UserDao.patchUser 只把这些字段写回数据库。
+ * 从数据库读取的用户没有修改标记；rowVersion 是读取时的行版本号，用于乐观并发检查。
  */
 public class User {
     private int userId;
@@ -14,6 +22,30 @@ public class User {
     private Date createdTime;
     private Date lastLoginTime;
     private String remark;
+    private int rowVersion;         // 行版本号：每次修改用户信息或审核状态时加一
+
+    // 自上次 markClean() 以来修改过的字段及其修改前的值
+    private final Map<Field, Object> originals = new EnumMap<>(Field.class);
+
+    /**
+     * 可以单独更新的字段，column 为 Users 表中的列名
+     */
+    public enum Field {
+        USERNAME("Username"),
+        PASSWORD("Password"),
+        USER_TYPE("UserType"),
+        APPROVAL_STATUS("ApprovalStatus"),
+        LAST_LOGIN_TIME("LastLoginTime"),
+        REMARK("Remark");
+
+        private final String column;
+
+        Field(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() { return column; }
+    }
 
     // 用户类型常量
     public static final String TYPE_ADMIN = "管理员";
@@ -35,21 +67,45 @@ public class User {
         this.approvalStatus = STATUS_PENDING; // 默认待审核
     }
 
+    // 复制构造方法
+    public User(User other) {
+        this.userId = other.userId;
+        this.username = other.username;
+        this.password = other.password;
+        this.userType = other.userType;
+        this.approvalStatus = other.approvalStatus;
+        this.createdTime = other.createdTime;
+        this.lastLoginTime = other.lastLoginTime;
+        this.remark = other.remark;
+        this.rowVersion = other.rowVersion;
+        this.originals.putAll(other.originals);
+    }
+
     // Getter 和 Setter 方法
     public int getUserId() { return userId; }
     public void setUserId(int userId) { this.userId = userId; }
 
     public String getUsername() { return username; }
-    public void setUsername(String username) { this.username = username; }
+    public void setUsername(String username) {
+        changed(Field.USERNAME, this.username, username);
+        this.username = username;
+    }
 
     public String getPassword() { return password; }
-    public void setPassword(String password) { this.password = password; }
+    public void setPassword(String password) {
+        changed(Field.PASSWORD, this.password, password);
+        this.password = password;
+    }
 
     public String getUserType() { return userType; }
-    public void setUserType(String userType) { this.userType = userType; }
+    public void setUserType(String userType) {
+        changed(Field.USER_TYPE, this.userType, userType);
+        this.userType = userType;
+    }
 
     public String getApprovalStatus() { return approvalStatus; }
     public void setApprovalStatus(String approvalStatus) {
+        changed(Field.APPROVAL_STATUS, this.approvalStatus, approvalStatus);
         this.approvalStatus = approvalStatus;
     }
 
@@ -58,11 +114,68 @@ public class User {
 
     public Date getLastLoginTime() { return lastLoginTime; }
     public void setLastLoginTime(Date lastLoginTime) {
+        changed(Field.LAST_LOGIN_TIME, this.lastLoginTime, lastLoginTime);
         this.lastLoginTime = lastLoginTime;
     }
 
     public String getRemark() { return remark; }
-    public void setRemark(String remark) { this.remark = remark; }
+    public void setRemark(String remark) {
+        changed(Field.REMARK, this.remark, remark);
+        this.remark = remark;
+    }
+
+    public int getRowVersion() { return rowVersion; }
+    public void setRowVersion(int rowVersion) { this.rowVersion = rowVersion; }
+
+    // 修改标记
+
+    /**
+     * 记录字段修改；改回修改前的值时清除标记
+     */
+    private void changed(Field field, Object oldValue, Object newValue) {
+        if (!originals.containsKey(field)) {
+            if (!Objects.equals(oldValue, newValue)) {
+                originals.put(field, oldValue);
+            }
+        } else if (Objects.equals(originals.get(field), newValue)) {
+            originals.remove(field);
+        }
+    }
+
+    /**
+     * 自上次 markClean() 以来修改过的字段，按 Field 的声明顺序排列
+     */
+    public Set<Field> getDirtyFields() {
+        return originals.isEmpty() ? EnumSet.noneOf(Field.class) : EnumSet.copyOf(originals.keySet());
+    }
+
+    public boolean isDirty() {
+        return !originals.isEmpty();
+    }
+
+    /**
+     * 字段修改前的值；未修改的字段返回当前值
+     */
+    public Object getOriginalValue(Field field) {
+        if (originals.containsKey(field)) {
+            return originals.get(field);
+        }
+        switch (field) {
+            case USERNAME: return username;
+            case PASSWORD: return password;
+            case USER_TYPE: return userType;
+            case APPROVAL_STATUS: return approvalStatus;
+            case LAST_LOGIN_TIME: return lastLoginTime;
+            default: return remark;
+        }
+    }
+
+    /**
+     * 清除修改标记（从数据库读取或写回之后调用）
+     */
+    public void markClean() {
+        originals.clear();
+    }
 
     // 工具方法
     public boolean isAdmin() {
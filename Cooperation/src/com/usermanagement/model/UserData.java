@@ -0,0 +1,66 @@
+package com.usermanagement.model;
+
+import java.util.Date;
+
+/**
+ * 用户数据实体类（UserData 表）：每条数据属于一个用户，按数据类型分类，最多五个自定义字段
+ */
+public class UserData {
+    public static final int FIELD_COUNT = 5;
+    public static final int MAX_TYPE_LENGTH = 50;
+    public static final int MAX_FIELD_LENGTH = 100;
+
+    private int dataId;
+    private int userId;
+    private String dataType;
+    private final String[] fields = new String[FIELD_COUNT];
+    private Date createdTime;
+    private Date modifiedTime;
+
+    // 构造方法
+    public UserData() {}
+
+    public UserData(int userId, String dataType, String... fields) {
+        this.userId = userId;
+        this.dataType = dataType;
+        for (int i = 0; i < fields.length && i < FIELD_COUNT; i++) {
+            this.fields[i] = fields[i];
+        }
+    }
+
+    // Getter 和 Setter 方法
+    public int getDataId() { return dataId; }
+    public void setDataId(int dataId) { this.dataId = dataId; }
+
+    public int getUserId() { return userId; }
+    public void setUserId(int userId) { this.userId = userId; }
+
+    public String getDataType() { return dataType; }
+    public void setDataType(String dataType) { this.dataType = dataType; }
+
+    /**
+     * 第 index 个字段，index 从 1 开始（对应 Field1-Field5）
+     */
+    public String getField(int index) { return fields[index - 1]; }
+    public void setField(int index, String value) { fields[index - 1] = value; }
+
+    public Date getCreatedTime() { return createdTime; }
+    public void setCreatedTime(Date createdTime) { this.createdTime = createdTime; }
+
+    public Date getModifiedTime() { return modifiedTime; }
+    public void setModifiedTime(Date modifiedTime) { this.modifiedTime = modifiedTime; }
+
+    @Override
+    public String toString() {
+        return String.format("数据ID: %d, 类型: %s, 字段: %s",
+                dataId, dataType, String.join(" | ", nullToEmpty(fields)));
+    }
+
+    private static String[] nullToEmpty(String[] values) {
+        String[] copy = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            copy[i] = values[i] == null ? "" : values[i];
+        }
+        return copy;
+    }
+}
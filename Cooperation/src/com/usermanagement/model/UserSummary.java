@@ -0,0 +1,39 @@
+package com.usermanagement.model;
+
+import java.util.Date;
+
+/**
+ * 用户摘要（列表视图使用），不包含密码、备注等列表中用不到的字段
+ */
+public class UserSummary {
+    private final int userId;
+    private final String username;
+    private final String userType;
+    private final String approvalStatus;
+    private final Date createdTime;
+
+    public UserSummary(int userId, String username, String userType,
+                       String approvalStatus, Date createdTime) {
+        this.userId = userId;
+        this.username = username;
+        this.userType = userType;
+        this.approvalStatus = approvalStatus;
+        this.createdTime = createdTime;
+    }
+
+    public int getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public String getUserType() { return userType; }
+    public String getApprovalStatus() { return approvalStatus; }
+    public Date getCreatedTime() { return createdTime; }
+
+    public boolean isPending() {
+        return User.STATUS_PENDING.equals(approvalStatus);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("用户ID: %d, 用户名: %s, 类型: %s, 状态: %s",
+                userId, username, userType, approvalStatus);
+    }
+}
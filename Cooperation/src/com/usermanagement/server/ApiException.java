@@ -0,0 +1,19 @@
+package com.usermanagement.server;
+
+/**
+ * 接口请求失败，携带返回给客户端的 HTTP 状态码和错误信息
+ */
+public class ApiException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
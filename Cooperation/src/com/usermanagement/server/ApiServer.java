@@ -0,0 +1,596 @@
+package com.usermanagement.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.dao.UserDao;
+import com.usermanagement.dao.UserDaoFactory;
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
+import com.usermanagement.model.Session;
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserSummary;
+import com.usermanagement.service.AuthService;
+import com.usermanagement.service.AuthServiceImpl;
+import com.usermanagement.service.LoginThrottledException;
+import com.usermanagement.service.SessionManager;
+import com.usermanagement.util.JsonUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无界面服务模式：通过本地 HTTP/JSON 接口提供登录、注册和用户审核
+ *
+ * 基于 JDK 自带的 com.sun.net.httpserver，每个请求在独立的虚拟线程上处理（JDK 21 及以上），
+ * 更早的 JDK 退回固定大小的线程池。请求线程可以放心阻塞：真正稀缺的资源由连接池和
+ * 哈希线程池限流，过载时接口返回 503。
+ *
+ * 除登录、注册外的接口需要在请求头中携带登录返回的令牌：Authorization: Bearer &lt;token&gt;
+ *
+ * <pre>
+ * POST   /api/login            {"username","password","userType"}        登录，返回令牌
+ * POST   /api/logout                                                     注销当前会话
+ * POST   /api/register         {"username","password","confirmPassword","userType","remark"}
+ * GET    /api/me                                                         当前用户信息
+ * GET    /api/users?cursor=&amp;size=                                        用户列表（管理员）
+ * GET    /api/users/pending?cursor=&amp;size=                                待审核用户（管理员）
+ * GET    /api/users/{id}                                                 用户详情（管理员或本人）
+ * POST   /api/users/approve    {"userIds":[...],"status":"已通过"}        批量审核（管理员）
+ * DELETE /api/users/{id}                                                 删除用户（管理员）
+ * GET    /api/health                                                     健康检查
+ * GET    /api/metrics?format=json                                        运行指标（默认 Prometheus 文本格式）
+ * </pre>
+ */
+public class ApiServer {
+    private static final String API_PREFIX = "/api";
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final String METRICS_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final int maxBodyBytes;
+    private final AuthService authService;
+    private final UserDao userDao;
+    private final MetricsRegistry metrics;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * @param threads 不支持虚拟线程时请求线程池的大小
+     */
+    public ApiServer(String host, int port, int backlog, int threads, int maxBodyBytes) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(host, port), backlog);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newPlatformThreadExecutor(threads);
+        this.maxBodyBytes = maxBodyBytes;
+        this.authService = new AuthServiceImpl();
+        this.userDao = UserDaoFactory.getUserDao();
+        this.metrics = MetricsRegistry.getInstance();
+        metrics.counter("api_requests_total", "服务模式处理的请求数", requests::sum);
+        metrics.counter("api_errors_total", "服务模式返回错误的请求数", errors::sum);
+
+        server.createContext(API_PREFIX, this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * 按 config.properties 中的 server.* 配置创建
+     */
+    public static ApiServer fromConfig() throws IOException {
+        return new ApiServer(
+                DatabaseConfig.getString("server.host", "127.0.0.1"),
+                DatabaseConfig.getInt("server.port", 8080),
+                DatabaseConfig.getInt("server.backlog", 0),
+                DatabaseConfig.getInt("server.threads", 64),
+                DatabaseConfig.getInt("server.maxBodyBytes", 65536));
+    }
+
+    /**
+     * JDK 21 起有 Executors.newVirtualThreadPerTaskExecutor()，通过反射调用以兼容更早的 JDK
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "api-worker-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("服务模式已启动: http://" + getAddress().getHostString() + ":" + getAddress().getPort()
+                + API_PREFIX + (virtualThreads ? "（虚拟线程）" : "（线程池）"));
+    }
+
+    /**
+     * 停止接收新请求，最多等待 delaySeconds 秒让处理中的请求完成
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        stopped.countDown();
+        System.out.println("服务模式已停止");
+    }
+
+    /**
+     * 阻塞直到服务停止；进程收到终止信号时先停止服务，并等待调用线程完成收尾工作
+     */
+    public void awaitShutdown() throws InterruptedException {
+        Thread caller = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stop(1);
+            try {
+                caller.join(10_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "api-server-shutdown"));
+        stopped.await();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    // ==================== 请求分发 ====================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try {
+            Object result = dispatch(exchange);
+            if (result == null) {
+                send(exchange, 204, null);
+            } else if (result instanceof Created) {
+                send(exchange, 201, ((Created) result).body);
+            } else if (result instanceof MetricsText) {
+                sendText(exchange, METRICS_TYPE, ((MetricsText) result).text);
+            } else {
+                send(exchange, 200, result);
+            }
+        } catch (ApiException e) {
+            sendError(exchange, e.getStatus(), e.getMessage());
+        } catch (LoginThrottledException e) {
+            long seconds = Math.max(1L, (e.getRetryAfterMillis() + 999L) / 1000L);
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(seconds));
+            sendError(exchange, 429, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            sendError(exchange, 503, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("处理请求失败 " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI().getPath() + ": " + e);
+            sendError(exchange, 500, "服务器内部错误");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Object dispatch(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/") && path.length() > 1) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        switch (path) {
+            case API_PREFIX + "/health":
+                requireMethod(method, "GET");
+                return health();
+            case API_PREFIX + "/metrics":
+                requireMethod(method, "GET");
+                return metrics(exchange);
+            case API_PREFIX + "/login":
+                requireMethod(method, "POST");
+                return login(exchange, readJson(exchange));
+            case API_PREFIX + "/logout":
+                requireMethod(method, "POST");
+                return logout(exchange);
+            case API_PREFIX + "/register":
+                requireMethod(method, "POST");
+                return register(readJson(exchange));
+            case API_PREFIX + "/me":
+                requireMethod(method, "GET");
+                Session session = requireSession(exchange);
+                return getUser(session, session.getUserId());
+            case API_PREFIX + "/users":
+                requireMethod(method, "GET");
+                requireAdmin(exchange);
+                return listUsers(exchange, false);
+            case API_PREFIX + "/users/pending":
+                requireMethod(method, "GET");
+                requireAdmin(exchange);
+                return listUsers(exchange, true);
+            case API_PREFIX + "/users/approve":
+                requireMethod(method, "POST");
+                requireAdmin(exchange);
+                return approve(readJson(exchange));
+            default:
+                break;
+        }
+
+        String usersPrefix = API_PREFIX + "/users/";
+        if (path.startsWith(usersPrefix)) {
+            int userId = parseId(path.substring(usersPrefix.length()));
+            if ("GET".equals(method)) {
+                return getUser(requireSession(exchange), userId);
+            }
+            if ("DELETE".equals(method)) {
+                return deleteUser(requireAdmin(exchange), userId);
+            }
+            throw new ApiException(405, "不支持的请求方法: " + method);
+        }
+
+        throw new ApiException(404, "接口不存在: " + path);
+    }
+
+    // ==================== 接口实现 ====================
+
+    /**
+     * 运行指标，与健康检查一样不需要登录（服务默认只监听本机地址）
+     */
+    private Object metrics(HttpExchange exchange) {
+        if (!metrics.isEnabled()) {
+            throw new ApiException(404, "指标未启用（metrics.enabled=false）");
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        if ("json".equals(query.get("format"))) {
+            return metrics.snapshot();
+        }
+        return new MetricsText(metrics.scrape());
+    }
+
+    private Map<String, Object> health() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "ok");
+        body.put("virtualThreads", virtualThreads);
+        body.put("requests", requests.sum());
+        body.put("errors", errors.sum());
+        return body;
+    }
+
+    private Map<String, Object> login(HttpExchange exchange, Map<String, Object> body) {
+        String username = requireString(body, "username");
+        String password = requireString(body, "password");
+        String userType = requireString(body, "userType");
+
+        // 按客户端地址限流
+        String source = exchange.getRemoteAddress().getAddress().getHostAddress();
+        User user = authService.login(username, password, userType, source);
+        if (user == null) {
+            throw new ApiException(401, "用户名或密码错误，或账号尚未通过审核");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("token", authService.createSession(user));
+        result.put("userId", user.getUserId());
+        result.put("username", user.getUsername());
+        result.put("userType", user.getUserType());
+        return result;
+    }
+
+    private Object logout(HttpExchange exchange) {
+        requireSession(exchange);
+        authService.logout(bearerToken(exchange));
+        return null;
+    }
+
+    private Object register(Map<String, Object> body) {
+        User user = new User(requireString(body, "username").trim(),
+                requireString(body, "password"),
+                requireString(body, "userType"));
+        user.setRemark(optionalString(body, "remark"));
+        if (!User.TYPE_USER1.equals(user.getUserType()) && !User.TYPE_USER2.equals(user.getUserType())) {
+            throw new ApiException(400, "用户类型只能是 " + User.TYPE_USER1 + " 或 " + User.TYPE_USER2);
+        }
+
+        String error = authService.validateRegistration(user, optionalString(body, "confirmPassword"));
+        if (error != null) {
+            throw new ApiException("用户名已存在".equals(error) ? 409 : 400, error);
+        }
+        // register 会再校验一次，并发注册同名用户时只有一个能成功
+        if (!authService.register(user, optionalString(body, "confirmPassword"))) {
+            throw new ApiException(409, "注册失败，用户名可能已被占用，请稍后重试");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("message", "注册成功！请等待管理员审核");
+        result.put("username", user.getUsername());
+        result.put("approvalStatus", User.STATUS_PENDING);
+        return new Created(result);
+    }
+
+    private Map<String, Object> getUser(Session session, int userId) {
+        if (!session.isAdmin() && session.getUserId() != userId) {
+            throw new ApiException(403, "只能查看自己的信息");
+        }
+        User user = userDao.getUserById(userId);
+        if (user == null) {
+            throw new ApiException(404, "用户不存在: " + userId);
+        }
+        return toJson(user);
+    }
+
+    private Map<String, Object> listUsers(HttpExchange exchange, boolean pendingOnly) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        PageCursor cursor = parseCursor(query.get("cursor"));
+        int size = DEFAULT_PAGE_SIZE;
+        if (query.containsKey("size")) {
+            size = Math.max(1, Math.min(MAX_PAGE_SIZE, parseInt(query.get("size"), "size")));
+        }
+
+        Page<UserSummary> page = pendingOnly
+                ? userDao.getPendingUsersPage(cursor, size)
+                : userDao.getUsersPage(cursor, size);
+
+        List<Map<String, Object>> items = new ArrayList<>(page.getItems().size());
+        for (UserSummary summary : page.getItems()) {
+            items.add(toJson(summary));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("items", items);
+        result.put("nextCursor", formatCursor(page.getNextCursor()));
+        return result;
+    }
+
+    private Map<String, Object> approve(Map<String, Object> body) {
+        String status = requireString(body, "status");
+        if (!User.STATUS_APPROVED.equals(status) && !User.STATUS_REJECTED.equals(status)) {
+            throw new ApiException(400, "审核状态只能是 " + User.STATUS_APPROVED + " 或 " + User.STATUS_REJECTED);
+        }
+        Object ids = body.get("userIds");
+        if (!(ids instanceof List) || ((List<?>) ids).isEmpty()) {
+            throw new ApiException(400, "userIds 必须是非空数组");
+        }
+        Set<Integer> userIds = new LinkedHashSet<>();
+        for (Object id : (List<?>) ids) {
+            if (!(id instanceof Long)) {
+                throw new ApiException(400, "无效的用户ID: " + id);
+            }
+            userIds.add(((Long) id).intValue());
+        }
+
+        // 只会更新仍处于待审核状态的用户，其他管理员已处理过的会被跳过
+        List<Integer> updated = userDao.updateApprovalStatus(userIds, status);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", status);
+        result.put("updated", updated);
+        return result;
+    }
+
+    private Object deleteUser(Session admin, int userId) {
+        if (admin.getUserId() == userId) {
+            throw new ApiException(400, "不能删除当前登录的管理员");
+        }
+        if (!userDao.deleteUser(userId)) {
+            throw new ApiException(404, "用户不存在或删除失败: " + userId);
+        }
+        SessionManager.getInstance().invalidateUser(userId);
+        return null;
+    }
+
+    // ==================== 认证 ====================
+
+    private String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return header.substring(7).trim();
+    }
+
+    private Session requireSession(HttpExchange exchange) {
+        Session session = authService.getSession(bearerToken(exchange));
+        if (session == null) {
+            throw new ApiException(401, "未登录或会话已过期");
+        }
+        return session;
+    }
+
+    private Session requireAdmin(HttpExchange exchange) {
+        Session session = requireSession(exchange);
+        if (!session.isAdmin()) {
+            throw new ApiException(403, "需要管理员权限");
+        }
+        return session;
+    }
+
+    private static void requireMethod(String actual, String expected) {
+        if (!expected.equals(actual)) {
+            throw new ApiException(405, "不支持的请求方法: " + actual);
+        }
+    }
+
+    // ==================== 请求解析与响应 ====================
+
+    private Map<String, Object> readJson(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                if (out.size() + n > maxBodyBytes) {
+                    throw new ApiException(413, "请求体过大");
+                }
+                out.write(buffer, 0, n);
+            }
+        }
+        return JsonUtil.parseObject(out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static String requireString(Map<String, Object> body, String name) {
+        String value = optionalString(body, name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new ApiException(400, "缺少参数: " + name);
+        }
+        return value;
+    }
+
+    private static String optionalString(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new ApiException(400, "参数 " + name + " 必须是字符串");
+        }
+        return (String) value;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static int parseId(String text) {
+        return parseInt(text, "用户ID");
+    }
+
+    private static int parseInt(String text, String name) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "无效的" + name + ": " + text);
+        }
+    }
+
+    /**
+     * 游标格式为 "创建时间毫秒数.用户ID"
+     */
+    private static PageCursor parseCursor(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        int dot = text.indexOf('.');
+        try {
+            return new PageCursor(new Date(Long.parseLong(text.substring(0, dot))),
+                    Integer.parseInt(text.substring(dot + 1)));
+        } catch (RuntimeException e) {
+            throw new ApiException(400, "无效的分页游标: " + text);
+        }
+    }
+
+    private static String formatCursor(PageCursor cursor) {
+        return cursor == null ? null : cursor.getTime().getTime() + "." + cursor.getId();
+    }
+
+    private static Map<String, Object> toJson(User user) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("userId", user.getUserId());
+        map.put("username", user.getUsername());
+        map.put("userType", user.getUserType());
+        map.put("approvalStatus", user.getApprovalStatus());
+        map.put("createdTime", user.getCreatedTime());
+        map.put("lastLoginTime", user.getLastLoginTime());
+        map.put("remark", user.getRemark());
+        return map;
+    }
+
+    private static Map<String, Object> toJson(UserSummary summary) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("userId", summary.getUserId());
+        map.put("username", summary.getUsername());
+        map.put("userType", summary.getUserType());
+        map.put("approvalStatus", summary.getApprovalStatus());
+        map.put("createdTime", summary.getCreatedTime());
+        return map;
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        errors.increment();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message);
+        send(exchange, status, body);
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = JsonUtil.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, String contentType, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * 标记以 Prometheus 文本格式返回的指标
+     */
+    private static final class MetricsText {
+        final String text;
+
+        MetricsText(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * 标记返回 201 的响应体
+     */
+    private static final class Created {
+        final Object body;
+
+        Created(Object body) {
+            this.body = body;
+        }
+    }
+
+    public String getStats() {
+        return String.format("服务模式: 请求 %d, 失败 %d, %s",
+                requests.sum(), errors.sum(), virtualThreads ? "虚拟线程" : "线程池");
+    }
+}
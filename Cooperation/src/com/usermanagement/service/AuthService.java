@@ -1,6 +1,12 @@
 package com.usermanagement.service;
 
+import com.usermanagement.model.Session;
 import com.usermanagement.model.User;
+import com.usermanagement.util.PasswordPolicy;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * 认证服务接口 - 定义了所有认证相关的方法签名
@@ -10,13 +16,42 @@ public interface AuthService {
     // 方法声明（只有签名，没有实现）
     User login(String username, String password, String userType);
 
+    // source 为请求来源（如客户端地址），用于按来源限流；失败过多时抛出 LoginThrottledException
+    User login(String username, String password, String userType, String source);
+
     boolean register(User user, String confirmPassword);
 
+    // 注册前校验（不涉及密码哈希），返回不通过的原因，通过时返回 null
+    String validateRegistration(User user, String confirmPassword);
+
+    // 异步版本：只有密码哈希在专用线程池中计算，线程池过载时 Future 以 RejectedExecutionException 失败；
+    // 之后的数据库操作在 executor 上继续执行，不传时使用 ForkJoinPool.commonPool()
+    CompletableFuture<User> loginAsync(String username, String password, String userType);
+
+    CompletableFuture<User> loginAsync(String username, String password, String userType, String source);
+
+    CompletableFuture<User> loginAsync(String username, String password, String userType, String source,
+                                       Executor executor);
+
+    CompletableFuture<Boolean> registerAsync(User user, String confirmPassword);
+
+    CompletableFuture<Boolean> registerAsync(User user, String confirmPassword, Executor executor);
+
     boolean isUsernameExists(String username);
 
     boolean validatePasswordStrength(String password);
 
+    // 返回密码违反的强度规则，符合要求时为空列表
+    List<PasswordPolicy.Rule> checkPasswordPolicy(String password);
+
     void logout();
 
+    // 会话：登录成功后创建，返回的令牌用于后续请求；令牌无效或过期时 getSession 返回 null
+    String createSession(User user);
+
+    Session getSession(String token);
+
+    void logout(String token);
+
     User getCurrentUser();
 }
\ No newline at end of file
@@ -1,24 +1,54 @@
 package com.usermanagement.service;
 
+import com.usermanagement.dao.PatchResult;
 import com.usermanagement.dao.UserDao;
-import com.usermanagement.dao.UserDaoImpl;
+import com.usermanagement.dao.UserDaoFactory;
+import com.usermanagement.metrics.Counter;
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.model.Session;
 import com.usermanagement.model.User;
+import com.usermanagement.util.PasswordPolicy;
 import com.usermanagement.util.PasswordUtil;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * 认证服务的具体实现类
  */
 public class AuthServiceImpl implements AuthService {
+    private static final String LOGIN_METRIC = "login_attempts_total";
+    private static final String LOGIN_HELP = "登录次数（按结果）";
 
     private UserDao userDao;
-    private User currentUser;
+    // 异步登录在调用方指定的线程上设置当前用户
+    private volatile User currentUser;
+    // 未启用登录限流时为 null
+    private final LoginThrottle throttle;
+
+    private final Counter loginSuccess;
+    private final Counter loginFailure;
+    private final Counter loginThrottled;
 
     public AuthServiceImpl() {
-        this.userDao = new UserDaoImpl();
+        this.userDao = UserDaoFactory.getUserDao();
+        this.throttle = LoginThrottle.getInstance();
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        this.loginSuccess = metrics.counter(LOGIN_METRIC, LOGIN_HELP, "result", "success");
+        this.loginFailure = metrics.counter(LOGIN_METRIC, LOGIN_HELP, "result", "failure");
+        this.loginThrottled = metrics.counter(LOGIN_METRIC, LOGIN_HELP, "result", "throttled");
     }
 
     @Override
     public User login(String username, String password, String userType) {
+        return login(username, password, userType, LoginThrottle.LOCAL_SOURCE);
+    }
+
+    @Override
+    public User login(String username, String password, String userType, String source) {
         // 1. 参数校验
         if (username == null || username.trim().isEmpty()) {
             throw new IllegalArgumentException("用户名不能为空");
@@ -27,51 +57,167 @@ public class AuthServiceImpl implements AuthService {
             throw new IllegalArgumentException("密码不能为空");
         }
 
-        // 2. 调用DAO层验证用户
+        // 2. 限流检查，在查询数据库和计算哈希之前
+        if (throttle != null) {
+            try {
+                throttle.checkAllowed(username, source);
+            } catch (LoginThrottledException e) {
+                loginThrottled.increment();
+                throw e;
+            }
+        }
+
+        // 3. 调用DAO层验证用户
         User user = userDao.validateLogin(username, password, userType);
 
         if (user != null) {
-            // 3. 登录成功，设置当前用户
+            // 4. 登录成功，设置当前用户
             this.currentUser = user;
+            recordLoginResult(username, source, true);
             System.out.println("用户 " + username + " 登录成功");
         } else {
+            recordLoginResult(username, source, false);
             System.out.println("用户名或密码错误");
         }
 
         return user;
     }
 
+    @Override
+    public CompletableFuture<User> loginAsync(String username, String password, String userType) {
+        return loginAsync(username, password, userType, LoginThrottle.LOCAL_SOURCE);
+    }
+
+    @Override
+    public CompletableFuture<User> loginAsync(String username, String password, String userType, String source) {
+        return loginAsync(username, password, userType, source, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public CompletableFuture<User> loginAsync(String username, String password, String userType, String source,
+                                              Executor executor) {
+        // 1. 参数校验
+        if (username == null || username.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("用户名不能为空"));
+        }
+        if (password == null || password.trim().isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("密码不能为空"));
+        }
+
+        // 2. 限流检查
+        if (throttle != null) {
+            try {
+                throttle.checkAllowed(username, source);
+            } catch (LoginThrottledException e) {
+                loginThrottled.increment();
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        // 3. 在调用线程查询用户（可命中用户缓存），密码校验交给哈希线程池
+        User candidate = userDao.getUserByUsername(username);
+        if (candidate == null || !candidate.getUserType().equals(userType)) {
+            recordLoginResult(username, source, false);
+            System.out.println("用户名或密码错误");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // 哈希线程只做密码校验，记录登录（可能还要重新计算哈希并写库）回到 executor 上执行
+        return PasswordUtil.verifyAsync(password, candidate.getPassword()).thenApplyAsync(matched -> {
+            // 4. 检查密码和审核状态，通过后记录登录
+            if (!matched || !(User.TYPE_ADMIN.equals(userType) ||
+                    User.STATUS_APPROVED.equals(candidate.getApprovalStatus()))) {
+                recordLoginResult(username, source, false);
+                System.out.println("用户名或密码错误");
+                return null;
+            }
+            recordLoginResult(username, source, true);
+            userDao.recordLogin(candidate, password);
+            this.currentUser = candidate;
+            System.out.println("用户 " + username + " 登录成功");
+            return candidate;
+        }, executor);
+    }
+
+    private void recordLoginResult(String username, String source, boolean success) {
+        (success ? loginSuccess : loginFailure).increment();
+        if (throttle == null) {
+            return;
+        }
+        if (success) {
+            throttle.recordSuccess(username);
+        } else {
+            throttle.recordFailure(username, source);
+        }
+    }
+
     @Override
     public boolean register(User user, String confirmPassword) {
+        return checkRegistration(user, confirmPassword) && saveRegistration(user, null);
+    }
+
+    @Override
+    public String validateRegistration(User user, String confirmPassword) {
         // 1. 验证两次密码是否一致
-        if (!user.getPassword().equals(confirmPassword)) {
-            System.out.println("两次输入的密码不一致");
-            return false;
+        if (user.getPassword() == null || !user.getPassword().equals(confirmPassword)) {
+            return "两次输入的密码不一致";
         }
 
         // 2. 检查用户名是否已存在
         if (isUsernameExists(user.getUsername())) {
-            System.out.println("用户名已存在");
-            return false;
+            return "用户名已存在";
         }
 
         // 3. 验证密码强度
-        if (!validatePasswordStrength(user.getPassword())) {
-            System.out.println("密码强度不足，必须包含字母和数字，长度至少6位");
-            return false;
+        List<PasswordPolicy.Rule> violations = checkPasswordPolicy(user.getPassword());
+        if (!violations.isEmpty()) {
+            return "密码强度不足，还需要" + PasswordPolicy.getDefault().describe(violations);
         }
 
         // 4. 检查是否尝试注册管理员
         if (User.TYPE_ADMIN.equals(user.getUserType())) {
-            System.out.println("管理员账号无需注册，请联系系统管理员");
+            return "管理员账号无需注册，请联系系统管理员";
+        }
+
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> registerAsync(User user, String confirmPassword) {
+        return registerAsync(user, confirmPassword, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> registerAsync(User user, String confirmPassword, Executor executor) {
+        if (!checkRegistration(user, confirmPassword)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        // 密码哈希在哈希线程池中计算，写库回到 executor 上执行，不占用哈希线程
+        return PasswordUtil.hashAsync(user.getPassword())
+                .thenApplyAsync(passwordHash -> saveRegistration(user, passwordHash), executor);
+    }
+
+    /**
+     * 注册前的校验（不涉及密码哈希）
+     */
+    private boolean checkRegistration(User user, String confirmPassword) {
+        String error = validateRegistration(user, confirmPassword);
+        if (error != null) {
+            System.out.println(error);
             return false;
         }
+        return true;
+    }
 
+    /**
+     * passwordHash 为 null 时由 DAO 计算密码哈希
+     */
+    private boolean saveRegistration(User user, String passwordHash) {
         // 5. 设置默认状态为"待审核"
         user.setApprovalStatus(User.STATUS_PENDING);
 
         // 6. 保存用户到数据库
-        boolean success = userDao.addUser(user);
+        boolean success = passwordHash == null ? userDao.addUser(user) : userDao.addUser(user, passwordHash);
 
         if (success) {
             System.out.println("注册成功！请等待管理员审核");
@@ -93,6 +239,11 @@ public class AuthServiceImpl implements AuthService {
         return PasswordUtil.checkPasswordStrength(password);
     }
 
+    @Override
+    public List<PasswordPolicy.Rule> checkPasswordPolicy(String password) {
+        return PasswordPolicy.getDefault().check(password);
+    }
+
     @Override
     public void logout() {
         System.out.println("用户 " + currentUser.getUsername() + " 已退出登录");
@@ -104,6 +255,26 @@ public class AuthServiceImpl implements AuthService {
         return this.currentUser;
     }
 
+    @Override
+    public String createSession(User user) {
+        return SessionManager.getInstance().create(user);
+    }
+
+    @Override
+    public Session getSession(String token) {
+        return SessionManager.getInstance().get(token);
+    }
+
+    @Override
+    public void logout(String token) {
+        Session session = SessionManager.getInstance().get(token);
+        SessionManager.getInstance().invalidate(token);
+        if (session != null) {
+            System.out.println("用户 " + session.getUsername() + " 已退出登录");
+        }
+        this.currentUser = null;
+    }
+
     // 其他辅助方法
     public boolean changePassword(String oldPassword, String newPassword) {
         if (currentUser == null) {
@@ -118,21 +289,32 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 验证新密码强度
-        if (!validatePasswordStrength(newPassword)) {
-            System.out.println("新密码强度不足");
+        List<PasswordPolicy.Rule> violations = checkPasswordPolicy(newPassword);
+        if (!violations.isEmpty()) {
+            System.out.println("新密码强度不足，还需要" + PasswordPolicy.getDefault().describe(violations));
             return false;
         }
 
-        // 更新密码
-        currentUser.setPassword(PasswordUtil.encrypt(newPassword));
-        boolean success = userDao.updateUser(currentUser);
+        // 只更新密码列；登录之后用户被管理员修改过（行版本号不一致）时，按最新数据重试一次
+        String hashed = PasswordUtil.hash(newPassword);
+        User updated = new User(currentUser);
+        updated.setPassword(hashed);
+        PatchResult result = userDao.patchUser(updated);
+        if (result == PatchResult.CONFLICT) {
+            User latest = userDao.getUserById(currentUser.getUserId());
+            if (latest != null && currentUser.getPassword().equals(latest.getPassword())) {
+                updated = latest;
+                updated.setPassword(hashed);
+                result = userDao.patchUser(updated);
+            }
+        }
 
-        if (success) {
+        if (result == PatchResult.UPDATED) {
+            currentUser = updated;
             System.out.println("密码修改成功");
-        } else {
-            System.out.println("密码修改失败");
+            return true;
         }
-
-        return success;
+        System.out.println("密码修改失败: " + result.getDescription());
+        return false;
     }
 }
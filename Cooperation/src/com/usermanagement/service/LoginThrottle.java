@@ -0,0 +1,279 @@
+package com.usermanagement.service;
+
+import com.usermanagement.config.DatabaseConfig;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 登录限流：按用户名和来源分别统计滑动窗口内的失败次数
+ *
+ * 失败次数超过免费额度后，每次失败都要求等待一段指数增长的时间才能再次尝试；
+ * 达到锁定阈值后锁定一段时间。检查在查询数据库和计算哈希之前进行，被限流的请求不产生任何后端开销。
+ * 计数器存放在 ConcurrentHashMap 中，更新和清理都通过 compute 完成（只锁该键所在的桶），
+ * 与登录成功时的清除互不覆盖；条目数超过上限时清理空闲条目。
+ */
+public class LoginThrottle {
+    public static final String LOCAL_SOURCE = "local";
+
+    private static volatile LoginThrottle instance = null;
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private final Limiter byUsername;
+    private final Limiter bySource;
+
+    public LoginThrottle(Limiter byUsername, Limiter bySource) {
+        this.byUsername = byUsername;
+        this.bySource = bySource;
+    }
+
+    /**
+     * 获取共享的限流器；配置 login.throttle.enabled=false 时返回 null
+     */
+    public static LoginThrottle getInstance() {
+        LoginThrottle current = instance;
+        if (current == null && DatabaseConfig.getBoolean("login.throttle.enabled", true)) {
+            lock.lock();
+            try {
+                if (instance == null) {
+                    instance = new LoginThrottle(
+                            Limiter.fromConfig("login.throttle.user", 3, 10),
+                            Limiter.fromConfig("login.throttle.source", 20, 100));
+                }
+                current = instance;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 登录前检查，被限流时抛出 LoginThrottledException
+     */
+    public void checkAllowed(String username, String source) {
+        long now = System.currentTimeMillis();
+        long userWait = byUsername.remainingBlock(normalize(username), now);
+        long sourceWait = bySource.remainingBlock(normalizeSource(source), now);
+        long wait = Math.max(userWait, sourceWait);
+        if (wait > 0) {
+            throw new LoginThrottledException(
+                    "登录失败次数过多，请 " + formatWait(wait) + " 后再试", wait);
+        }
+    }
+
+    /**
+     * 记录一次登录失败（用户名不存在也计入，防止枚举用户名）
+     */
+    public void recordFailure(String username, String source) {
+        long now = System.currentTimeMillis();
+        byUsername.recordFailure(normalize(username), now);
+        bySource.recordFailure(normalizeSource(source), now);
+    }
+
+    /**
+     * 登录成功：清除该用户名的失败记录（来源的记录保留）
+     */
+    public void recordSuccess(String username) {
+        byUsername.reset(normalize(username));
+    }
+
+    public Limiter getUsernameLimiter() { return byUsername; }
+    public Limiter getSourceLimiter() { return bySource; }
+
+    public String getStats() {
+        return "登录限流: 用户名 " + byUsername.getStats() + "; 来源 " + bySource.getStats();
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizeSource(String source) {
+        return source == null || source.isEmpty() ? LOCAL_SOURCE : source;
+    }
+
+    private static String formatWait(long millis) {
+        long seconds = (millis + 999) / 1000;
+        return seconds < 60 ? seconds + " 秒" : (seconds + 59) / 60 + " 分钟";
+    }
+
+    /**
+     * 一类键（用户名或来源）的限流规则与计数器
+     */
+    public static final class Limiter {
+        private final long windowMillis;
+        private final int freeFailures;
+        private final int lockoutFailures;
+        private final long lockoutMillis;
+        private final long baseDelayMillis;
+        private final long maxDelayMillis;
+        private final int maxEntries;
+
+        private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+        private final AtomicLong lastSweep = new AtomicLong();
+        private final LongAdder blocked = new LongAdder();
+        private final LongAdder lockouts = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        public Limiter(long windowMillis, int freeFailures, int lockoutFailures, long lockoutMillis,
+                       long baseDelayMillis, long maxDelayMillis, int maxEntries) {
+            this.windowMillis = windowMillis;
+            this.freeFailures = freeFailures;
+            this.lockoutFailures = lockoutFailures;
+            this.lockoutMillis = lockoutMillis;
+            this.baseDelayMillis = baseDelayMillis;
+            this.maxDelayMillis = maxDelayMillis;
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * 按 prefix.* 配置创建，如 login.throttle.user.windowSeconds
+         */
+        static Limiter fromConfig(String prefix, int defaultFreeFailures, int defaultLockoutFailures) {
+            return new Limiter(
+                    DatabaseConfig.getLong(prefix + ".windowSeconds", 900L) * 1000L,
+                    DatabaseConfig.getInt(prefix + ".freeFailures", defaultFreeFailures),
+                    DatabaseConfig.getInt(prefix + ".lockoutFailures", defaultLockoutFailures),
+                    DatabaseConfig.getLong(prefix + ".lockoutSeconds", 900L) * 1000L,
+                    DatabaseConfig.getLong("login.throttle.baseDelayMillis", 1000L),
+                    DatabaseConfig.getLong("login.throttle.maxDelayMillis", 300000L),
+                    DatabaseConfig.getInt(prefix + ".maxEntries", 100000));
+        }
+
+        long remainingBlock(String key, long now) {
+            Counter counter = counters.get(key);
+            if (counter == null) {
+                return 0;
+            }
+            long wait = counter.blockedUntil - now;
+            if (wait > 0) {
+                blocked.increment();
+                return wait;
+            }
+            return 0;
+        }
+
+        void recordFailure(String key, long now) {
+            // 在 compute 中完成计数，不会更新到已被 reset 或 sweep 移除的计数器上
+            counters.compute(key, (k, counter) -> {
+                if (counter == null) {
+                    counter = new Counter(now);
+                }
+                double failures = counter.add(now, windowMillis);
+                long block = 0;
+                if (failures >= lockoutFailures) {
+                    block = lockoutMillis;
+                    if (counter.blockedUntil < now + block) {
+                        lockouts.increment();
+                    }
+                } else if (failures > freeFailures) {
+                    int exponent = (int) Math.min(30, Math.ceil(failures) - freeFailures - 1);
+                    block = Math.min(maxDelayMillis, baseDelayMillis << exponent);
+                }
+                counter.blockedUntil = Math.max(counter.blockedUntil, now + block);
+                return counter;
+            });
+            if (counters.size() > maxEntries) {
+                sweep(now);
+            }
+        }
+
+        void reset(String key) {
+            counters.remove(key);
+        }
+
+        /**
+         * 清理空闲条目：窗口内没有失败且未被锁定的；仍超过上限时淘汰未被锁定的任意条目
+         */
+        private void sweep(long now) {
+            long last = lastSweep.get();
+            // 条目数远超上限时立即清理，否则两次清理至少间隔 1 秒
+            if (counters.size() <= maxEntries * 2 && now - last < 1000) {
+                return;
+            }
+            if (!lastSweep.compareAndSet(last, now)) {
+                return;
+            }
+
+            // 判断和移除在同一个 computeIfPresent 中进行，期间记录的失败不会随条目一起丢失
+            for (String key : counters.keySet()) {
+                counters.computeIfPresent(key, (k, counter) -> evict(counter.isIdle(now, windowMillis), counter));
+            }
+            Iterator<String> it = counters.keySet().iterator();
+            while (counters.size() > maxEntries && it.hasNext()) {
+                counters.computeIfPresent(it.next(), (k, counter) -> evict(counter.blockedUntil <= now, counter));
+            }
+        }
+
+        private Counter evict(boolean evict, Counter counter) {
+            if (evict) {
+                evictions.increment();
+                return null;
+            }
+            return counter;
+        }
+
+        public int size() { return counters.size(); }
+        public long getBlocked() { return blocked.sum(); }
+        public long getLockouts() { return lockouts.sum(); }
+        public long getEvictions() { return evictions.sum(); }
+
+        public String getStats() {
+            return String.format("计数器 %d/%d, 拦截 %d, 锁定 %d, 清理 %d",
+                    size(), maxEntries, getBlocked(), getLockouts(), getEvictions());
+        }
+    }
+
+    /**
+     * 滑动窗口计数器：用上一个窗口的计数按剩余比例加权，近似任意时刻往前一个窗口内的失败次数
+     *
+     * 除 blockedUntil 外只在 Limiter 的 compute / computeIfPresent 中访问，由 ConcurrentHashMap 保证互斥
+     */
+    private static final class Counter {
+        private long windowStart;
+        private int current;
+        private int previous;
+        volatile long blockedUntil;
+
+        Counter(long now) {
+            this.windowStart = now;
+        }
+
+        /**
+         * 记录一次失败，返回窗口内的失败次数估计值
+         */
+        double add(long now, long windowMillis) {
+            roll(now, windowMillis);
+            current++;
+            return estimate(now, windowMillis);
+        }
+
+        private void roll(long now, long windowMillis) {
+            long elapsed = now - windowStart;
+            if (elapsed >= windowMillis * 2) {
+                previous = 0;
+                current = 0;
+                windowStart = now;
+            } else if (elapsed >= windowMillis) {
+                previous = current;
+                current = 0;
+                windowStart += windowMillis;
+            }
+        }
+
+        private double estimate(long now, long windowMillis) {
+            double weight = 1.0 - (double) (now - windowStart) / windowMillis;
+            return previous * Math.max(0, weight) + current;
+        }
+
+        boolean isIdle(long now, long windowMillis) {
+            return blockedUntil <= now && now - windowStart >= windowMillis * 2;
+        }
+    }
+}
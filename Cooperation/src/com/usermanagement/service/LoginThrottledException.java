@@ -0,0 +1,22 @@
+package com.usermanagement.service;
+
+/**
+ * 登录被限流：失败次数过多，需要等待一段时间后再试
+ */
+public class LoginThrottledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMillis;
+
+    public LoginThrottledException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * 距离可以再次尝试登录的毫秒数
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
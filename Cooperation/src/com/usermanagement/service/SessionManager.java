@@ -0,0 +1,224 @@
+package com.usermanagement.service;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.dao.SessionDao;
+import com.usermanagement.dao.SessionDaoImpl;
+import com.usermanagement.model.Session;
+import com.usermanagement.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 会话管理
+ *
+ * 登录成功后发放随机令牌，会话按令牌的 SHA-256 哈希存放在内存中的 ConcurrentHashMap，
+ * 凭令牌取会话是一次哈希计算加一次 Map 查找，不访问数据库。
+ * 会话有空闲超时和绝对有效期，后台线程定期清理过期会话。
+ * 启用 session.persistent 时会话同时写入 UserSessions 表，程序重启后可以恢复；
+ * 数据库只在创建、注销会话和清理时访问。
+ */
+public class SessionManager {
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static volatile SessionManager instance = null;
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private final long idleTimeoutMillis;
+    private final long absoluteTimeoutMillis;
+    private final SessionDao sessionDao;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // 查询时发现已过期、等待从数据库删除的会话
+    private final Queue<String> expiredTokenHashes = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService reaper;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * @param sessionDao 会话持久化，为 null 时只保存在内存中
+     */
+    public SessionManager(long idleTimeoutMillis, long absoluteTimeoutMillis, long reapIntervalMillis,
+                          SessionDao sessionDao) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.absoluteTimeoutMillis = absoluteTimeoutMillis;
+        this.sessionDao = sessionDao;
+
+        if (sessionDao != null) {
+            for (Session session : sessionDao.getActiveSessions()) {
+                sessions.put(session.getTokenHash(), session);
+            }
+        }
+
+        this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        reaper.scheduleWithFixedDelay(this::reap, reapIntervalMillis, reapIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取共享的会话管理器（按 config.properties 中的 session.* 配置创建）
+     */
+    public static SessionManager getInstance() {
+        SessionManager current = instance;
+        if (current == null) {
+            lock.lock();
+            try {
+                if (instance == null) {
+                    instance = new SessionManager(
+                            DatabaseConfig.getLong("session.idleTimeoutMinutes", 30L) * 60_000L,
+                            DatabaseConfig.getLong("session.absoluteTimeoutHours", 12L) * 3_600_000L,
+                            DatabaseConfig.getLong("session.reapIntervalSeconds", 60L) * 1000L,
+                            DatabaseConfig.getBoolean("session.persistent", false) ? new SessionDaoImpl() : null);
+                }
+                current = instance;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 为登录成功的用户创建会话，返回令牌（只有调用方持有明文令牌）
+     */
+    public String create(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        long now = System.currentTimeMillis();
+        Session session = new Session(hashToken(token), user.getUserId(), user.getUsername(),
+                user.getUserType(), now, now + absoluteTimeoutMillis);
+        sessions.put(session.getTokenHash(), session);
+        created.increment();
+
+        if (sessionDao != null) {
+            sessionDao.addSession(session);
+        }
+        return token;
+    }
+
+    /**
+     * 按令牌取会话并刷新最近访问时间；令牌无效或会话已过期时返回 null
+     */
+    public Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        String tokenHash = hashToken(token);
+        Session session = sessions.get(tokenHash);
+        if (session == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (session.isExpired(now, idleTimeoutMillis)) {
+            if (sessions.remove(tokenHash, session)) {
+                expire(session);
+            }
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    /**
+     * 注销会话
+     */
+    public void invalidate(String token) {
+        if (token == null) {
+            return;
+        }
+        String tokenHash = hashToken(token);
+        if (sessions.remove(tokenHash) != null && sessionDao != null) {
+            sessionDao.deleteSession(tokenHash);
+        }
+    }
+
+    /**
+     * 注销某个用户的全部会话（如用户被删除时）
+     */
+    public void invalidateUser(int userId) {
+        sessions.values().removeIf(session -> session.getUserId() == userId);
+        if (sessionDao != null) {
+            sessionDao.deleteSessionsByUser(userId);
+        }
+    }
+
+    /**
+     * 清理过期会话
+     */
+    void reap() {
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<Session> it = sessions.values().iterator();
+            while (it.hasNext()) {
+                Session session = it.next();
+                if (session.isExpired(now, idleTimeoutMillis)) {
+                    it.remove();
+                    expire(session);
+                }
+            }
+
+            if (sessionDao != null) {
+                String tokenHash;
+                while ((tokenHash = expiredTokenHashes.poll()) != null) {
+                    sessionDao.deleteSession(tokenHash);
+                }
+                sessionDao.deleteExpiredSessions();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("清理过期会话失败: " + e.getMessage());
+        }
+    }
+
+    private void expire(Session session) {
+        expired.increment();
+        if (sessionDao != null) {
+            expiredTokenHashes.add(session.getTokenHash());
+        }
+    }
+
+    /**
+     * 停止后台清理线程
+     */
+    public void shutdown() {
+        reaper.shutdownNow();
+    }
+
+    private static String hashToken(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JDK 不支持 SHA-256", e);
+        }
+    }
+
+    // 统计信息
+    public int size() { return sessions.size(); }
+    public long getCreated() { return created.sum(); }
+    public long getExpired() { return expired.sum(); }
+
+    public String getStats() {
+        return String.format("会话: 活跃 %d, 已创建 %d, 已过期 %d%s",
+                size(), getCreated(), getExpired(), sessionDao != null ? "（持久化）" : "");
+    }
+}
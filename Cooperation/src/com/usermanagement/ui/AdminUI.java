@@ -1,25 +1,50 @@
 package com.usermanagement.ui;
 
+import com.usermanagement.dao.AuditLogWriter;
+import com.usermanagement.dao.BatchImportResult;
+import com.usermanagement.dao.PendingIndexUserDao;
 import com.usermanagement.dao.UserDao;
-import com.usermanagement.dao.UserDaoImpl;
+import com.usermanagement.dao.UserDaoFactory;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
+import com.usermanagement.model.Session;
 import com.usermanagement.model.User;
+import com.usermanagement.model.UserSummary;
+import com.usermanagement.service.SessionManager;
 import com.usermanagement.util.ConsoleUtil;
-
+import com.usermanagement.util.DatabaseUtil;
+import com.usermanagement.util.QueryTracer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * 管理员界面类
  */
 public class AdminUI {
+    private static final int PAGE_SIZE = 20;
+
     private Scanner scanner;
-    private User currentUser;  // 当前登录的管理员
+    private final String sessionToken;
+    private Session session;  // 当前登录的管理员会话
     private UserDao userDao;
 
-    public AdminUI(User adminUser) {
+    public AdminUI(String sessionToken) {
         this.scanner = new Scanner(System.in);
-        this.currentUser = adminUser;
-        this.userDao = new UserDaoImpl();
+        this.sessionToken = sessionToken;
+        this.userDao = UserDaoFactory.getUserDao();
     }
 
     /**
@@ -28,6 +53,14 @@ public class AdminUI {
     public void show() {
         while (true) {
             try {
+                // 每次操作前按令牌取会话并检查管理员角色（只查内存，不访问数据库）
+                session = SessionManager.getInstance().get(sessionToken);
+                if (session == null || !session.isAdmin()) {
+                    System.out.println("会话已过期或无管理员权限，请重新登录");
+                    ConsoleUtil.pressAnyKeyToContinue();
+                    return;
+                }
+
                 displayAdminMenu();
                 int choice = getUserChoice();
 
@@ -50,6 +83,12 @@ public class AdminUI {
                     case 6: // 修改密码
                         handleChangePassword();
                         break;
+                    case 7: // 批量导入用户
+                        handleBatchImport();
+                        break;
+                    case 8: // 查看运行状态
+                        handleViewRuntimeStats();
+                        break;
                     case 0: // 退出登录
                         System.out.println("已退出管理员系统");
                         return;
@@ -70,7 +109,7 @@ public class AdminUI {
     private void displayAdminMenu() {
         ConsoleUtil.clearScreen();
         System.out.println("============= 管理员管理系统 =============");
-        System.out.println("当前用户: " + currentUser.getUsername());
+        System.out.println("当前用户: " + session.getUsername());
         System.out.println("========================================");
         System.out.println("1. 审批新用户");
         System.out.println("2. 添加新用户");
@@ -78,9 +117,11 @@ public class AdminUI {
         System.out.println("4. 查看所有用户");
         System.out.println("5. 查看待审核用户");
         System.out.println("6. 修改密码");
+        System.out.println("7. 批量导入用户");
+        System.out.println("8. 查看运行状态");
         System.out.println("0. 退出登录");
         System.out.println("========================================");
-        System.out.print("请选择操作 (0-6): ");
+        System.out.print("请选择操作 (0-8): ");
     }
 
     /**
@@ -90,20 +131,27 @@ public class AdminUI {
         ConsoleUtil.clearScreen();
         System.out.println("============= 用户审批 =============");
 
-        // 获取待审核用户列表
-        List<User> pendingUsers = userDao.getPendingUsers();
+        // 分页显示待审核用户列表
+        String input = browseUsers("待审核用户列表",
+                "请输入要审批的用户ID（多个ID用逗号分隔，输入 all 按条件批量审批，输入0返回）",
+                cursor -> userDao.getPendingUsersPage(cursor, PAGE_SIZE));
 
-        if (pendingUsers.isEmpty()) {
+        if (input == null) {
             System.out.println("没有待审核的用户！");
             ConsoleUtil.pressAnyKeyToContinue();
             return;
         }
 
-        // 显示待审核用户列表
-        displayUserList(pendingUsers, "待审核用户列表");
+        if ("all".equalsIgnoreCase(input)) {
+            handleApproveByFilter();
+            return;
+        }
+        if (input.contains(",") || input.contains("，")) {
+            handleApproveSelected(input);
+            return;
+        }
 
-        System.out.print("请输入要审批的用户ID (输入0返回): ");
-        int userId = getIntInput();
+        int userId = parseIntOrInvalid(input);
 
         if (userId == 0) return;
 
@@ -145,6 +193,118 @@ public class AdminUI {
         ConsoleUtil.pressAnyKeyToContinue();
     }
 
+    /**
+     * 审批选中的多个用户（一次集合式更新）
+     */
+    private void handleApproveSelected(String input) {
+        Set<Integer> userIds = new LinkedHashSet<>();
+        for (String part : input.split("[,，]")) {
+            int id = parseIntOrInvalid(part.trim());
+            if (id <= 0) {
+                System.out.println("❌ 无效的用户ID: " + part.trim());
+                ConsoleUtil.pressAnyKeyToContinue();
+                return;
+            }
+            userIds.add(id);
+        }
+
+        String status = selectApprovalStatus();
+        if (status == null) {
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        List<Integer> updated = userDao.updateApprovalStatus(userIds, status);
+        System.out.println("✅ 已将 " + updated.size() + " 个用户更新为「" + status + "」");
+        if (updated.size() < userIds.size()) {
+            System.out.println("其余 " + (userIds.size() - updated.size()) + " 个用户不存在或已审批，未做修改");
+        }
+        ConsoleUtil.pressAnyKeyToContinue();
+    }
+
+    /**
+     * 按用户类型和注册时间批量审批全部匹配的待审核用户
+     */
+    private void handleApproveByFilter() {
+        System.out.println("\n请选择用户类型:");
+        System.out.println("1. 类型1用户");
+        System.out.println("2. 类型2用户");
+        System.out.println("3. 不限类型");
+        System.out.print("请选择 (1-3): ");
+
+        String userType;
+        switch (getIntInput()) {
+            case 1:
+                userType = User.TYPE_USER1;
+                break;
+            case 2:
+                userType = User.TYPE_USER2;
+                break;
+            case 3:
+                userType = null;
+                break;
+            default:
+                System.out.println("无效的选择！");
+                ConsoleUtil.pressAnyKeyToContinue();
+                return;
+        }
+
+        System.out.print("只审批此日期之前注册的用户 (格式 yyyy-MM-dd，直接回车表示不限): ");
+        String dateInput = scanner.nextLine().trim();
+        Date createdBefore = null;
+        if (!dateInput.isEmpty()) {
+            try {
+                createdBefore = new SimpleDateFormat("yyyy-MM-dd").parse(dateInput);
+            } catch (ParseException e) {
+                System.out.println("❌ 日期格式不正确！");
+                ConsoleUtil.pressAnyKeyToContinue();
+                return;
+            }
+        }
+
+        String status = selectApprovalStatus();
+        if (status == null) {
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        System.out.print("确定将所有符合条件的待审核用户更新为「" + status + "」吗？(y/n): ");
+        String confirm = scanner.nextLine().trim().toLowerCase();
+        if (!confirm.equals("y") && !confirm.equals("yes")) {
+            System.out.println("操作已取消");
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        List<Integer> updated = userDao.updatePendingApprovalStatus(userType, createdBefore, status);
+        System.out.println("✅ 已将 " + updated.size() + " 个用户更新为「" + status + "」");
+        ConsoleUtil.pressAnyKeyToContinue();
+    }
+
+    /**
+     * 选择审批结果，取消时返回 null
+     */
+    private String selectApprovalStatus() {
+        System.out.println("\n请选择审批结果:");
+        System.out.println("1. 全部通过");
+        System.out.println("2. 全部拒绝");
+        System.out.println("3. 取消");
+        System.out.print("请选择 (1-3): ");
+
+        switch (getIntInput()) {
+            case 1:
+                return User.STATUS_APPROVED;
+            case 2:
+                return User.STATUS_REJECTED;
+            case 3:
+                System.out.println("操作已取消");
+                return null;
+            default:
+                System.out.println("无效的选择！");
+                return null;
+        }
+    }
+
     /**
      * 处理添加用户
      */
@@ -220,25 +380,27 @@ public class AdminUI {
         ConsoleUtil.clearScreen();
         System.out.println("============= 删除用户 =============");
 
-        // 获取所有用户（排除当前管理员自己）
-        List<User> allUsers = userDao.getAllUsers();
+        // 分页显示用户列表
+        String input = browseUsers("所有用户列表", "请输入要删除的用户ID (输入0返回)",
+                cursor -> userDao.getUsersPage(cursor, PAGE_SIZE));
 
-        if (allUsers.isEmpty()) {
+        if (input == null) {
             System.out.println("没有可删除的用户！");
             ConsoleUtil.pressAnyKeyToContinue();
             return;
         }
 
-        // 显示用户列表
-        displayUserList(allUsers, "所有用户列表");
-
-        System.out.print("请输入要删除的用户ID (输入0返回): ");
-        int userId = getIntInput();
+        int userId = parseIntOrInvalid(input);
+        if (userId == -1) {
+            System.out.println("请输入有效的用户ID！");
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
 
         if (userId == 0) return;
 
         // 不能删除自己
-        if (userId == currentUser.getUserId()) {
+        if (userId == session.getUserId()) {
             System.out.println("❌ 不能删除自己的账号！");
             ConsoleUtil.pressAnyKeyToContinue();
             return;
@@ -250,6 +412,7 @@ public class AdminUI {
 
         if (confirm.equals("y") || confirm.equals("yes")) {
             if (userDao.deleteUser(userId)) {
+                SessionManager.getInstance().invalidateUser(userId);
                 System.out.println("✅ 用户删除成功！");
             } else {
                 System.out.println("❌ 用户删除失败！");
@@ -268,16 +431,12 @@ public class AdminUI {
         ConsoleUtil.clearScreen();
         System.out.println("============= 用户列表 =============");
 
-        // 获取所有用户
-        List<User> allUsers = userDao.getAllUsers();
-
-        if (allUsers.isEmpty()) {
+        // 分页获取所有用户
+        if (browseUsers("所有用户信息", "按回车键返回",
+                cursor -> userDao.getUsersPage(cursor, PAGE_SIZE)) == null) {
             System.out.println("暂无用户数据！");
-        } else {
-            displayUserList(allUsers, "所有用户信息");
+            ConsoleUtil.pressAnyKeyToContinue();
         }
-
-        ConsoleUtil.pressAnyKeyToContinue();
     }
 
     /**
@@ -287,16 +446,28 @@ public class AdminUI {
         ConsoleUtil.clearScreen();
         System.out.println("============= 待审核用户 =============");
 
-        // 获取待审核用户
-        List<User> pendingUsers = userDao.getPendingUsers();
+        // 启用待审核队列时可以按类型查看，数量和分页都直接从内存读取
+        PendingIndexUserDao pendingIndex = UserDaoFactory.getPendingIndex();
+        String userType = null;
+        if (pendingIndex != null && pendingIndex.getPendingCount(null) >= 0) {
+            System.out.println("待审核用户共 " + pendingIndex.getPendingCount(null) + " 个（"
+                    + User.TYPE_USER1 + " " + pendingIndex.getPendingCount(User.TYPE_USER1) + " 个，"
+                    + User.TYPE_USER2 + " " + pendingIndex.getPendingCount(User.TYPE_USER2) + " 个）");
+            System.out.println("1. 全部  2. 只看类型1  3. 只看类型2");
+            System.out.print("请选择 (直接回车查看全部): ");
+            String choice = scanner.nextLine().trim();
+            userType = "2".equals(choice) ? User.TYPE_USER1 : "3".equals(choice) ? User.TYPE_USER2 : null;
+        }
 
-        if (pendingUsers.isEmpty()) {
+        // 分页获取待审核用户
+        String filterType = userType;
+        if (browseUsers("待审核用户列表", "按回车键返回",
+                cursor -> pendingIndex != null
+                        ? pendingIndex.getPendingUsersPage(filterType, cursor, PAGE_SIZE)
+                        : userDao.getPendingUsersPage(cursor, PAGE_SIZE)) == null) {
             System.out.println("暂无待审核用户！");
-        } else {
-            displayUserList(pendingUsers, "待审核用户列表");
+            ConsoleUtil.pressAnyKeyToContinue();
         }
-
-        ConsoleUtil.pressAnyKeyToContinue();
     }
 
     /**
@@ -328,14 +499,165 @@ public class AdminUI {
     }
 
     /**
-     * 显示用户列表
+     * 处理批量导入用户
+     * 文件为UTF-8编码的CSV，每行格式：用户名,密码,用户类型（类型1/类型2），导入的用户直接通过审核
+     */
+    private void handleBatchImport() {
+        ConsoleUtil.clearScreen();
+        System.out.println("============= 批量导入用户 =============");
+        System.out.println("文件格式：每行 用户名,密码,用户类型（类型1/类型2）");
+
+        System.out.print("请输入CSV文件路径 (输入0返回): ");
+        String pathInput = scanner.nextLine().trim();
+        if (pathInput.equals("0")) return;
+
+        Path path = Paths.get(pathInput);
+        if (!Files.isReadable(path)) {
+            System.out.println("❌ 文件不存在或无法读取！");
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        BatchImportResult result;
+        try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+            Stream<User> users = lines
+                    .filter(line -> !line.trim().isEmpty())
+                    .map(this::parseImportLine);
+            result = userDao.addUsers(users::iterator);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("❌ 读取文件失败: " + e.getMessage());
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        System.out.println("✅ " + result);
+        List<BatchImportResult.Failure> failures = result.getFailures();
+        int shown = Math.min(failures.size(), PAGE_SIZE);
+        for (int i = 0; i < shown; i++) {
+            System.out.println("  " + failures.get(i));
+        }
+        if (failures.size() > shown) {
+            System.out.println("  ……其余 " + (failures.size() - shown) + " 条失败记录未显示");
+        }
+
+        ConsoleUtil.pressAnyKeyToContinue();
+    }
+
+    /**
+     * 查看运行状态：连接池、用户缓存、操作日志写入、SQL 语句统计和最近的慢查询
+     */
+    private void handleViewRuntimeStats() {
+        ConsoleUtil.clearScreen();
+        System.out.println("============= 运行状态 =============");
+        System.out.println(DatabaseUtil.getPoolStats());
+        System.out.println(UserDaoFactory.getCacheStats());
+        PendingIndexUserDao pendingIndex = UserDaoFactory.getPendingIndex();
+        if (pendingIndex != null) {
+            System.out.println(pendingIndex.getStats());
+        }
+        AuditLogWriter auditWriter = AuditLogWriter.getInstance();
+        if (auditWriter != null) {
+            System.out.println(auditWriter.getStats());
+        }
+
+        QueryTracer tracer = QueryTracer.getInstance();
+        if (tracer == null) {
+            System.out.println("\nSQL 跟踪未启用（trace.enabled=false）");
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        List<QueryTracer.StatementStats> statements = tracer.getStatementStats();
+        System.out.println("\n--- SQL 语句统计（按总耗时排序，单位 ms）---");
+        if (statements.isEmpty()) {
+            System.out.println("暂无数据");
+        }
+        int shown = Math.min(statements.size(), PAGE_SIZE);
+        for (int i = 0; i < shown; i++) {
+            QueryTracer.StatementStats stats = statements.get(i);
+            System.out.printf("%d. 次数 %d, 总计 %.1f, 平均 %.2f, p50 %.2f, p99 %.2f, 最大 %.2f, 读取 %.1f, 行数 %d, 失败 %d%n",
+                    i + 1, stats.getCount(), stats.getTotalMillis(), stats.getMeanMillis(),
+                    stats.getPercentileMillis(50), stats.getPercentileMillis(99), stats.getMaxMillis(),
+                    stats.getFetchNanos() / 1e6, stats.getRows(), stats.getErrors());
+            System.out.println("   " + stats.getSql() + "  参数 " + stats.getLastParameters());
+        }
+        if (statements.size() > shown) {
+            System.out.println("……其余 " + (statements.size() - shown) + " 条语句未显示");
+        }
+
+        List<QueryTracer.SlowQuery> slowQueries = tracer.getRecentSlowQueries();
+        System.out.println("\n--- 最近的慢查询（超过 " + tracer.getSlowQueryMillis() + " ms）---");
+        if (slowQueries.isEmpty()) {
+            System.out.println("暂无慢查询");
+        }
+        for (int i = 0; i < Math.min(slowQueries.size(), PAGE_SIZE); i++) {
+            System.out.println(slowQueries.get(i));
+        }
+
+        System.out.print("\n输入 reset 清空语句统计，直接回车返回: ");
+        if ("reset".equalsIgnoreCase(scanner.nextLine().trim())) {
+            tracer.reset();
+            System.out.println("✅ 语句统计已清空");
+            ConsoleUtil.pressAnyKeyToContinue();
+        }
+    }
+
+    /**
+     * 解析导入文件中的一行，格式错误的行保留为缺少字段的用户，由导入过程记录为失败
      */
-    private void displayUserList(List<User> users, String title) {
+    private User parseImportLine(String line) {
+        String[] fields = line.split(",", -1);
+        String username = fields[0].trim();
+        String password = fields.length > 1 ? fields[1].trim() : null;
+        String userType = fields.length > 2 ? fields[2].trim() : null;
+        if (!User.TYPE_USER1.equals(userType) && !User.TYPE_USER2.equals(userType)) {
+            userType = null;
+        }
+
+        User user = new User(username, password, userType);
+        user.setApprovalStatus(User.STATUS_APPROVED); // 管理员导入的用户默认通过
+        return user;
+    }
+
+    /**
+     * 分页浏览用户摘要，每次只加载一页
+     * 输入 n 翻到下一页，其他输入作为结果返回；没有任何用户时返回 null
+     */
+    private String browseUsers(String title, String prompt,
+                               Function<PageCursor, Page<UserSummary>> pageLoader) {
+        PageCursor cursor = null;
+        int pageNo = 1;
+
+        while (true) {
+            Page<UserSummary> page = pageLoader.apply(cursor);
+            if (page.isEmpty() && pageNo == 1) {
+                return null;
+            }
+
+            printUserRows(page.getItems(), title + "（第 " + pageNo + " 页）");
+            System.out.println("本页 " + page.getItems().size() + " 个用户"
+                    + (page.hasNext() ? "，输入 n 查看下一页" : "，已是最后一页"));
+            System.out.print(prompt + ": ");
+
+            String input = scanner.nextLine().trim();
+            if (page.hasNext() && "n".equalsIgnoreCase(input)) {
+                cursor = page.getNextCursor();
+                pageNo++;
+                continue;
+            }
+            return input;
+        }
+    }
+
+    /**
+     * 打印用户表格
+     */
+    private void printUserRows(List<UserSummary> users, String title) {
         System.out.println("=== " + title + " ===");
         System.out.println("ID\t用户名\t\t类型\t状态\t创建时间");
         System.out.println("----------------------------------------------------");
 
-        for (User user : users) {
+        for (UserSummary user : users) {
             System.out.printf("%d\t%-12s\t%s\t%s\t%s\n",
                     user.getUserId(),
                     user.getUsername(),
@@ -344,15 +666,20 @@ public class AdminUI {
                     user.getCreatedTime());
         }
         System.out.println("----------------------------------------------------");
-        System.out.println("共 " + users.size() + " 个用户");
     }
 
     /**
      * 获取用户输入的数字
      */
     private int getIntInput() {
+        return parseIntOrInvalid(scanner.nextLine().trim());
+    }
+
+    /**
+     * 解析数字输入
+     */
+    private int parseIntOrInvalid(String input) {
         try {
-            String input = scanner.nextLine().trim();
             return Integer.parseInt(input);
         } catch (NumberFormatException e) {
             return -1; // 表示无效输入
@@ -1,5 +1,6 @@
 package com.usermanagement.ui;
 
+import com.usermanagement.model.Session;
 import com.usermanagement.model.User;
 import com.usermanagement.service.AuthService;
 import com.usermanagement.service.AuthServiceImpl;
@@ -132,17 +133,24 @@ public class LoginUI {
     }
 
     /**
-     * 跳转到用户界面
+     * 创建会话并跳转到用户界面，界面退出后注销会话
      */
     private void redirectToUserInterface() {
-        if (currentUser.isAdmin()) {
-            // 跳转到管理员界面
-            AdminUI adminUI = new AdminUI(currentUser);
-            adminUI.show();
-        } else {
-            // 跳转到普通用户界面
-            UserUI userUI = new UserUI(currentUser);
-            userUI.show();
+        String token = authService.createSession(currentUser);
+        try {
+            Session session = authService.getSession(token);
+            if (session.isAdmin()) {
+                // 跳转到管理员界面
+                AdminUI adminUI = new AdminUI(token);
+                adminUI.show();
+            } else {
+                // 跳转到普通用户界面
+                UserUI userUI = new UserUI(token);
+                userUI.show();
+            }
+        } finally {
+            authService.logout(token);
+            currentUser = null;
         }
     }
 
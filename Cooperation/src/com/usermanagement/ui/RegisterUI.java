@@ -4,7 +4,9 @@ import com.usermanagement.model.User;
 import com.usermanagement.service.AuthService;
 import com.usermanagement.service.AuthServiceImpl;
 import com.usermanagement.util.ConsoleUtil;
+import com.usermanagement.util.PasswordPolicy;
 
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -86,12 +88,14 @@ public class RegisterUI {
         }
 
         // 输入密码
-        System.out.print("请输入密码 (至少6位，包含字母和数字): ");
+        PasswordPolicy policy = PasswordPolicy.getDefault();
+        System.out.print("请输入密码 (" + policy.getRequirements() + "): ");
         String password = scanner.nextLine().trim();
 
         // 验证密码强度
-        if (!authService.validatePasswordStrength(password)) {
-            System.out.println("❌ 密码强度不足！要求：至少6位，包含字母和数字");
+        List<PasswordPolicy.Rule> violations = authService.checkPasswordPolicy(password);
+        if (!violations.isEmpty()) {
+            System.out.println("❌ 密码强度不足！还需要：" + policy.describe(violations));
             ConsoleUtil.pressAnyKeyToContinue();
             return;
         }
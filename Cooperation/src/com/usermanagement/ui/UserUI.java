@@ -1,20 +1,46 @@
 package com.usermanagement.ui;
 
+import com.usermanagement.dao.UserDao;
+import com.usermanagement.dao.UserDaoFactory;
+import com.usermanagement.dao.UserDataDao;
+import com.usermanagement.dao.UserDataDaoImpl;
+import com.usermanagement.model.Page;
+import com.usermanagement.model.PageCursor;
+import com.usermanagement.model.Session;
 import com.usermanagement.model.User;
+import com.usermanagement.model.UserData;
+import com.usermanagement.service.SessionManager;
 import com.usermanagement.util.ConsoleUtil;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 /**
  * 普通用户界面
  */
 public class UserUI {
+    private static final int PAGE_SIZE = 20;
+
     private Scanner scanner;
-    private User currentUser;
+    private final String sessionToken;
+    private Session session;  // 当前登录用户的会话
+    private UserDao userDao;
+    private UserDataDao userDataDao;
 
-    public UserUI(User currentUser) {
+    public UserUI(String sessionToken) {
         this.scanner = new Scanner(System.in);
-        this.currentUser = currentUser;
+        this.sessionToken = sessionToken;
+        this.userDao = UserDaoFactory.getUserDao();
+        this.userDataDao = new UserDataDaoImpl();
     }
 
     /**
@@ -23,6 +49,13 @@ public class UserUI {
     public void show() {
         while (true) {
             try {
+                session = SessionManager.getInstance().get(sessionToken);
+                if (session == null) {
+                    System.out.println("会话已过期，请重新登录");
+                    ConsoleUtil.pressAnyKeyToContinue();
+                    return;
+                }
+
                 displayUserMenu();
                 int choice = getUserChoice();
 
@@ -56,8 +89,8 @@ public class UserUI {
     private void displayUserMenu() {
         ConsoleUtil.clearScreen();
         System.out.println("============= 用户管理系统 =============");
-        System.out.println("当前用户: " + currentUser.getUsername());
-        System.out.println("用户类型: " + currentUser.getUserType());
+        System.out.println("当前用户: " + session.getUsername());
+        System.out.println("用户类型: " + session.getUserType());
         System.out.println("========================================");
         System.out.println("1. 数据管理");
         System.out.println("2. 个人信息");
@@ -69,20 +102,415 @@ public class UserUI {
 
     /**
      * 处理数据管理
+     * 数据按页读取，导入和导出逐行流式处理，任何操作都不会把用户的全部数据读入内存
      */
     private void handleDataManagement() {
+        while (true) {
+            ConsoleUtil.clearScreen();
+            System.out.println("============= 数据管理 =============");
+            int total = userDataDao.countData(session.getUserId(), null);
+            if (total >= 0) {
+                System.out.println("共有 " + total + " 条数据");
+            }
+            System.out.println("====================================");
+            System.out.println("1. 浏览数据");
+            System.out.println("2. 新增数据");
+            System.out.println("3. 修改数据");
+            System.out.println("4. 删除数据");
+            System.out.println("5. 批量导入数据");
+            System.out.println("6. 导出数据");
+            System.out.println("0. 返回");
+            System.out.println("====================================");
+            System.out.print("请选择操作 (0-6): ");
+
+            switch (getUserChoice()) {
+                case 1:
+                    handleBrowseData();
+                    break;
+                case 2:
+                    handleAddData();
+                    break;
+                case 3:
+                    handleUpdateData();
+                    break;
+                case 4:
+                    handleDeleteData();
+                    break;
+                case 5:
+                    handleImportData();
+                    break;
+                case 6:
+                    handleExportData();
+                    break;
+                case 0:
+                    return;
+                default:
+                    System.out.println("无效的选择，请重新输入！");
+                    ConsoleUtil.pressAnyKeyToContinue();
+            }
+        }
+    }
+
+    /**
+     * 浏览数据，可按类型筛选
+     */
+    private void handleBrowseData() {
+        ConsoleUtil.clearScreen();
+        System.out.println("============= 浏览数据 =============");
+        String dataType = chooseDataType();
+        String input = browseData("数据列表", "直接回车返回", dataType);
+        if (input == null) {
+            System.out.println("暂无数据！");
+            ConsoleUtil.pressAnyKeyToContinue();
+        }
+    }
+
+    /**
+     * 新增一条数据
+     */
+    private void handleAddData() {
+        ConsoleUtil.clearScreen();
+        System.out.println("============= 新增数据 =============");
+        System.out.print("请输入数据类型 (输入0返回): ");
+        String dataType = scanner.nextLine().trim();
+        if (dataType.equals("0")) return;
+
+        UserData data = new UserData(session.getUserId(), dataType);
+        for (int i = 1; i <= UserData.FIELD_COUNT; i++) {
+            System.out.print("字段" + i + " (可为空): ");
+            String value = scanner.nextLine().trim();
+            data.setField(i, value.isEmpty() ? null : value);
+        }
+
+        String problem = validateData(data);
+        if (problem != null) {
+            System.out.println("❌ " + problem);
+        } else if (userDataDao.addData(data)) {
+            System.out.println("✅ 数据已添加，数据ID: " + data.getDataId());
+        } else {
+            System.out.println("❌ 添加数据失败！");
+        }
+        ConsoleUtil.pressAnyKeyToContinue();
+    }
+
+    /**
+     * 修改一条数据，直接回车保持原值
+     */
+    private void handleUpdateData() {
+        ConsoleUtil.clearScreen();
+        String input = browseData("我的数据", "请输入要修改的数据ID (输入0返回)", null);
+        if (input == null) {
+            System.out.println("暂无数据！");
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        int dataId = parseIntOrInvalid(input);
+        if (dataId == 0) return;
+        UserData data = dataId > 0 ? userDataDao.getData(session.getUserId(), dataId) : null;
+        if (data == null) {
+            System.out.println("数据不存在！");
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        System.out.println("\n直接回车保持原值，输入 - 清空字段");
+        System.out.print("数据类型 [" + data.getDataType() + "]: ");
+        String dataType = scanner.nextLine().trim();
+        if (!dataType.isEmpty()) {
+            data.setDataType(dataType);
+        }
+        for (int i = 1; i <= UserData.FIELD_COUNT; i++) {
+            String current = data.getField(i);
+            System.out.print("字段" + i + " [" + (current == null ? "" : current) + "]: ");
+            String value = scanner.nextLine().trim();
+            if (value.equals("-")) {
+                data.setField(i, null);
+            } else if (!value.isEmpty()) {
+                data.setField(i, value);
+            }
+        }
+
+        String problem = validateData(data);
+        if (problem != null) {
+            System.out.println("❌ " + problem);
+        } else if (userDataDao.updateData(data)) {
+            System.out.println("✅ 数据已更新！");
+        } else {
+            System.out.println("❌ 更新数据失败！");
+        }
+        ConsoleUtil.pressAnyKeyToContinue();
+    }
+
+    /**
+     * 删除一条数据
+     */
+    private void handleDeleteData() {
         ConsoleUtil.clearScreen();
-        System.out.println("============= 数据管理 =============");
-        System.out.println("数据管理功能开发中...");
+        String input = browseData("我的数据", "请输入要删除的数据ID (输入0返回)", null);
+        if (input == null) {
+            System.out.println("暂无数据！");
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        int dataId = parseIntOrInvalid(input);
+        if (dataId == 0) return;
+        if (dataId == -1) {
+            System.out.println("请输入有效的数据ID！");
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        System.out.print("确定要删除这条数据吗？(y/n): ");
+        String confirm = scanner.nextLine().trim().toLowerCase();
+        if (confirm.equals("y") || confirm.equals("yes")) {
+            if (userDataDao.deleteData(session.getUserId(), dataId)) {
+                System.out.println("✅ 数据已删除！");
+            } else {
+                System.out.println("❌ 数据不存在或删除失败！");
+            }
+        } else {
+            System.out.println("删除操作已取消");
+        }
         ConsoleUtil.pressAnyKeyToContinue();
     }
 
+    /**
+     * 批量导入数据
+     * 文件为UTF-8编码的CSV，每行格式：数据类型,字段1,字段2,字段3,字段4,字段5（字段可省略）；
+     * 文件逐行读取、分块写入，整个文件在一个事务中导入，有一行格式错误则全部不导入
+     */
+    private void handleImportData() {
+        ConsoleUtil.clearScreen();
+        System.out.println("============= 批量导入数据 =============");
+        System.out.println("文件格式：每行 数据类型,字段1,字段2,字段3,字段4,字段5");
+
+        System.out.print("请输入CSV文件路径 (输入0返回): ");
+        String pathInput = scanner.nextLine().trim();
+        if (pathInput.equals("0")) return;
+
+        Path path = Paths.get(pathInput);
+        if (!Files.isReadable(path)) {
+            System.out.println("❌ 文件不存在或无法读取！");
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        int added;
+        int[] lineNo = {0};
+        try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+            Stream<UserData> items = lines
+                    .peek(line -> lineNo[0]++)
+                    .filter(line -> !line.trim().isEmpty())
+                    .map(line -> parseDataLine(line, lineNo[0]));
+            added = userDataDao.addData(items::iterator);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("❌ 导入失败: " + e.getMessage());
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        if (added >= 0) {
+            System.out.println("✅ 已导入 " + added + " 条数据");
+        } else {
+            System.out.println("❌ 导入失败，数据未做任何修改！");
+        }
+        ConsoleUtil.pressAnyKeyToContinue();
+    }
+
+    /**
+     * 导出数据到CSV文件，格式与导入文件相同
+     */
+    private void handleExportData() {
+        ConsoleUtil.clearScreen();
+        System.out.println("============= 导出数据 =============");
+        String dataType = chooseDataType();
+
+        System.out.print("请输入导出文件路径 (输入0返回): ");
+        String pathInput = scanner.nextLine().trim();
+        if (pathInput.equals("0") || pathInput.isEmpty()) return;
+
+        int exported = 0;
+        try (Stream<UserData> items = userDataDao.streamData(session.getUserId(), dataType);
+             BufferedWriter writer = Files.newBufferedWriter(Paths.get(pathInput), StandardCharsets.UTF_8)) {
+            Iterator<UserData> it = items.iterator();
+            while (it.hasNext()) {
+                writer.write(formatDataLine(it.next()));
+                writer.newLine();
+                exported++;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("❌ 导出失败: " + e.getMessage());
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
+
+        System.out.println("✅ 已导出 " + exported + " 条数据到 " + pathInput);
+        ConsoleUtil.pressAnyKeyToContinue();
+    }
+
+    /**
+     * 列出已有的数据类型供选择，返回 null 表示全部类型
+     */
+    private String chooseDataType() {
+        List<String> types = userDataDao.getDataTypes(session.getUserId());
+        if (types.isEmpty()) {
+            return null;
+        }
+        System.out.println("数据类型:");
+        for (int i = 0; i < types.size(); i++) {
+            System.out.println((i + 1) + ". " + types.get(i));
+        }
+        System.out.print("请选择数据类型编号（直接回车表示全部）: ");
+        int choice = parseIntOrInvalid(scanner.nextLine().trim());
+        return choice >= 1 && choice <= types.size() ? types.get(choice - 1) : null;
+    }
+
+    /**
+     * 分页浏览数据：每次只读取一页，输入 n 查看下一页，其他输入原样返回；没有数据时返回 null
+     */
+    private String browseData(String title, String prompt, String dataType) {
+        PageCursor cursor = null;
+        int pageNo = 1;
+
+        while (true) {
+            Page<UserData> page = userDataDao.getDataPage(session.getUserId(), dataType, cursor, PAGE_SIZE);
+            if (page.isEmpty() && pageNo == 1) {
+                return null;
+            }
+
+            System.out.println("=== " + title + (dataType == null ? "" : "（" + dataType + "）")
+                    + "（第 " + pageNo + " 页）===");
+            System.out.println("ID\t类型\t\t字段\t\t\t\t\t修改时间");
+            System.out.println("----------------------------------------------------");
+            for (UserData data : page.getItems()) {
+                List<String> fields = new ArrayList<>();
+                for (int i = 1; i <= UserData.FIELD_COUNT; i++) {
+                    fields.add(data.getField(i) == null ? "" : data.getField(i));
+                }
+                System.out.printf("%d\t%-12s\t%-40s\t%s\n",
+                        data.getDataId(), data.getDataType(), String.join(" | ", fields), data.getModifiedTime());
+            }
+            System.out.println("----------------------------------------------------");
+            System.out.println("本页 " + page.getItems().size() + " 条数据"
+                    + (page.hasNext() ? "，输入 n 查看下一页" : "，已是最后一页"));
+            System.out.print(prompt + ": ");
+
+            String input = scanner.nextLine().trim();
+            if (page.hasNext() && "n".equalsIgnoreCase(input)) {
+                cursor = page.getNextCursor();
+                pageNo++;
+                continue;
+            }
+            return input;
+        }
+    }
+
+    /**
+     * 检查数据类型和字段长度，通过时返回 null，否则返回原因
+     */
+    private String validateData(UserData data) {
+        String dataType = data.getDataType();
+        if (dataType == null || dataType.isEmpty()) {
+            return "数据类型不能为空！";
+        }
+        if (dataType.length() > UserData.MAX_TYPE_LENGTH) {
+            return "数据类型不能超过 " + UserData.MAX_TYPE_LENGTH + " 个字符！";
+        }
+        for (int i = 1; i <= UserData.FIELD_COUNT; i++) {
+            String value = data.getField(i);
+            if (value != null && value.length() > UserData.MAX_FIELD_LENGTH) {
+                return "字段" + i + " 不能超过 " + UserData.MAX_FIELD_LENGTH + " 个字符！";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析导入文件中的一行，格式错误时抛出异常并中止导入
+     */
+    private UserData parseDataLine(String line, int lineNo) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() > UserData.FIELD_COUNT + 1) {
+            throw new IllegalArgumentException("第 " + lineNo + " 行字段过多");
+        }
+        UserData data = new UserData(session.getUserId(), values.get(0).trim());
+        for (int i = 1; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            data.setField(i, value.isEmpty() ? null : value);
+        }
+        String problem = validateData(data);
+        if (problem != null) {
+            throw new IllegalArgumentException("第 " + lineNo + " 行" + problem);
+        }
+        return data;
+    }
+
+    /**
+     * 拆分一行CSV，支持用双引号包含逗号和引号（引号写两次）
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    /**
+     * 把一条数据写成一行CSV，含逗号、引号或换行的值加双引号
+     */
+    private static String formatDataLine(UserData data) {
+        StringBuilder line = new StringBuilder(csvValue(data.getDataType()));
+        for (int i = 1; i <= UserData.FIELD_COUNT; i++) {
+            line.append(',').append(csvValue(data.getField(i)));
+        }
+        return line.toString();
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
     /**
      * 处理个人信息
      */
     private void handleProfile() {
         ConsoleUtil.clearScreen();
         System.out.println("============= 个人信息 =============");
+        User currentUser = userDao.getUserById(session.getUserId());
+        if (currentUser == null) {
+            System.out.println("用户不存在！");
+            ConsoleUtil.pressAnyKeyToContinue();
+            return;
+        }
         System.out.println("用户ID: " + currentUser.getUserId());
         System.out.println("用户名: " + currentUser.getUsername());
         System.out.println("用户类型: " + currentUser.getUserType());
@@ -106,8 +534,14 @@ public class UserUI {
      * 获取用户选择
      */
     private int getUserChoice() {
+        return parseIntOrInvalid(scanner.nextLine().trim());
+    }
+
+    /**
+     * 解析数字输入
+     */
+    private int parseIntOrInvalid(String input) {
         try {
-            String input = scanner.nextLine().trim();
             return Integer.parseInt(input);
         } catch (NumberFormatException e) {
             return -1; // 表示无效输入
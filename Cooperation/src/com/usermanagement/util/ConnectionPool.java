@@ -0,0 +1,431 @@
+package com.usermanagement.util;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.metrics.Timer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据库连接池
+ *
+ * 借出的连接是一个代理对象，调用 close() 时连接归还连接池而不是真正关闭。
+ * 借出时校验连接有效性，后台线程负责回收空闲连接、补足最小连接数以及检测连接泄漏。
+ *
+ * 同时使用数据库的线程数由公平信号量限制为 maxSize，等待连接的线程数可以用 maxWaiters 限制，
+ * 超出时立即失败而不是排队到超时。借出和归还的路径上不持有任何监视器锁，
+ * 虚拟线程在等待连接或执行 JDBC 调用时不会占住载体线程。
+ */
+public class ConnectionPool {
+    // 最近使用过的连接在该时间窗口内借出时跳过有效性校验
+    private static final long VALIDATION_BYPASS_MILLIS = 500L;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final long leakDetectionMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+    private final int maxWaiters;
+
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowedConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalCount = new AtomicInteger();
+    private final Semaphore permits;
+    // 为 null 表示不限制等待的线程数
+    private final Semaphore waiters;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    // 统计信息
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowWaitNanos = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final Timer borrowWaitTimer = MetricsRegistry.getInstance()
+            .timer("db_pool_borrow_wait_seconds", "借用连接的等待时间（含校验和新建连接）");
+
+    public ConnectionPool(String url, String username, String password,
+                          int minSize, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis,
+                          long leakDetectionMillis, int validationTimeoutSeconds,
+                          int statementCacheSize, int maxWaiters) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("连接池大小配置无效: minSize=" + minSize + ", maxSize=" + maxSize);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakDetectionMillis = leakDetectionMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.maxWaiters = maxWaiters;
+        this.permits = new Semaphore(maxSize, true);
+        this.waiters = maxWaiters > 0 ? new Semaphore(maxWaiters) : null;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 按 config.properties 中的 db.pool.* 配置创建连接池
+     */
+    public static ConnectionPool fromConfig() {
+        return new ConnectionPool(
+                DatabaseConfig.getUrl(),
+                DatabaseConfig.getUsername(),
+                DatabaseConfig.getPassword(),
+                DatabaseConfig.getPoolMinSize(),
+                DatabaseConfig.getPoolMaxSize(),
+                DatabaseConfig.getPoolIdleTimeoutMillis(),
+                DatabaseConfig.getPoolBorrowTimeoutMillis(),
+                DatabaseConfig.getPoolLeakDetectionMillis(),
+                DatabaseConfig.getPoolValidationTimeoutSeconds(),
+                DatabaseConfig.getStatementCacheSize(),
+                DatabaseConfig.getPoolMaxWaiters()
+        );
+    }
+
+    /**
+     * 启动连接池：预先创建最小数量的连接并启动后台维护线程
+     */
+    public void start() throws SQLException {
+        try {
+            for (int i = 0; i < minSize; i++) {
+                idleConnections.offerLast(createConnection());
+            }
+        } catch (SQLException e) {
+            shutdown();
+            throw e;
+        }
+
+        long period = Math.max(1000L, Math.min(30000L, idleTimeoutMillis / 2));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 从连接池借出连接，超过 borrowTimeoutMillis 仍无可用连接时抛出 SQLTimeoutException，
+     * 等待的线程数已达 maxWaiters 时抛出 SQLTransientConnectionException
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("连接池已关闭");
+        }
+
+        long start = System.nanoTime();
+        acquirePermit();
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idleConnections.pollFirst()) != null) {
+                if (validate(pooled)) {
+                    break;
+                }
+                destroyConnection(pooled);
+            }
+            if (pooled == null) {
+                pooled = createConnection();
+            }
+
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowSite = leakDetectionMillis > 0 ? new Throwable("连接借出位置") : null;
+            pooled.leakReported = false;
+            borrowedConnections.add(pooled);
+
+            borrowCount.increment();
+            long waited = System.nanoTime() - start;
+            borrowWaitNanos.add(waited);
+            borrowWaitTimer.record(waited);
+            return pooled.newHandle();
+
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 获取使用连接的许可，有空闲许可时不计入等待线程数
+     */
+    private void acquirePermit() throws SQLException {
+        try {
+            // 带超时的 tryAcquire 遵守公平顺序，不会插队到已在等待的线程之前
+            if (permits.tryAcquire(0L, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            if (waiters != null && !waiters.tryAcquire()) {
+                rejectedCount.increment();
+                throw new SQLTransientConnectionException("等待数据库连接的请求过多（" + maxWaiters + "），请稍后重试");
+            }
+            try {
+                if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    timeoutCount.increment();
+                    throw new SQLTimeoutException("获取数据库连接超时（" + borrowTimeoutMillis + "ms），"
+                            + "活动连接: " + borrowedConnections.size() + "/" + maxSize);
+                }
+            } finally {
+                if (waiters != null) {
+                    waiters.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("等待数据库连接时被中断", e);
+        }
+    }
+
+    /**
+     * 归还连接：重置事务状态后放回空闲队列头部，出错则直接销毁
+     */
+    private void release(PooledConnection pooled) {
+        borrowedConnections.remove(pooled);
+        try {
+            boolean healthy = !closed;
+            if (healthy) {
+                try {
+                    if (!pooled.physical.getAutoCommit()) {
+                        pooled.physical.rollback();
+                        pooled.physical.setAutoCommit(true);
+                    }
+                } catch (SQLException e) {
+                    healthy = false;
+                }
+            }
+
+            if (healthy) {
+                pooled.lastUsedAt = System.currentTimeMillis();
+                idleConnections.offerFirst(pooled);
+                // 与 shutdown() 并发时，连接可能在空闲队列被清空之后才放回
+                if (closed && idleConnections.remove(pooled)) {
+                    destroyConnection(pooled);
+                }
+            } else {
+                destroyConnection(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean validate(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastUsedAt < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, username, password);
+        totalCount.incrementAndGet();
+        createdCount.increment();
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * 关闭物理连接；同一连接只处理一次（shutdown() 关闭的借出连接在归还时会再次经过这里）
+     */
+    private void destroyConnection(PooledConnection pooled) {
+        if (!pooled.destroyed.compareAndSet(false, true)) {
+            return;
+        }
+        totalCount.decrementAndGet();
+        destroyedCount.increment();
+        if (pooled.statementCache != null) {
+            pooled.statementCache.closeAll();
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // 连接可能已经失效，忽略关闭异常
+        }
+    }
+
+    /**
+     * 后台维护：回收超时空闲连接、补足最小连接数、报告疑似泄漏的连接
+     */
+    private void housekeep() {
+        if (closed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        for (PooledConnection pooled : idleConnections) {
+            if (totalCount.get() <= minSize) {
+                break;
+            }
+            if (now - pooled.lastUsedAt > idleTimeoutMillis && idleConnections.remove(pooled)) {
+                destroyConnection(pooled);
+            }
+        }
+
+        try {
+            while (!closed && totalCount.get() < minSize) {
+                idleConnections.offerLast(createConnection());
+            }
+        } catch (SQLException e) {
+            System.err.println("补充数据库连接失败: " + e.getMessage());
+        }
+
+        if (leakDetectionMillis > 0) {
+            for (PooledConnection pooled : borrowedConnections) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > leakDetectionMillis) {
+                    pooled.leakReported = true;
+                    leakCount.increment();
+                    System.err.println("检测到可能泄漏的数据库连接，已借出 " + (now - pooled.borrowedAt) + "ms");
+                    if (pooled.borrowSite != null) {
+                        pooled.borrowSite.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 关闭连接池，关闭所有空闲连接及仍被借出的连接
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroyConnection(pooled);
+        }
+        for (PooledConnection borrowed : borrowedConnections) {
+            borrowedConnections.remove(borrowed);
+            destroyConnection(borrowed);
+        }
+    }
+
+    // 状态查询
+    public int getActiveCount() { return borrowedConnections.size(); }
+    public int getIdleCount() { return idleConnections.size(); }
+    public int getTotalCount() { return totalCount.get(); }
+    public int getWaitingCount() { return permits.getQueueLength(); }
+    public int getMaxSize() { return maxSize; }
+    public long getBorrowCount() { return borrowCount.sum(); }
+    public long getTimeoutCount() { return timeoutCount.sum(); }
+    public long getRejectedCount() { return rejectedCount.sum(); }
+    public int getStatementCacheSize() { return statementCacheSize; }
+
+    /**
+     * 连接池统计信息
+     */
+    public String getStats() {
+        long borrows = borrowCount.sum();
+        double avgWaitMicros = borrows == 0 ? 0 : borrowWaitNanos.sum() / 1000.0 / borrows;
+        return String.format("连接池: 活动 %d, 空闲 %d, 总数 %d/%d, 等待 %d, 借出 %d 次, 平均等待 %.1fμs, "
+                        + "超时 %d, 拒绝 %d, 创建 %d, 销毁 %d, 疑似泄漏 %d",
+                getActiveCount(), getIdleCount(), getTotalCount(), maxSize, getWaitingCount(),
+                borrows, avgWaitMicros, timeoutCount.sum(), rejectedCount.sum(), createdCount.sum(),
+                destroyedCount.sum(), leakCount.sum());
+    }
+
+    /**
+     * 池中的物理连接
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        final StatementCache statementCache;
+        volatile long lastUsedAt = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+        final AtomicBoolean destroyed = new AtomicBoolean();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
+        }
+
+        /**
+         * 每次借出都创建新的代理，旧代理在归还后即失效，避免重复归还
+         */
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ConnectionHandle(this));
+        }
+    }
+
+    /**
+     * 连接代理：拦截 close()/isClosed()，单参数的 prepareStatement(sql) 走语句缓存，其余调用转发给物理连接
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned = false;
+
+        ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (returned) {
+                        throw new SQLException("连接已归还连接池，不能继续使用");
+                    }
+                    if (pooled.statementCache != null && "prepareStatement".equals(method.getName())
+                            && args.length == 1) {
+                        return pooled.statementCache.prepare(pooled.physical, (String) args[0]);
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -1,117 +1,237 @@
 package com.usermanagement.util;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.ResultSet;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
 import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.metrics.MetricsRegistry;
 
 /**
  * 数据库工具类（单例模式）
+ *
+ * 连接由 ConnectionPool 统一管理，调用方使用完毕后必须 close() 以归还连接。
+ * 初始化时会建立数据库连接，因此用 ReentrantLock 而不是 synchronized 保护：
+ * 虚拟线程在 synchronized 块中阻塞会连同载体线程一起阻塞。
  */
 public class DatabaseUtil {
-    private static Connection connection = null;
-    private static final Object lock = new Object();
+    private static volatile ConnectionPool pool = null;
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    // 当前线程进行中的事务所使用的连接
+    private static final ThreadLocal<Connection> transactionConnection = new ThreadLocal<>();
 
     // 私有构造方法
     private DatabaseUtil() {}
 
     /**
-     * 初始化数据库连接
+     * 初始化数据库连接池
      */
     public static void initialize() throws SQLException {
-        synchronized (lock) {
-            if (connection == null || connection.isClosed()) {
+        lock.lock();
+        try {
+            if (pool == null) {
                 try {
                     // 加载JDBC驱动
-                    Class.forName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
+                    Class.forName(DatabaseConfig.getDriver());
+
+                    // 创建连接池
+                    ConnectionPool newPool = ConnectionPool.fromConfig();
+                    newPool.start();
+                    pool = newPool;
+                    registerPoolMetrics(newPool);
 
-                    // 创建连接
-                    connection = DriverManager.getConnection(
-                            DatabaseConfig.getUrl(),
-                            DatabaseConfig.getUsername(),
-                            DatabaseConfig.getPassword()
-                    );
+                    System.out.println("数据库连接成功！（连接池 " + DatabaseConfig.getPoolMinSize()
+                            + "-" + DatabaseConfig.getPoolMaxSize() + "）");
 
-                    System.out.println("数据库连接成功！");
+                    if (DatabaseConfig.getBoolean("db.migrate.enabled", true)) {
+                        migrate(newPool);
+                    }
 
                 } catch (ClassNotFoundException e) {
-                    throw new SQLException("SQL Server JDBC驱动未找到", e);
+                    throw new SQLException("JDBC驱动未找到: " + DatabaseConfig.getDriver(), e);
                 }
             }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 执行尚未执行的数据库迁移；迁移失败时关闭连接池，应用不在不一致的表结构上运行
+     */
+    private static void migrate(ConnectionPool newPool) throws SQLException {
+        try (Connection conn = newPool.borrow()) {
+            new MigrationRunner().migrate(conn);
+        } catch (SQLException e) {
+            pool = null;
+            newPool.shutdown();
+            throw e;
         }
     }
 
     /**
-     * 获取数据库连接
+     * 连接池仪表，连接池重建后指向新的连接池
+     */
+    private static void registerPoolMetrics(ConnectionPool newPool) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("db_pool_active_connections", "已借出的连接数", newPool::getActiveCount);
+        metrics.gauge("db_pool_idle_connections", "空闲连接数", newPool::getIdleCount);
+        metrics.gauge("db_pool_total_connections", "连接总数", newPool::getTotalCount);
+        metrics.gauge("db_pool_max_connections", "连接数上限", newPool::getMaxSize);
+        metrics.gauge("db_pool_waiting_threads", "正在等待连接的线程数", newPool::getWaitingCount);
+        metrics.counter("db_pool_borrow_timeouts_total", "借用连接超时次数", newPool::getTimeoutCount);
+        metrics.counter("db_pool_borrow_rejected_total", "等待线程已满被拒绝的次数", newPool::getRejectedCount);
+    }
+
+    /**
+     * 获取数据库连接，使用完毕后调用 close() 归还连接池
+     *
+     * 当前线程处于事务中时返回事务所用的连接，其 close() 不会归还连接，
+     * 连接在 commitTransaction()/rollbackTransaction() 时统一归还。
+     * 启用 SQL 跟踪时返回的连接由 QueryTracer 包装。
      */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
+        Connection txConnection = transactionConnection.get();
+        if (txConnection != null) {
+            return nonClosing(txConnection);
+        }
+
+        ConnectionPool current = pool;
+        if (current == null) {
             initialize();
+            current = pool;
         }
-        return connection;
+        Connection conn = current.borrow();
+        QueryTracer tracer = QueryTracer.getInstance();
+        return tracer == null ? conn : tracer.wrap(conn);
     }
 
     /**
-     * 关闭数据库连接
+     * 关闭数据库连接池
      */
     public static void close() {
-        synchronized (lock) {
-            if (connection != null) {
-                try {
-                    connection.close();
-                    System.out.println("数据库连接已关闭");
-                } catch (SQLException e) {
-                    System.err.println("关闭数据库连接时出错: " + e.getMessage());
-                }
-                connection = null;
+        lock.lock();
+        try {
+            if (pool != null) {
+                pool.shutdown();
+                System.out.println("数据库连接已关闭");
+                pool = null;
             }
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * 执行查询
+     * 连接池统计信息
+     */
+    public static String getPoolStats() {
+        ConnectionPool current = pool;
+        return current == null ? "连接池未初始化" : current.getStats() + "\n" + StatementCache.getStats();
+    }
+
+    /**
+     * 执行查询，结果离线缓存后立即归还连接
      */
     public static ResultSet executeQuery(String sql) throws SQLException {
-        Statement stmt = getConnection().createStatement();
-        return stmt.executeQuery(sql);
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+            rowSet.populate(rs);
+            return rowSet;
+        }
     }
 
     /**
      * 执行更新（增删改）
      */
     public static int executeUpdate(String sql) throws SQLException {
-        Statement stmt = getConnection().createStatement();
-        return stmt.executeUpdate(sql);
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate(sql);
+        }
     }
 
     /**
-     * 开始事务
+     * 开始事务，事务连接绑定到当前线程
      */
     public static void beginTransaction() throws SQLException {
-        getConnection().setAutoCommit(false);
+        if (transactionConnection.get() != null) {
+            throw new SQLException("当前线程已有进行中的事务");
+        }
+        Connection conn = getConnection();
+        try {
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        transactionConnection.set(conn);
     }
 
     /**
      * 提交事务
      */
     public static void commitTransaction() throws SQLException {
-        getConnection().commit();
-        getConnection().setAutoCommit(true);
+        Connection conn = transactionConnection.get();
+        if (conn == null) {
+            throw new SQLException("当前线程没有进行中的事务");
+        }
+        try {
+            conn.commit();
+            conn.setAutoCommit(true);
+        } finally {
+            transactionConnection.remove();
+            conn.close();
+        }
     }
 
     /**
      * 回滚事务
      */
     public static void rollbackTransaction() {
+        Connection conn = transactionConnection.get();
+        if (conn == null) {
+            return;
+        }
         try {
-            if (connection != null && !connection.getAutoCommit()) {
-                connection.rollback();
-                connection.setAutoCommit(true);
-            }
+            conn.rollback();
+            conn.setAutoCommit(true);
         } catch (SQLException e) {
             System.err.println("回滚事务失败: " + e.getMessage());
+        } finally {
+            transactionConnection.remove();
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("归还事务连接失败: " + e.getMessage());
+            }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 包装事务连接，屏蔽 DAO 对 close() 的调用
+     */
+    private static Connection nonClosing(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) {
+                        return null;
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,205 @@
+package com.usermanagement.util;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.metrics.Timer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 密码哈希专用的有界线程池
+ *
+ * 哈希是 CPU 密集操作，登录高峰时如果在请求线程上直接计算，会占满所有核心。
+ * 所有哈希任务都提交到这里：线程数固定，等待队列有上限，队列已满时立即拒绝；
+ * 排队超过 maxQueueWaitMillis 的任务不再计算，直接以超时失败（调用方大概率已放弃等待）。
+ * 在本线程池的线程上再次提交的任务直接在当前线程执行，避免互相等待。
+ */
+public class HashingExecutor {
+    private static volatile HashingExecutor instance = null;
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private final int threads;
+    private final int queueCapacity;
+    private final long maxQueueWaitNanos;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final LongAdder totalHashNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanosSeen = new AtomicLong();
+    private final AtomicLong maxHashNanosSeen = new AtomicLong();
+    private final Timer queueWaitTimer;
+    private final Timer hashTimer;
+
+    public HashingExecutor(int threads, int queueCapacity, long maxQueueWaitMillis) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                r -> {
+                    Thread t = new HashingThread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        this.queueWaitTimer = metrics.timer("password_hash_queue_wait_seconds", "密码哈希任务排队等待时间");
+        this.hashTimer = metrics.timer("password_hash_seconds", "密码哈希计算耗时");
+        metrics.gauge("password_hash_queue_depth", "密码哈希等待队列长度", this::getQueueDepth);
+        metrics.gauge("password_hash_active_threads", "正在计算哈希的线程数", this::getActiveCount);
+    }
+
+    /**
+     * 获取共享的哈希线程池（按 config.properties 中的 hashing.* 配置创建）
+     */
+    public static HashingExecutor getInstance() {
+        HashingExecutor current = instance;
+        if (current == null) {
+            lock.lock();
+            try {
+                if (instance == null) {
+                    instance = new HashingExecutor(
+                            DatabaseConfig.getHashingThreads(),
+                            DatabaseConfig.getHashingQueueCapacity(),
+                            DatabaseConfig.getHashingMaxQueueWaitMillis());
+                }
+                current = instance;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 异步执行哈希任务；线程池过载时返回的 Future 立即以 RejectedExecutionException 失败
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (Thread.currentThread() instanceof HashingThread) {
+            try {
+                future.complete(task.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        submitted.increment();
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> run(task, future, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            future.completeExceptionally(new RejectedExecutionException("系统繁忙，请稍后重试"));
+        }
+        return future;
+    }
+
+    /**
+     * 同步执行哈希任务：计算在线程池中进行，调用线程只等待结果
+     *
+     * @throws RejectedExecutionException 线程池过载或排队超时
+     */
+    public <T> T call(Callable<T> task) {
+        try {
+            return submit(task).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    private <T> void run(Callable<T> task, CompletableFuture<T> future, long enqueuedAt) {
+        long started = System.nanoTime();
+        long queueWait = started - enqueuedAt;
+        totalQueueWaitNanos.add(queueWait);
+        maxQueueWaitNanosSeen.accumulateAndGet(queueWait, Math::max);
+        queueWaitTimer.record(queueWait);
+
+        if (maxQueueWaitNanos > 0 && queueWait > maxQueueWaitNanos) {
+            expired.increment();
+            future.completeExceptionally(new RejectedExecutionException("系统繁忙，请稍后重试（排队超时）"));
+            return;
+        }
+
+        try {
+            future.complete(task.call());
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        } finally {
+            long hashTime = System.nanoTime() - started;
+            totalHashNanos.add(hashTime);
+            maxHashNanosSeen.accumulateAndGet(hashTime, Math::max);
+            hashTimer.record(hashTime);
+            completed.increment();
+        }
+    }
+
+    // 统计信息
+    public int getThreads() { return threads; }
+    public int getQueueDepth() { return executor.getQueue().size(); }
+    public int getActiveCount() { return executor.getActiveCount(); }
+    public long getSubmitted() { return submitted.sum(); }
+    public long getRejected() { return rejected.sum(); }
+    public long getExpired() { return expired.sum(); }
+    public long getCompleted() { return completed.sum(); }
+
+    public double getAvgQueueWaitMillis() {
+        long count = completed.sum() + expired.sum();
+        return count == 0 ? 0 : totalQueueWaitNanos.sum() / 1e6 / count;
+    }
+
+    public double getAvgHashMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : totalHashNanos.sum() / 1e6 / count;
+    }
+
+    public String getStats() {
+        return String.format("密码哈希线程池: 线程 %d（忙 %d）, 队列 %d/%d, 提交 %d, 完成 %d, 拒绝 %d, 排队超时 %d, " +
+                        "排队等待 平均 %.1f ms / 最大 %.1f ms, 哈希耗时 平均 %.1f ms / 最大 %.1f ms",
+                threads, getActiveCount(), getQueueDepth(), queueCapacity,
+                getSubmitted(), getCompleted(), getRejected(), getExpired(),
+                getAvgQueueWaitMillis(), maxQueueWaitNanosSeen.get() / 1e6,
+                getAvgHashMillis(), maxHashNanosSeen.get() / 1e6);
+    }
+
+    /**
+     * 停止接受新任务（已排队的任务仍会执行）
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 哈希线程，用于识别嵌套提交
+     */
+    private static final class HashingThread extends Thread {
+        HashingThread(Runnable r, String name) {
+            super(r, name);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.usermanagement.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * 旧版密码哈希：无盐 SHA-256 的 Base64，没有算法前缀
+ *
+ * 只用于校验升级前保存的密码，校验通过后应重新计算为当前算法的哈希。
+ * 与旧版 PasswordUtil.encrypt 保持一致，密码按平台默认字符集编码。
+ */
+public class LegacySha256PasswordHasher implements PasswordHasher {
+    public static final String ID = "sha256";
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JDK 不支持 SHA-256", e);
+        }
+    });
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public String hash(String password) {
+        MessageDigest md = DIGEST.get();
+        md.reset();
+        return Base64.getEncoder().encodeToString(md.digest(password.getBytes()));
+    }
+
+    @Override
+    public boolean matches(String password, String storedHash) {
+        if (storedHash == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(hash(password).getBytes(), storedHash.getBytes());
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && !storedHash.startsWith("$");
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        // 算法没有可调参数；是否升级为其他算法由 PasswordUtil 按当前算法判断
+        return false;
+    }
+}
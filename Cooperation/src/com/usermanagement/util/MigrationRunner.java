@@ -0,0 +1,253 @@
+package com.usermanagement.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 数据库版本迁移
+ *
+ * 迁移脚本放在类路径的 db/migration/ 下，文件名形如 V1__users_query_indexes.sql，
+ * 按 MIGRATIONS 中的顺序执行。已执行的版本记录在 SchemaMigrations 表中（版本号、描述、
+ * 脚本的 SHA-256 校验和、执行时间和耗时），重复运行只会执行尚未记录的版本。
+ *
+ * 迁移以 init_db.sql 建立的表结构为基线：Users 表不存在时不做任何事。
+ * 脚本按单独一行的 GO 分批执行；连接的是 H2（基准测试使用的嵌入式数据库）时，
+ * 优先使用 db/migration/h2/ 下的同名脚本。每个版本在一个事务中执行并记录，失败时回滚并抛出异常。
+ */
+public class MigrationRunner {
+    /**
+     * 全部迁移，新增迁移时追加到末尾，已发布的脚本不要再修改
+     */
+    static final List<String> MIGRATIONS = Arrays.asList(
+            "V1__users_query_indexes",
+            "V2__userlogs_indexes",
+            "V3__drop_status_trigger",
+            "V4__users_row_version",
+            "V5__userdata_indexes"
+    );
+
+    private static final String LOCATION = "db/migration/";
+    private static final String H2_LOCATION = LOCATION + "h2/";
+    private static final String HISTORY_TABLE = "SchemaMigrations";
+
+    private static final String CREATE_HISTORY =
+            "CREATE TABLE " + HISTORY_TABLE + " (" +
+            "Version INT NOT NULL PRIMARY KEY, " +
+            "Description NVARCHAR(200) NOT NULL, " +
+            "Checksum NVARCHAR(64) NOT NULL, " +
+            "AppliedTime DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+            "ExecutionMillis INT NOT NULL)";
+
+    private final List<String> migrations;
+
+    public MigrationRunner() {
+        this(MIGRATIONS);
+    }
+
+    public MigrationRunner(List<String> migrations) {
+        this.migrations = migrations;
+    }
+
+    /**
+     * 执行尚未执行的迁移，返回本次执行的版本数
+     */
+    public int migrate(Connection conn) throws SQLException {
+        if (!tableExists(conn, "Users")) {
+            System.err.println("Users 表不存在，跳过数据库迁移（请先执行 init_db.sql）");
+            return 0;
+        }
+        if (!tableExists(conn, HISTORY_TABLE)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_HISTORY);
+            }
+        }
+
+        Map<Integer, String> applied = appliedChecksums(conn);
+        boolean h2 = conn.getMetaData().getDatabaseProductName().toUpperCase(Locale.ROOT).contains("H2");
+        int count = 0;
+        for (String name : migrations) {
+            Migration migration = load(name, h2);
+            String checksum = applied.get(migration.version);
+            if (checksum != null) {
+                if (!checksum.equalsIgnoreCase(migration.checksum)) {
+                    System.err.println("警告: 已执行的迁移 V" + migration.version + " 的脚本已被修改（校验和不一致）");
+                }
+                continue;
+            }
+            apply(conn, migration);
+            count++;
+        }
+        return count;
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                for (String batch : migration.batches) {
+                    stmt.execute(batch);
+                }
+            }
+            int elapsed = (int) (System.currentTimeMillis() - start);
+            String sql = "INSERT INTO " + HISTORY_TABLE +
+                    " (Version, Description, Checksum, ExecutionMillis) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, migration.version);
+                pstmt.setString(2, migration.description);
+                pstmt.setString(3, migration.checksum);
+                pstmt.setInt(4, elapsed);
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("已执行数据库迁移 V" + migration.version + "（" + migration.description
+                    + "），耗时 " + elapsed + " 毫秒");
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw new SQLException("数据库迁移 V" + migration.version + " 失败: " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static Map<Integer, String> appliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT Version, Checksum FROM " + HISTORY_TABLE)) {
+            while (rs.next()) {
+                applied.put(rs.getInt("Version"), rs.getString("Checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        // 限定当前架构，否则 H2 会把 INFORMATION_SCHEMA.USERS 当作 Users 表
+        try (ResultSet rs = conn.getMetaData().getTables(null, conn.getSchema(), null, new String[]{"TABLE"})) {
+            while (rs.next()) {
+                if (table.equalsIgnoreCase(rs.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // ==================== 脚本加载 ====================
+
+    static Migration load(String name, boolean h2) throws SQLException {
+        String script = null;
+        if (h2) {
+            script = readResource(H2_LOCATION + name + ".sql");
+        }
+        if (script == null) {
+            script = readResource(LOCATION + name + ".sql");
+        }
+        if (script == null) {
+            throw new SQLException("找不到迁移脚本: " + LOCATION + name + ".sql");
+        }
+
+        int separator = name.indexOf("__");
+        if (!name.startsWith("V") || separator < 2) {
+            throw new SQLException("迁移脚本名称格式错误: " + name);
+        }
+        int version;
+        try {
+            version = Integer.parseInt(name.substring(1, separator));
+        } catch (NumberFormatException e) {
+            throw new SQLException("迁移脚本名称格式错误: " + name, e);
+        }
+        String description = name.substring(separator + 2).replace('_', ' ');
+        return new Migration(version, description, sha256(script), batches(script));
+    }
+
+    /**
+     * 按单独一行的 GO 拆分批次，去掉只有注释的批次
+     */
+    static List<String> batches(String script) {
+        List<String> batches = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean hasCode = false;
+        for (String line : script.split("\\r?\\n")) {
+            String trimmed = line.trim();
+            if (trimmed.equalsIgnoreCase("GO")) {
+                if (hasCode) {
+                    batches.add(current.toString().trim());
+                }
+                current.setLength(0);
+                hasCode = false;
+                continue;
+            }
+            current.append(line).append('\n');
+            if (!trimmed.isEmpty() && !trimmed.startsWith("--")) {
+                hasCode = true;
+            }
+        }
+        if (hasCode) {
+            batches.add(current.toString().trim());
+        }
+        return batches;
+    }
+
+    private static String readResource(String path) throws SQLException {
+        try (InputStream input = MigrationRunner.class.getClassLoader().getResourceAsStream(path)) {
+            if (input == null) {
+                return null;
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            input.transferTo(buffer);
+            return buffer.toString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("读取迁移脚本失败: " + path, e);
+        }
+    }
+
+    private static String sha256(String script) {
+        try {
+            // 统一换行符，避免检出时换行符转换导致校验和变化
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    static final class Migration {
+        final int version;
+        final String description;
+        final String checksum;
+        final List<String> batches;
+
+        Migration(int version, String description, String checksum, List<String> batches) {
+            this.version = version;
+            this.description = description;
+            this.checksum = checksum;
+            this.batches = batches;
+        }
+    }
+}
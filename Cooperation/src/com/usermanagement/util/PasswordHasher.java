@@ -0,0 +1,35 @@
+package com.usermanagement.util;
+
+/**
+ * 密码哈希算法
+ *
+ * 哈希结果为自描述字符串（包含算法标识和参数），数据库中可以同时存在多种算法生成的哈希，
+ * 登录时按存储值选择对应的算法校验，并通过 needsRehash() 判断是否需要升级为当前算法。
+ */
+public interface PasswordHasher {
+
+    /**
+     * 算法标识，如 pbkdf2-sha256
+     */
+    String id();
+
+    /**
+     * 计算密码哈希（每次调用使用新的随机盐）
+     */
+    String hash(String password);
+
+    /**
+     * 校验明文密码与存储的哈希是否匹配
+     */
+    boolean matches(String password, String storedHash);
+
+    /**
+     * 存储的哈希是否由本算法生成
+     */
+    boolean supports(String storedHash);
+
+    /**
+     * 存储的哈希参数（如迭代次数）与当前配置不一致，需要重新计算
+     */
+    boolean needsRehash(String storedHash);
+}
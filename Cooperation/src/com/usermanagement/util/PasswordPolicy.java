@@ -0,0 +1,168 @@
+package com.usermanagement.util;
+
+import com.usermanagement.config.DatabaseConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 密码强度策略，按 config.properties 中的 password.* 配置校验
+ *
+ * 一次遍历字符即可得出所有规则的结果，不使用正则表达式；
+ * 密码符合要求时不分配任何对象。字母和数字只认 ASCII 字符，与原先的正则规则一致。
+ */
+public final class PasswordPolicy {
+    private static final PasswordPolicy DEFAULT = fromConfig();
+
+    /**
+     * 密码规则
+     */
+    public enum Rule {
+        MIN_LENGTH,
+        LETTER,
+        MIXED_CASE,
+        DIGIT
+    }
+
+    private final int minLength;
+    private final boolean requireMixedCase;
+    private final boolean requireDigit;
+
+    public PasswordPolicy(int minLength, boolean requireMixedCase, boolean requireDigit) {
+        this.minLength = minLength;
+        this.requireMixedCase = requireMixedCase;
+        this.requireDigit = requireDigit;
+    }
+
+    public static PasswordPolicy fromConfig() {
+        return new PasswordPolicy(
+                DatabaseConfig.getPasswordMinLength(),
+                DatabaseConfig.isPasswordMixedCaseRequired(),
+                DatabaseConfig.isPasswordDigitRequired());
+    }
+
+    /**
+     * 按配置创建的共享策略
+     */
+    public static PasswordPolicy getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 密码是否满足所有规则
+     */
+    public boolean isSatisfied(String password) {
+        return scan(password) == 0;
+    }
+
+    /**
+     * 返回密码违反的规则，满足全部规则时返回空列表
+     */
+    public List<Rule> check(String password) {
+        int violations = scan(password);
+        if (violations == 0) {
+            return Collections.emptyList();
+        }
+        List<Rule> rules = new ArrayList<>(4);
+        for (Rule rule : Rule.values()) {
+            if ((violations & bit(rule)) != 0) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * 一次遍历，返回违反规则的位掩码
+     */
+    private int scan(String password) {
+        if (password == null) {
+            return bit(Rule.MIN_LENGTH) | bit(Rule.LETTER) | (requireDigit ? bit(Rule.DIGIT) : 0);
+        }
+
+        boolean lower = false;
+        boolean upper = false;
+        boolean digit = false;
+        int length = password.length();
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                lower = true;
+            } else if (c >= 'A' && c <= 'Z') {
+                upper = true;
+            } else if (c >= '0' && c <= '9') {
+                digit = true;
+            }
+            if (lower && upper && digit) {
+                break;
+            }
+        }
+
+        int violations = 0;
+        if (length < minLength) {
+            violations |= bit(Rule.MIN_LENGTH);
+        }
+        if (!lower && !upper) {
+            violations |= bit(Rule.LETTER);
+        } else if (requireMixedCase && !(lower && upper)) {
+            violations |= bit(Rule.MIXED_CASE);
+        }
+        if (requireDigit && !digit) {
+            violations |= bit(Rule.DIGIT);
+        }
+        return violations;
+    }
+
+    private static int bit(Rule rule) {
+        return 1 << rule.ordinal();
+    }
+
+    /**
+     * 单条规则的说明
+     */
+    public String describe(Rule rule) {
+        switch (rule) {
+            case MIN_LENGTH:
+                return "长度至少" + minLength + "位";
+            case LETTER:
+                return "包含字母";
+            case MIXED_CASE:
+                return "同时包含大写和小写字母";
+            case DIGIT:
+                return "包含数字";
+            default:
+                return rule.name();
+        }
+    }
+
+    /**
+     * 多条规则的说明，用顿号连接
+     */
+    public String describe(List<Rule> rules) {
+        StringBuilder sb = new StringBuilder();
+        for (Rule rule : rules) {
+            if (sb.length() > 0) {
+                sb.append("、");
+            }
+            sb.append(describe(rule));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 完整的策略说明，如“至少6位，同时包含大写和小写字母、数字”
+     */
+    public String getRequirements() {
+        StringBuilder sb = new StringBuilder("至少").append(minLength).append("位，");
+        sb.append(requireMixedCase ? "同时包含大写和小写字母" : "包含字母");
+        if (requireDigit) {
+            sb.append("、数字");
+        }
+        return sb.toString();
+    }
+
+    public int getMinLength() { return minLength; }
+    public boolean isMixedCaseRequired() { return requireMixedCase; }
+    public boolean isDigitRequired() { return requireDigit; }
+}
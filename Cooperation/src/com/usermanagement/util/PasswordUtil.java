@@ -1,50 +1,101 @@
 package com.usermanagement.util;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import com.usermanagement.config.DatabaseConfig;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
- * 密码工具类（简化版，实际项目应使用更安全的加密方式）
+ * 密码工具类
+ *
+ * 新密码使用配置的当前算法（默认 PBKDF2-HMAC-SHA256）计算哈希；
+ * 校验时按存储值的格式选择算法，兼容升级前的无盐 SHA-256 哈希。
+ * 哈希计算都在 HashingExecutor 中进行，过载时抛出 RejectedExecutionException。
  */
 public class PasswordUtil {
+    private static final PasswordHasher legacy = new LegacySha256PasswordHasher();
+    private static volatile PasswordHasher current = createConfiguredHasher();
+
+    private static PasswordHasher createConfiguredHasher() {
+        String algorithm = DatabaseConfig.getPasswordHashAlgorithm();
+        if (LegacySha256PasswordHasher.ID.equals(algorithm)) {
+            return legacy;
+        }
+        if (!Pbkdf2PasswordHasher.ID.equals(algorithm)) {
+            System.err.println("未知的密码哈希算法 " + algorithm + "，使用 " + Pbkdf2PasswordHasher.ID);
+        }
+        return new Pbkdf2PasswordHasher(DatabaseConfig.getPasswordHashIterations());
+    }
 
     /**
-     * 密码加密（这里使用SHA-256，实际项目中建议使用BCrypt）
+     * 当前用于计算新哈希的算法
      */
-    public static String encrypt(String password) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(password.getBytes());
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            // 如果加密失败，返回原密码（仅用于演示，实际项目必须加密）
-            return password;
-        }
+    public static PasswordHasher getHasher() {
+        return current;
     }
 
     /**
-     * 验证密码
+     * 替换当前算法（基准测试调整参数时使用）
      */
-    public static boolean verify(String inputPassword, String storedPassword) {
-        // 在实际项目中，应该对比加密后的密码
-        String encryptedInput = encrypt(inputPassword);
-        return encryptedInput.equals(storedPassword);
+    public static void setHasher(PasswordHasher hasher) {
+        current = hasher;
     }
 
     /**
-     * 检查密码强度
+     * 用当前算法计算密码哈希
      */
-    public static boolean checkPasswordStrength(String password) {
-        if (password == null || password.length() < 6) {
+    public static String hash(String password) {
+        PasswordHasher hasher = current;
+        return HashingExecutor.getInstance().call(() -> hasher.hash(password));
+    }
+
+    /**
+     * 异步计算密码哈希
+     */
+    public static CompletableFuture<String> hashAsync(String password) {
+        PasswordHasher hasher = current;
+        return HashingExecutor.getInstance().submit(() -> hasher.hash(password));
+    }
+
+    /**
+     * 验证密码：按存储的哈希格式选择算法
+     */
+    public static boolean verify(String inputPassword, String storedPassword) {
+        if (inputPassword == null || storedPassword == null) {
             return false;
         }
+        return HashingExecutor.getInstance().call(() -> matches(inputPassword, storedPassword));
+    }
+
+    /**
+     * 异步验证密码
+     */
+    public static CompletableFuture<Boolean> verifyAsync(String inputPassword, String storedPassword) {
+        if (inputPassword == null || storedPassword == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return HashingExecutor.getInstance().submit(() -> matches(inputPassword, storedPassword));
+    }
+
+    private static boolean matches(String inputPassword, String storedPassword) {
+        PasswordHasher hasher = current;
+        if (hasher.supports(storedPassword)) {
+            return hasher.matches(inputPassword, storedPassword);
+        }
+        return legacy.supports(storedPassword) && legacy.matches(inputPassword, storedPassword);
+    }
 
-        // 检查是否包含数字
-        boolean hasDigit = password.matches(".*\\d.*");
-        // 检查是否包含字母
-        boolean hasLetter = password.matches(".*[a-zA-Z].*");
+    /**
+     * 存储的哈希不是由当前算法和参数生成的，校验通过后应重新计算并保存
+     */
+    public static boolean needsRehash(String storedPassword) {
+        PasswordHasher hasher = current;
+        return !hasher.supports(storedPassword) || hasher.needsRehash(storedPassword);
+    }
 
-        return hasDigit && hasLetter;
+    /**
+     * 检查密码强度（规则见 PasswordPolicy）
+     */
+    public static boolean checkPasswordStrength(String password) {
+        return PasswordPolicy.getDefault().isSatisfied(password);
     }
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.usermanagement.util;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA256 密码哈希
+ *
+ * 存储格式：$pbkdf2-sha256$迭代次数$盐(Base64)$哈希(Base64)
+ * 每个线程复用一个 Mac 实例和中间缓冲区，不必每次哈希都查找算法提供者、创建 SecretKeyFactory。
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+    public static final String ID = "pbkdf2-sha256";
+    private static final String PREFIX = "$" + ID + "$";
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ThreadLocal<Worker> WORKER = ThreadLocal.withInitial(Worker::new);
+
+    private final int iterations;
+
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("迭代次数必须大于0: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = WORKER.get().derive(password, salt, iterations);
+
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    @Override
+    public boolean matches(String password, String storedHash) {
+        Parsed parsed = parse(storedHash);
+        if (parsed == null) {
+            return false;
+        }
+        byte[] actual = WORKER.get().derive(password, parsed.salt, parsed.iterations);
+        return MessageDigest.isEqual(actual, parsed.hash);
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        Parsed parsed = parse(storedHash);
+        return parsed == null || parsed.iterations != iterations;
+    }
+
+    /**
+     * 解析存储的哈希，格式不正确时返回 null
+     */
+    private static Parsed parse(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(PREFIX)) {
+            return null;
+        }
+        String[] parts = storedHash.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            int iterations = Integer.parseInt(parts[0]);
+            byte[] salt = decoder.decode(parts[1]);
+            byte[] hash = decoder.decode(parts[2]);
+            if (iterations < 1 || hash.length != HASH_BYTES) {
+                return null;
+            }
+            return new Parsed(iterations, salt, hash);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class Parsed {
+        final int iterations;
+        final byte[] salt;
+        final byte[] hash;
+
+        Parsed(int iterations, byte[] salt, byte[] hash) {
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * 每个线程一份的计算状态：Mac 实例与 PBKDF2 中间缓冲区
+     */
+    private static final class Worker {
+        private final Mac mac;
+        private final byte[] u = new byte[HASH_BYTES];
+        private final byte[] t = new byte[HASH_BYTES];
+        private static final byte[] BLOCK_INDEX = {0, 0, 0, 1};
+
+        Worker() {
+            try {
+                mac = Mac.getInstance(MAC_ALGORITHM);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("JDK 不支持 " + MAC_ALGORITHM, e);
+            }
+        }
+
+        /**
+         * PBKDF2 (RFC 8018)，输出长度等于 HMAC-SHA256 的长度，只需计算第一个块
+         */
+        byte[] derive(String password, byte[] salt, int iterations) {
+            byte[] key = password.getBytes(StandardCharsets.UTF_8);
+            try {
+                mac.init(new PasswordKey(key));
+                mac.update(salt);
+                mac.update(BLOCK_INDEX);
+                mac.doFinal(u, 0);
+                System.arraycopy(u, 0, t, 0, HASH_BYTES);
+
+                for (int i = 1; i < iterations; i++) {
+                    mac.update(u);
+                    mac.doFinal(u, 0);
+                    for (int j = 0; j < HASH_BYTES; j++) {
+                        t[j] ^= u[j];
+                    }
+                }
+                return t.clone();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("计算密码哈希失败", e);
+            } finally {
+                Arrays.fill(key, (byte) 0);
+                Arrays.fill(u, (byte) 0);
+                Arrays.fill(t, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * HMAC 密钥（SecretKeySpec 不接受空密钥，空密码也需要能计算哈希）
+     */
+    private static final class PasswordKey implements SecretKey {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] key;
+
+        PasswordKey(byte[] key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getAlgorithm() {
+            return MAC_ALGORITHM;
+        }
+
+        @Override
+        public String getFormat() {
+            return "RAW";
+        }
+
+        @Override
+        public byte[] getEncoded() {
+            return key.clone();
+        }
+    }
+}
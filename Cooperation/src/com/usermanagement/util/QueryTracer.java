@@ -0,0 +1,507 @@
+package com.usermanagement.util;
+
+import com.usermanagement.config.DatabaseConfig;
+import com.usermanagement.metrics.Counter;
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.metrics.Timer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 跟踪：包装 DatabaseUtil 借出的连接，统计每条语句的执行和读取耗时，记录慢查询
+ *
+ * 连接创建的 Statement/PreparedStatement 和它们返回的 ResultSet 都是代理：
+ * 执行耗时从 execute* 调用开始到返回，读取耗时是在 ResultSet.next() 中花费的时间，
+ * 语句在结果集关闭（或语句关闭）时才算完成。参数只记录类型（如 [String, Int]），不记录取值，
+ * 避免密码哈希等敏感数据进入日志。
+ *
+ * 统计按规范化后的 SQL 文本汇总（合并空白，IN (?, ?, ...) 折叠为 IN (?...)），
+ * 不同语句数超过 trace.maxStatements 后新语句计入“其他语句”。
+ * 总耗时超过 trace.slowQueryMillis 的执行打印到标准错误并保留最近的若干条，供管理员控制台查看。
+ */
+public class QueryTracer {
+    private static volatile QueryTracer instance = null;
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final String OTHER_STATEMENTS = "（其他语句）";
+
+    private final long slowQueryNanos;
+    private final int maxStatements;
+    private final int recentSlowCapacity;
+
+    private final Map<String, StatementStats> statsBySql = new ConcurrentHashMap<>();
+    private final Map<String, String> normalizedSql = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<SlowQuery> recentSlowQueries = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recentSlowCount = new AtomicInteger();
+
+    private final Timer statementTimer;
+    private final Counter slowQueryCounter;
+
+    public QueryTracer(long slowQueryMillis, int maxStatements, int recentSlowCapacity) {
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+        this.maxStatements = Math.max(1, maxStatements);
+        this.recentSlowCapacity = Math.max(0, recentSlowCapacity);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        this.statementTimer = metrics.timer("db_statement_seconds", "SQL 语句耗时（执行 + 读取结果）");
+        this.slowQueryCounter = metrics.counter("db_slow_queries_total", "超过慢查询阈值的语句数");
+    }
+
+    /**
+     * 获取共享的 SQL 跟踪器；配置 trace.enabled=false 时返回 null
+     */
+    public static QueryTracer getInstance() {
+        QueryTracer current = instance;
+        if (current == null && DatabaseConfig.getBoolean("trace.enabled", true)) {
+            lock.lock();
+            try {
+                if (instance == null) {
+                    instance = new QueryTracer(
+                            DatabaseConfig.getLong("trace.slowQueryMillis", 200L),
+                            DatabaseConfig.getInt("trace.maxStatements", 500),
+                            DatabaseConfig.getInt("trace.recentSlowQueries", 50));
+                }
+                current = instance;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 包装连接，之后通过它创建的语句都会被跟踪
+     */
+    public Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionTracer(connection));
+    }
+
+    // ==================== 统计 ====================
+
+    private void record(String sql, String parameters, long executeNanos, long fetchNanos, long rows,
+                        boolean failed) {
+        long total = executeNanos + fetchNanos;
+        statementTimer.record(total);
+
+        String key = normalize(sql);
+        StatementStats stats = statsBySql.get(key);
+        if (stats == null) {
+            if (statsBySql.size() >= maxStatements) {
+                key = OTHER_STATEMENTS;
+            }
+            stats = statsBySql.computeIfAbsent(key, StatementStats::new);
+        }
+        stats.record(total, fetchNanos, rows, parameters, failed);
+
+        if (slowQueryNanos > 0 && total >= slowQueryNanos) {
+            slowQueryCounter.increment();
+            SlowQuery slow = new SlowQuery(new Date(), sql, parameters, executeNanos, fetchNanos, rows, failed);
+            System.err.println("慢查询 " + slow);
+            if (recentSlowCapacity > 0) {
+                recentSlowQueries.addFirst(slow);
+                if (recentSlowCount.incrementAndGet() > recentSlowCapacity
+                        && recentSlowQueries.pollLast() != null) {
+                    recentSlowCount.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private String normalize(String sql) {
+        if (sql == null) {
+            return "（未知语句）";
+        }
+        String normalized = normalizedSql.get(sql);
+        if (normalized == null) {
+            normalized = PARAMETER_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("?...");
+            // 拼接出来的 SQL 可能无穷多，缓存的条数与统计条数使用同一个上限
+            if (normalizedSql.size() < maxStatements * 4) {
+                normalizedSql.put(sql, normalized);
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * 各语句的统计，按总耗时从高到低排列
+     */
+    public List<StatementStats> getStatementStats() {
+        List<StatementStats> list = new ArrayList<>(statsBySql.values());
+        list.sort(Comparator.comparingLong(StatementStats::getTotalNanos).reversed());
+        return list;
+    }
+
+    /**
+     * 最近的慢查询，最新的在前
+     */
+    public List<SlowQuery> getRecentSlowQueries() {
+        return new ArrayList<>(recentSlowQueries);
+    }
+
+    public long getSlowQueryMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryNanos);
+    }
+
+    /**
+     * 清空语句统计和慢查询记录
+     */
+    public void reset() {
+        statsBySql.clear();
+        recentSlowQueries.clear();
+        recentSlowCount.set(0);
+    }
+
+    /**
+     * 单条（规范化后的）语句的汇总统计
+     */
+    public static final class StatementStats {
+        private final String sql;
+        private final Timer timer = new Timer();
+        private final LongAdder fetchNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private volatile String lastParameters = "";
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long totalNanos, long fetch, long rowCount, String parameters, boolean failed) {
+            timer.record(totalNanos);
+            fetchNanos.add(fetch);
+            if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+            if (failed) {
+                errors.increment();
+            }
+            lastParameters = parameters;
+        }
+
+        public String getSql() { return sql; }
+        public long getCount() { return timer.getCount(); }
+        public long getTotalNanos() { return timer.getTotalNanos(); }
+        public long getFetchNanos() { return fetchNanos.sum(); }
+        public long getRows() { return rows.sum(); }
+        public long getErrors() { return errors.sum(); }
+        public String getLastParameters() { return lastParameters; }
+
+        public double getTotalMillis() { return timer.getTotalNanos() / 1e6; }
+        public double getMeanMillis() { return timer.getMeanMillis(); }
+        public double getMaxMillis() { return timer.getMaxNanos() / 1e6; }
+        public double getPercentileMillis(double percentile) { return timer.getPercentileMillis(percentile); }
+    }
+
+    /**
+     * 一次慢查询
+     */
+    public static final class SlowQuery {
+        private final Date time;
+        private final String sql;
+        private final String parameters;
+        private final long executeNanos;
+        private final long fetchNanos;
+        private final long rows;
+        private final boolean failed;
+
+        SlowQuery(Date time, String sql, String parameters, long executeNanos, long fetchNanos, long rows,
+                  boolean failed) {
+            this.time = time;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.executeNanos = executeNanos;
+            this.fetchNanos = fetchNanos;
+            this.rows = rows;
+            this.failed = failed;
+        }
+
+        public Date getTime() { return time; }
+        public String getSql() { return sql; }
+        public String getParameters() { return parameters; }
+        public double getTotalMillis() { return (executeNanos + fetchNanos) / 1e6; }
+        public double getExecuteMillis() { return executeNanos / 1e6; }
+        public double getFetchMillis() { return fetchNanos / 1e6; }
+        public long getRows() { return rows; }
+        public boolean isFailed() { return failed; }
+
+        @Override
+        public String toString() {
+            return String.format("[%s] %.1f ms（执行 %.1f ms, 读取 %.1f ms, %s）%s 参数 %s: %s",
+                    new SimpleDateFormat("HH:mm:ss.SSS").format(time),
+                    getTotalMillis(), getExecuteMillis(), getFetchMillis(),
+                    rows < 0 ? "行数未知" : rows + " 行", failed ? " 失败" : "", parameters,
+                    WHITESPACE.matcher(sql == null ? "" : sql.trim()).replaceAll(" "));
+        }
+    }
+
+    // ==================== 代理 ====================
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 连接代理：创建语句时包装语句，其余调用直接转发
+     */
+    private final class ConnectionTracer implements InvocationHandler {
+        private final Connection connection;
+
+        ConnectionTracer(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Traced" + connection;
+                case "createStatement":
+                    return traceStatement((Statement) QueryTracer.invoke(connection, method, args),
+                            Statement.class, null);
+                case "prepareStatement":
+                    return traceStatement((Statement) QueryTracer.invoke(connection, method, args),
+                            PreparedStatement.class, (String) args[0]);
+                case "prepareCall":
+                    return traceStatement((Statement) QueryTracer.invoke(connection, method, args),
+                            CallableStatement.class, (String) args[0]);
+                default:
+                    return QueryTracer.invoke(connection, method, args);
+            }
+        }
+
+        private Object traceStatement(Statement statement, Class<? extends Statement> type, String sql) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    new StatementTracer(statement, sql));
+        }
+    }
+
+    /**
+     * 语句代理：记录参数类型，计时执行，包装返回的结果集。
+     * 语句同一时刻只被一个线程使用，不需要同步。
+     */
+    private final class StatementTracer implements InvocationHandler {
+        private final Statement statement;
+        private String sql;
+        private final List<String> parameters = new ArrayList<>();
+        private int batchSize = 0;
+        // 已执行、结果集尚未读完的一次执行
+        private Execution pending;
+
+        StatementTracer(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Traced" + statement;
+                case "close":
+                    finishPending();
+                    return QueryTracer.invoke(statement, method, args);
+                case "clearParameters":
+                    parameters.clear();
+                    return QueryTracer.invoke(statement, method, args);
+                case "addBatch":
+                    if (args != null && args.length == 1) {
+                        sql = (String) args[0];
+                    }
+                    batchSize++;
+                    return QueryTracer.invoke(statement, method, args);
+                case "clearBatch":
+                    batchSize = 0;
+                    return QueryTracer.invoke(statement, method, args);
+                case "getResultSet":
+                    return wrapResultSet((ResultSet) QueryTracer.invoke(statement, method, args));
+                default:
+                    break;
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                recordParameter((Integer) args[0], name, args[1]);
+                return QueryTracer.invoke(statement, method, args);
+            }
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            return QueryTracer.invoke(statement, method, args);
+        }
+
+        private void recordParameter(int index, String setter, Object value) {
+            String shape = "setNull".equals(setter) || value == null ? "null"
+                    : "setObject".equals(setter) ? value.getClass().getSimpleName()
+                    : setter.substring(3);
+            while (parameters.size() < index) {
+                parameters.add("?");
+            }
+            parameters.set(index - 1, shape);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishPending();
+            String executedSql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            String shape = describeParameters();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = QueryTracer.invoke(statement, method, args);
+            } catch (Throwable e) {
+                record(executedSql, shape, System.nanoTime() - start, 0, -1, true);
+                throw e;
+            }
+            long executeNanos = System.nanoTime() - start;
+            batchSize = 0;
+
+            if (result instanceof ResultSet) {
+                pending = new Execution(executedSql, shape, executeNanos);
+                return wrapResultSet((ResultSet) result);
+            }
+            if (result instanceof Boolean && (Boolean) result) {
+                // execute() 返回结果集，由 getResultSet() 读取
+                pending = new Execution(executedSql, shape, executeNanos);
+                return result;
+            }
+            record(executedSql, shape, executeNanos, 0, updateCount(result), false);
+            return result;
+        }
+
+        private String describeParameters() {
+            String shape = parameters.isEmpty() ? "[]" : parameters.toString();
+            return batchSize > 0 ? shape + " ×" + batchSize : shape;
+        }
+
+        private long updateCount(Object result) {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            }
+            long sum = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    sum += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    sum += Math.max(count, 0);
+                }
+            } else {
+                return -1;
+            }
+            return sum;
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet) {
+            if (resultSet == null || pending == null) {
+                return resultSet;
+            }
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, new ResultSetTracer(resultSet, pending));
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                pending.finish();
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * 结果集代理：统计行数和 next() 耗时，关闭时完成这次执行的记录
+     */
+    private static final class ResultSetTracer implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final Execution execution;
+
+        ResultSetTracer(ResultSet resultSet, Execution execution) {
+            this.resultSet = resultSet;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    long start = System.nanoTime();
+                    Object hasNext = QueryTracer.invoke(resultSet, method, args);
+                    execution.fetchNanos += System.nanoTime() - start;
+                    if ((Boolean) hasNext) {
+                        execution.rows++;
+                    }
+                    return hasNext;
+                case "close":
+                    execution.finish();
+                    return QueryTracer.invoke(resultSet, method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return QueryTracer.invoke(resultSet, method, args);
+            }
+        }
+    }
+
+    /**
+     * 一次返回结果集的执行，结果集或语句关闭时记录
+     */
+    private final class Execution {
+        final String sql;
+        final String parameters;
+        final long executeNanos;
+        long fetchNanos = 0;
+        long rows = 0;
+        boolean finished = false;
+
+        Execution(String sql, String parameters, long executeNanos) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.executeNanos = executeNanos;
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                record(sql, parameters, executeNanos, fetchNanos, rows, false);
+            }
+        }
+    }
+}
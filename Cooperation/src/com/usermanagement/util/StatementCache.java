@@ -0,0 +1,178 @@
+package com.usermanagement.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个物理连接上的 PreparedStatement LRU 缓存（以 SQL 文本为键）
+ *
+ * 调用方拿到的是语句代理，close() 只清空参数并放回缓存；语句被淘汰或连接被销毁时才真正关闭。
+ * 连接同一时刻只会借给一个线程，因此缓存本身不需要加锁。
+ */
+public class StatementCache {
+    // 所有连接汇总的命中统计
+    private static final LongAdder totalHits = new LongAdder();
+    private static final LongAdder totalMisses = new LongAdder();
+    private static final LongAdder totalEvictions = new LongAdder();
+
+    private final int maxSize;
+    private final Map<String, CachedStatement> statements;
+    private long hits = 0;
+    private long misses = 0;
+
+    public StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                totalEvictions.increment();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * 返回缓存的语句；同一条 SQL 的缓存语句正在使用时，退化为创建一个不缓存的普通语句
+     */
+    public PreparedStatement prepare(Connection physical, String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && cached.evicted && !cached.inUse) {
+            // 归还时重置失败的语句已经关闭，从缓存中移除后重新创建
+            statements.remove(sql);
+            cached = null;
+        }
+        if (cached != null && !cached.inUse) {
+            hits++;
+            totalHits.increment();
+            cached.inUse = true;
+            return cached.handle;
+        }
+
+        misses++;
+        totalMisses.increment();
+        if (cached != null) {
+            return physical.prepareStatement(sql);
+        }
+
+        cached = new CachedStatement(physical.prepareStatement(sql));
+        cached.inUse = true;
+        statements.put(sql, cached);
+        return cached.handle;
+    }
+
+    /**
+     * 关闭缓存中的所有语句（连接关闭或被连接池淘汰时调用）
+     */
+    public void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        for (CachedStatement cached : all) {
+            cached.evict();
+        }
+    }
+
+    public int size() { return statements.size(); }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+
+    public static long getTotalHits() { return totalHits.sum(); }
+    public static long getTotalMisses() { return totalMisses.sum(); }
+    public static long getTotalEvictions() { return totalEvictions.sum(); }
+
+    /**
+     * 全局命中率统计
+     */
+    public static String getStats() {
+        long hit = totalHits.sum();
+        long miss = totalMisses.sum();
+        double ratio = hit + miss == 0 ? 0 : hit * 100.0 / (hit + miss);
+        return String.format("语句缓存: 命中 %d, 未命中 %d, 命中率 %.1f%%, 淘汰 %d",
+                hit, miss, ratio, totalEvictions.sum());
+    }
+
+    /**
+     * 缓存项：物理语句及其代理
+     */
+    private static final class CachedStatement {
+        final PreparedStatement physical;
+        final PreparedStatement handle;
+        boolean inUse = false;
+        boolean evicted = false;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+            this.handle = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                release();
+                                return null;
+                            case "isClosed":
+                                return !inUse || physical.isClosed();
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                if (!inUse) {
+                                    throw new SQLException("语句已关闭");
+                                }
+                                try {
+                                    return method.invoke(physical, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                        }
+                    });
+        }
+
+        /**
+         * 调用方关闭语句：清空参数后放回缓存，已被淘汰的则真正关闭
+         */
+        void release() throws SQLException {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            if (evicted) {
+                physical.close();
+                return;
+            }
+            try {
+                physical.clearParameters();
+                physical.clearBatch();
+            } catch (SQLException e) {
+                evicted = true;
+                physical.close();
+            }
+        }
+
+        /**
+         * 从缓存中淘汰：空闲则立即关闭，正在使用的等调用方 close() 时关闭
+         */
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    physical.close();
+                } catch (SQLException e) {
+                    // 连接可能已经失效，忽略关闭异常
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+-- V1：按 UserDaoImpl 的实际查询重建 Users 表的索引
+--
+-- 按用户名的查询（登录、getUserByUsername）由 Username 的 UNIQUE 约束自带的索引承担，
+-- idx_username 与之重复，只增加写入开销。
+IF EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_username' AND object_id = OBJECT_ID('Users'))
+    DROP INDEX idx_username ON Users;
+GO
+
+-- 全部用户：getAllUsers、streamAllUsers、getUsersPage
+--   ORDER BY CreatedTime DESC, UserID DESC
+-- 按索引顺序读取，不需要排序；包含摘要列，分页查询不需要回表
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_users_created' AND object_id = OBJECT_ID('Users'))
+    CREATE INDEX idx_users_created
+        ON Users(CreatedTime DESC, UserID DESC)
+        INCLUDE (Username, UserType, ApprovalStatus);
+GO
+
+-- 按类型：getUsersByType、streamUsersByType、getUsersByTypePage
+--   WHERE UserType = ? ORDER BY CreatedTime DESC, UserID DESC
+-- 取代只有 UserType 一列的 idx_user_type
+IF EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_user_type' AND object_id = OBJECT_ID('Users'))
+    DROP INDEX idx_user_type ON Users;
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_users_type_created' AND object_id = OBJECT_ID('Users'))
+    CREATE INDEX idx_users_type_created
+        ON Users(UserType, CreatedTime DESC, UserID DESC)
+        INCLUDE (Username, ApprovalStatus);
+GO
+
+-- 待审核：getPendingUsers、streamPendingUsers、getPendingUsersPage、按条件批量审批
+--   WHERE ApprovalStatus = ? [AND UserType = ?] [AND CreatedTime < ?] ORDER BY CreatedTime, UserID
+-- 状态值由参数传入，不能用筛选索引；取代只有 ApprovalStatus 一列的 idx_approval_status
+IF EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_approval_status' AND object_id = OBJECT_ID('Users'))
+    DROP INDEX idx_approval_status ON Users;
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_users_status_created' AND object_id = OBJECT_ID('Users'))
+    CREATE INDEX idx_users_status_created
+        ON Users(ApprovalStatus, CreatedTime, UserID)
+        INCLUDE (Username, UserType);
+GO
@@ -0,0 +1,12 @@
+-- V2：UserLogs 表的索引
+--
+-- 按用户查看操作日志：WHERE UserID = ? ORDER BY LogTime DESC
+-- 同时用于删除用户前检查外键引用
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_userlogs_user_time' AND object_id = OBJECT_ID('UserLogs'))
+    CREATE INDEX idx_userlogs_user_time ON UserLogs(UserID, LogTime DESC);
+GO
+
+-- 按时间范围查看、清理旧日志：WHERE LogTime >= ? / LogTime < ?
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_userlogs_time' AND object_id = OBJECT_ID('UserLogs'))
+    CREATE INDEX idx_userlogs_time ON UserLogs(LogTime);
+GO
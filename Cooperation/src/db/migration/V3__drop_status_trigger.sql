@@ -0,0 +1,8 @@
+-- V3：删除 Users 表上的 trg_UserStatusChange 触发器
+--
+-- 触发器在 Users 的每次 UPDATE 时都会执行，包括只更新最后登录时间的语句；
+-- updateUser 总是写 ApprovalStatus 列，IF UPDATE(ApprovalStatus) 也总是成立，每次都要连接 inserted 和 deleted。
+-- 状态变更日志改由应用在审核状态实际变化后通过 AuditLogWriter 异步批量写入 UserLogs。
+IF OBJECT_ID('trg_UserStatusChange', 'TR') IS NOT NULL
+    DROP TRIGGER trg_UserStatusChange;
+GO
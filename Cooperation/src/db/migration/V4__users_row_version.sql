@@ -0,0 +1,14 @@
+-- V4：Users 表增加行版本号，UserDao.patchUser 按此做乐观并发检查
+--
+-- 由应用维护（修改用户信息或审核状态时加一），而不是使用 SQL Server 的 rowversion 类型：
+-- rowversion 在任何更新时都会变化，异步写入最后登录时间也会让管理员的编辑被判为冲突。
+IF COL_LENGTH('Users', 'RowVersion') IS NULL
+    ALTER TABLE Users ADD RowVersion INT NOT NULL CONSTRAINT DF_Users_RowVersion DEFAULT 0;
+GO
+
+-- 视图使用 SELECT *，刷新元数据后才包含新列
+IF OBJECT_ID('ApprovedUsers', 'V') IS NOT NULL
+    EXEC sp_refreshview N'ApprovedUsers';
+IF OBJECT_ID('PendingUsers', 'V') IS NOT NULL
+    EXEC sp_refreshview N'PendingUsers';
+GO
@@ -0,0 +1,13 @@
+-- V5：UserData 表的索引，对应 UserDataDaoImpl 的查询
+--
+-- 按类型分页、流式导出：WHERE UserID = ? AND DataType = ? ORDER BY ModifiedTime DESC, DataID DESC
+-- 同时用于数据类型列表（SELECT DISTINCT DataType WHERE UserID = ?）和按类型计数
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_userdata_user_type_modified' AND object_id = OBJECT_ID('UserData'))
+    CREATE INDEX idx_userdata_user_type_modified ON UserData(UserID, DataType, ModifiedTime DESC, DataID DESC);
+GO
+
+-- 不限类型的分页、流式导出：WHERE UserID = ? ORDER BY ModifiedTime DESC, DataID DESC
+-- 删除用户时级联删除其数据也按 UserID 查找
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_userdata_user_modified' AND object_id = OBJECT_ID('UserData'))
+    CREATE INDEX idx_userdata_user_modified ON UserData(UserID, ModifiedTime DESC, DataID DESC);
+GO
@@ -0,0 +1,13 @@
+-- V1 的 H2 版本（基准测试、查询计划检查使用）：索引与 SQL Server 版本相同，H2 不支持 INCLUDE 列
+DROP INDEX IF EXISTS idx_username
+GO
+CREATE INDEX IF NOT EXISTS idx_users_created ON Users(CreatedTime DESC, UserID DESC)
+GO
+DROP INDEX IF EXISTS idx_user_type
+GO
+CREATE INDEX IF NOT EXISTS idx_users_type_created ON Users(UserType, CreatedTime DESC, UserID DESC)
+GO
+DROP INDEX IF EXISTS idx_approval_status
+GO
+CREATE INDEX IF NOT EXISTS idx_users_status_created ON Users(ApprovalStatus, CreatedTime, UserID)
+GO
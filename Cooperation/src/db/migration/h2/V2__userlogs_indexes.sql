@@ -0,0 +1,14 @@
+-- V2 的 H2 版本；只用 Users 表建表时（BenchmarkSupport.createSchema）没有 UserLogs 表，先补建
+CREATE TABLE IF NOT EXISTS UserLogs (
+    LogID INT IDENTITY(1,1) PRIMARY KEY,
+    UserID INT NOT NULL,
+    Action NVARCHAR(50) NOT NULL,
+    Details NVARCHAR(500),
+    LogTime DATETIME DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (UserID) REFERENCES Users(UserID)
+)
+GO
+CREATE INDEX IF NOT EXISTS idx_userlogs_user_time ON UserLogs(UserID, LogTime DESC)
+GO
+CREATE INDEX IF NOT EXISTS idx_userlogs_time ON UserLogs(LogTime)
+GO
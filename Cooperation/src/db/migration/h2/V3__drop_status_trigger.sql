@@ -0,0 +1 @@
+-- V3 的 H2 版本：嵌入式数据库按 init_db.sql 建表时跳过了触发器，这里不需要做任何事
@@ -0,0 +1,3 @@
+-- V4 的 H2 版本
+ALTER TABLE Users ADD COLUMN IF NOT EXISTS RowVersion INT NOT NULL DEFAULT 0
+GO
@@ -0,0 +1,19 @@
+-- V5 的 H2 版本；只用 Users 表建表时（BenchmarkSupport.createSchema）没有 UserData 表，先补建
+CREATE TABLE IF NOT EXISTS UserData (
+    DataID INT IDENTITY(1,1) PRIMARY KEY,
+    UserID INT NOT NULL,
+    DataType NVARCHAR(50) NOT NULL,
+    Field1 NVARCHAR(100),
+    Field2 NVARCHAR(100),
+    Field3 NVARCHAR(100),
+    Field4 NVARCHAR(100),
+    Field5 NVARCHAR(100),
+    CreatedTime DATETIME DEFAULT CURRENT_TIMESTAMP,
+    ModifiedTime DATETIME DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (UserID) REFERENCES Users(UserID) ON DELETE CASCADE
+)
+GO
+CREATE INDEX IF NOT EXISTS idx_userdata_user_type_modified ON UserData(UserID, DataType, ModifiedTime DESC, DataID DESC)
+GO
+CREATE INDEX IF NOT EXISTS idx_userdata_user_modified ON UserData(UserID, ModifiedTime DESC, DataID DESC)
+GO
@@ -0,0 +1,176 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.User;
+import com.usermanagement.util.DatabaseUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AuditLogWriter 测试：使用 H2 内存数据库（SQL Server 兼容模式），UserLogs 带有指向 Users 的外键
+ */
+class AuditLogWriterTest {
+
+    @BeforeAll
+    static void openDatabase() throws SQLException {
+        System.setProperty("db.url", "jdbc:h2:mem:auditlog;MODE=MSSQLServer;DB_CLOSE_DELAY=-1");
+        System.setProperty("db.driver", "org.h2.Driver");
+        System.setProperty("db.username", "sa");
+        System.setProperty("db.password", "");
+        System.setProperty("db.migrate.enabled", "false");
+        // 刷新间隔足够长，由测试显式调用 flush()
+        System.setProperty("audit.writer.enabled", "true");
+        System.setProperty("audit.writer.flushIntervalMillis", "3600000");
+        DatabaseUtil.initialize();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE Users (" +
+                    "UserID INT IDENTITY(1,1) PRIMARY KEY, " +
+                    "Username NVARCHAR(50) NOT NULL UNIQUE, " +
+                    "Password NVARCHAR(100) NOT NULL, " +
+                    "UserType NVARCHAR(20) NOT NULL, " +
+                    "ApprovalStatus NVARCHAR(20) NOT NULL DEFAULT N'待审核', " +
+                    "CreatedTime DATETIME DEFAULT CURRENT_TIMESTAMP, " +
+                    "LastLoginTime DATETIME, " +
+                    "Remark NVARCHAR(200) NULL, " +
+                    "RowVersion INT NOT NULL DEFAULT 0)");
+            stmt.execute("CREATE TABLE UserLogs (" +
+                    "LogID INT IDENTITY(1,1) PRIMARY KEY, " +
+                    "UserID INT NOT NULL, " +
+                    "Action NVARCHAR(50) NOT NULL, " +
+                    "Details NVARCHAR(500), " +
+                    "LogTime DATETIME DEFAULT CURRENT_TIMESTAMP, " +
+                    "FOREIGN KEY (UserID) REFERENCES Users(UserID))");
+        }
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        AuditLogWriter.shutdownInstance();
+        DatabaseUtil.close();
+    }
+
+    @Test
+    void userDeletedBeforeFlushDoesNotBlockOtherLogs() throws SQLException {
+        AuditLogWriter writer = AuditLogWriter.getInstance();
+        assertNotNull(writer);
+        long discardedBefore = writer.getDiscarded();
+
+        int kept = insertUser("audit_kept");
+        int deleted = insertUser("audit_deleted");
+
+        // 批量审批两个用户，状态变更日志还在队列中时其中一个用户被删除
+        List<Integer> approved = new UserDaoImpl().updateApprovalStatus(List.of(kept, deleted), User.STATUS_APPROVED);
+        assertEquals(2, approved.size());
+        assertEquals(2, writer.getQueueDepth());
+        deleteUser(deleted);
+
+        writer.flush();
+
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(discardedBefore + 1, writer.getDiscarded());
+        assertEquals(1, countLogs(kept));
+        assertEquals(0, countLogs(deleted));
+
+        // 丢弃的日志不会放回队列，之后的刷新照常进行
+        AuditLogWriter.logStatusChange(kept, User.STATUS_APPROVED, User.STATUS_REJECTED);
+        writer.flush();
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(2, countLogs(kept));
+    }
+
+    @Test
+    void singleApprovalAndUpdateLogOldStatus() throws SQLException {
+        AuditLogWriter writer = AuditLogWriter.getInstance();
+        assertNotNull(writer);
+        long discardedBefore = writer.getDiscarded();
+        UserDaoImpl userDao = new UserDaoImpl();
+
+        int userId = insertUser("audit_single");
+        assertTrue(userDao.updateApprovalStatus(userId, User.STATUS_APPROVED));
+        // 状态没有变化时不记录日志
+        assertTrue(userDao.updateApprovalStatus(userId, User.STATUS_APPROVED));
+        assertEquals(1, writer.getQueueDepth());
+
+        User user = userDao.getUserById(userId);
+        user.setApprovalStatus(User.STATUS_REJECTED);
+        assertTrue(userDao.updateUser(user));
+        writer.flush();
+
+        assertEquals(List.of(
+                "用户状态从 \"" + User.STATUS_PENDING + "\" 变更为 \"" + User.STATUS_APPROVED + "\"",
+                "用户状态从 \"" + User.STATUS_APPROVED + "\" 变更为 \"" + User.STATUS_REJECTED + "\""),
+                logDetails(userId));
+
+        // 单个审批后、刷新前用户被删除
+        int deleted = insertUser("audit_single_deleted");
+        assertTrue(userDao.updateApprovalStatus(deleted, User.STATUS_REJECTED));
+        deleteUser(deleted);
+        writer.flush();
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(discardedBefore + 1, writer.getDiscarded());
+        assertEquals(0, countLogs(deleted));
+    }
+
+    private static int insertUser(String username) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO Users (Username, Password, UserType) VALUES (?, 'x', ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, User.TYPE_USER1);
+            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void deleteUser(int userId) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM Users WHERE UserID = ?")) {
+            pstmt.setInt(1, userId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static List<String> logDetails(int userId) throws SQLException {
+        List<String> details = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT Details FROM UserLogs WHERE UserID = ? ORDER BY LogID")) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    details.add(rs.getString(1));
+                }
+            }
+        }
+        return details;
+    }
+
+    private static int countLogs(int userId) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM UserLogs WHERE UserID = ?")) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.User;
+import com.usermanagement.util.DatabaseUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PendingIndexUserDao 测试：重新加载期间的写操作和失效、超过上限，以及队列过期后的按ID读取
+ */
+class PendingIndexUserDaoTest {
+    private static final String PASSWORD_HASH = "x";
+
+    private LoadHookUserDao delegate;
+
+    @BeforeAll
+    static void openDatabase() throws SQLException {
+        System.setProperty("db.url", "jdbc:h2:mem:pendingindex;MODE=MSSQLServer;DB_CLOSE_DELAY=-1");
+        System.setProperty("db.driver", "org.h2.Driver");
+        System.setProperty("db.username", "sa");
+        System.setProperty("db.password", "");
+        System.setProperty("db.migrate.enabled", "false");
+        // 审批日志同步写入 UserLogs
+        System.setProperty("audit.writer.enabled", "false");
+        DatabaseUtil.initialize();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE Users (" +
+                    "UserID INT IDENTITY(1,1) PRIMARY KEY, " +
+                    "Username NVARCHAR(50) NOT NULL UNIQUE, " +
+                    "Password NVARCHAR(100) NOT NULL, " +
+                    "UserType NVARCHAR(20) NOT NULL, " +
+                    "ApprovalStatus NVARCHAR(20) NOT NULL DEFAULT N'待审核', " +
+                    "CreatedTime DATETIME DEFAULT CURRENT_TIMESTAMP, " +
+                    "LastLoginTime DATETIME, " +
+                    "Remark NVARCHAR(200) NULL, " +
+                    "RowVersion INT NOT NULL DEFAULT 0)");
+            stmt.execute("CREATE TABLE UserLogs (" +
+                    "LogID INT IDENTITY(1,1) PRIMARY KEY, " +
+                    "UserID INT NOT NULL, " +
+                    "Action NVARCHAR(50) NOT NULL, " +
+                    "Details NVARCHAR(500), " +
+                    "LogTime DATETIME DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    @AfterAll
+    static void closeDatabase() {
+        DatabaseUtil.close();
+    }
+
+    @BeforeEach
+    void clearUsers() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM Users");
+        }
+        delegate = new LoadHookUserDao();
+    }
+
+    @Test
+    void writesDuringReloadAreReplayedOnLoadedIndex() throws SQLException {
+        int approved = insertPendingUser("pidx_approved");
+        insertPendingUser("pidx_kept");
+        PendingIndexUserDao dao = new PendingIndexUserDao(delegate, 0, 100);
+
+        // 加载已读完数据库、还没有换上新队列时，一个用户被审批，另一个用户注册
+        delegate.duringLoad = () -> {
+            assertTrue(dao.updateApprovalStatus(approved, User.STATUS_APPROVED));
+            assertTrue(dao.addUser(new User("pidx_added", "", User.TYPE_USER1), PASSWORD_HASH));
+        };
+        dao.warmUp();
+
+        assertEquals(2, dao.getPendingCount(null));
+        assertEquals(List.of("pidx_kept", "pidx_added"), usernames(dao.getPendingUsers()));
+    }
+
+    @Test
+    void invalidateDuringReloadDiscardsLoadedIndex() throws SQLException {
+        insertPendingUser("pidx_existing");
+        PendingIndexUserDao dao = new PendingIndexUserDao(delegate, 0, 100);
+
+        // 加载期间批量导入，队列被整体作废，本次加载的结果不能使用
+        delegate.duringLoad = () -> dao.addUsers(List.of(new User("pidx_imported", "password1", User.TYPE_USER1)));
+        dao.warmUp();
+
+        assertTrue(dao.getStats().startsWith("待审核队列: 未加载"), dao.getStats());
+        // 下次查询时重新加载，能看到导入的用户
+        assertEquals(2, dao.getPendingCount(null));
+        assertEquals(List.of("pidx_existing", "pidx_imported"), usernames(dao.getPendingUsers()));
+    }
+
+    @Test
+    void overflowFallsBackToDatabase() throws SQLException {
+        insertPendingUser("pidx_1");
+        insertPendingUser("pidx_2");
+        insertPendingUser("pidx_3");
+
+        // 加载时超过上限
+        PendingIndexUserDao dao = new PendingIndexUserDao(delegate, 0, 2);
+        dao.warmUp();
+        assertEquals(-1, dao.getPendingCount(null));
+        assertEquals(3, dao.getPendingUsers().size());
+
+        // 加载后的写操作超过上限
+        clearUsers();
+        insertPendingUser("pidx_1");
+        insertPendingUser("pidx_2");
+        dao = new PendingIndexUserDao(delegate, 0, 2);
+        dao.warmUp();
+        assertEquals(2, dao.getPendingCount(null));
+        assertTrue(dao.addUser(new User("pidx_3", "", User.TYPE_USER1), PASSWORD_HASH));
+        assertEquals(-1, dao.getPendingCount(null));
+        assertEquals(3, dao.getPendingUsers().size());
+    }
+
+    @Test
+    void overflowWhileReplayingWritesFallsBackToDatabase() throws SQLException {
+        insertPendingUser("pidx_1");
+        insertPendingUser("pidx_2");
+        PendingIndexUserDao dao = new PendingIndexUserDao(delegate, 0, 2);
+
+        delegate.duringLoad = () ->
+                assertTrue(dao.addUser(new User("pidx_3", "", User.TYPE_USER1), PASSWORD_HASH));
+        dao.warmUp();
+
+        assertEquals(-1, dao.getPendingCount(null));
+        assertEquals(List.of("pidx_1", "pidx_2", "pidx_3"), usernames(dao.getPendingUsers()));
+    }
+
+    @Test
+    void getUserByIdReadsDatabaseAfterIndexExpires() throws Exception {
+        int userId = insertPendingUser("pidx_expiring");
+        PendingIndexUserDao dao = new PendingIndexUserDao(delegate, 500, 100);
+        dao.warmUp();
+
+        // 其他进程直接修改数据库，队列在过期前不知道这次修改
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("UPDATE Users SET ApprovalStatus = ? WHERE UserID = ?")) {
+            pstmt.setString(1, User.STATUS_APPROVED);
+            pstmt.setInt(2, userId);
+            pstmt.executeUpdate();
+        }
+        assertEquals(User.STATUS_PENDING, dao.getUserById(userId).getApprovalStatus());
+
+        Thread.sleep(600);
+        assertEquals(User.STATUS_APPROVED, dao.getUserById(userId).getApprovalStatus());
+    }
+
+    /**
+     * 读完待审核用户之后、返回给加载方之前执行一次 duringLoad，模拟加载期间发生的写操作
+     */
+    private static final class LoadHookUserDao extends UserDaoImpl {
+        Runnable duringLoad;
+
+        @Override
+        public Stream<User> streamPendingUsers() {
+            List<User> pending;
+            try (Stream<User> users = super.streamPendingUsers()) {
+                pending = users.collect(Collectors.toList());
+            }
+            Runnable hook = duringLoad;
+            duringLoad = null;
+            if (hook != null) {
+                hook.run();
+            }
+            return pending.stream();
+        }
+    }
+
+    private static List<String> usernames(List<User> users) {
+        return users.stream().map(User::getUsername).collect(Collectors.toList());
+    }
+
+    private static int insertPendingUser(String username) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO Users (Username, Password, UserType) VALUES (?, 'x', ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, User.TYPE_USER1);
+            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
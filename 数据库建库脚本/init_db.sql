@@ -9,11 +9,22 @@ GO
 USE UserManagementDB;
 GO
 
--- 创建用户表
+-- 删除已有的表：先删除通过外键引用 Users 的表，再删除 Users
+IF OBJECT_ID('UserSessions', 'U') IS NOT NULL
+    DROP TABLE UserSessions;
+IF OBJECT_ID('UserLogs', 'U') IS NOT NULL
+    DROP TABLE UserLogs;
+IF OBJECT_ID('UserData', 'U') IS NOT NULL
+    DROP TABLE UserData;
 IF OBJECT_ID('Users', 'U') IS NOT NULL
     DROP TABLE Users;
+-- 表结构重建后，应用启动时重新执行全部迁移
+IF OBJECT_ID('SchemaMigrations', 'U') IS NOT NULL
+    DROP TABLE SchemaMigrations;
 GO
 
+-- 创建用户表
+
 CREATE TABLE Users (
     UserID INT IDENTITY(1,1) PRIMARY KEY,
     Username NVARCHAR(50) NOT NULL UNIQUE,
@@ -23,7 +34,8 @@ CREATE TABLE Users (
         CHECK (ApprovalStatus IN ('待审核', '已通过', '已拒绝')),
     CreatedTime DATETIME DEFAULT GETDATE(),
     LastLoginTime DATETIME,
-    Remark NVARCHAR(200) NULL
+    Remark NVARCHAR(200) NULL,
+    RowVersion INT NOT NULL DEFAULT 0  -- 行版本号：修改用户信息或审核状态时加一，用于乐观并发检查
 );
 GO
 
@@ -57,10 +69,6 @@ SELECT * FROM Users WHERE ApprovalStatus = '待审核';
 GO
 
 -- 创建数据表用于存储用户数据（数据管理模块使用）
-IF OBJECT_ID('UserData', 'U') IS NOT NULL
-    DROP TABLE UserData;
-GO
-
 CREATE TABLE UserData (
     DataID INT IDENTITY(1,1) PRIMARY KEY,
     UserID INT NOT NULL,
@@ -76,39 +84,8 @@ CREATE TABLE UserData (
 );
 GO
 
--- 创建触发器示例：当用户状态更新时记录日志
-IF OBJECT_ID('trg_UserStatusChange', 'TR') IS NOT NULL
-    DROP TRIGGER trg_UserStatusChange;
-GO
-
-CREATE TRIGGER trg_UserStatusChange
-ON Users
-AFTER UPDATE
-AS
-BEGIN
-    SET NOCOUNT ON;
-    
-    -- 检查审核状态是否变化
-    IF UPDATE(ApprovalStatus)
-    BEGIN
-        INSERT INTO UserLogs (UserID, Action, Details, LogTime)
-        SELECT 
-            i.UserID,
-            '状态变更',
-            '用户状态从 "' + d.ApprovalStatus + '" 变更为 "' + i.ApprovalStatus + '"',
-            GETDATE()
-        FROM inserted i
-        INNER JOIN deleted d ON i.UserID = d.UserID
-        WHERE i.ApprovalStatus <> d.ApprovalStatus;
-    END
-END;
-GO
-
--- 创建日志表（用于触发器记录）
-IF OBJECT_ID('UserLogs', 'U') IS NOT NULL
-    DROP TABLE UserLogs;
-GO
-
+-- 创建日志表
+-- 状态变更日志由应用（AuditLogWriter）在审核状态变化后异步批量写入，不再使用 Users 表上的触发器
 CREATE TABLE UserLogs (
     LogID INT IDENTITY(1,1) PRIMARY KEY,
     UserID INT NOT NULL,
@@ -119,6 +96,20 @@ CREATE TABLE UserLogs (
 );
 GO
 
+-- 创建会话表（可选，配置 session.persistent=true 时使用，只保存令牌的哈希）
+CREATE TABLE UserSessions (
+    TokenHash NVARCHAR(64) NOT NULL PRIMARY KEY,
+    UserID INT NOT NULL,
+    CreatedTime DATETIME NOT NULL DEFAULT GETDATE(),
+    ExpiresTime DATETIME NOT NULL,
+    FOREIGN KEY (UserID) REFERENCES Users(UserID) ON DELETE CASCADE
+);
+GO
+
+CREATE INDEX idx_sessions_user ON UserSessions(UserID);
+CREATE INDEX idx_sessions_expires ON UserSessions(ExpiresTime);
+GO
+
 -- 插入测试数据（普通用户）
 INSERT INTO Users (Username, Password, UserType, ApprovalStatus) VALUES
 (N'user1', N'password123', N'类型1', N'已通过'),